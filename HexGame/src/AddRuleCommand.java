@@ -0,0 +1,24 @@
+/**
+ * Добавление правила в конец списка; при отмене удаляется по запомненному индексу.
+ */
+class AddRuleCommand implements EditCommand {
+    private final RuleData rule;
+    private int index; // Позиция, в которую правило было добавлено
+
+    AddRuleCommand(RuleData rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Данные правила не могут быть null");
+        }
+        this.rule = rule;
+    }
+
+    @Override
+    public void apply(EditorModel model) {
+        index = model.addRule(rule);
+    }
+
+    @Override
+    public void revert(EditorModel model) {
+        model.removeRule(index);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,751 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Состояние одного запуска анализа: ограничения, выведенные ячейки и перебор.
+ * Ограничения добавляет RuleType.addConstraint.
+ * Для оценки кандидатов (ClueGenerator) остановившийся анализ можно копировать
+ * и пробовать на нем дополнительные ограничения с откатом (beginTrial/endTrial);
+ * пробы могут быть вложенными.
+ */
+class Analysis {
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+    private static final int OUTSIDE = -1; // Ячейка последовательности вне сетки (всегда безопасна)
+    private static final int SAT = 0; // Исходы перебора
+    private static final int UNSAT = 1;
+    private static final int CUT_SHORT = 2; // Исчерпан бюджет или поток прерван: ничего не доказано
+
+    private final LevelAnalyzer analyzer; // Память доказательств
+    private final int rows;
+    private final int cols;
+    private final BitPlane mines; // Истинная расстановка (только для чисел открытых ячеек)
+    private final byte[] neighborCounts; // Числа ячеек
+    private final byte[] state; // Выведенное значение каждой ячейки
+    private int unknownCount; // Невыведенных ячеек
+
+    private int[][] constraintCells = new int[64][]; // Ячейки ограничения (для последовательности — по порядку)
+    private int[] expected = new int[64]; // Количество мин или длина серии
+    private boolean[] sequence = new boolean[64]; // Ограничение — последовательность
+    private int constraintCount;
+    private final int[][] cellConstraints; // Ограничения каждой ячейки
+    private final int[] cellConstraintCount;
+
+    private int[] queue = new int[64]; // Ограничения, ожидающие распространения
+    private int queueHead;
+    private int queueTail;
+    private boolean[] queued = new boolean[64];
+    private final int[] dirtyCells; // Ячейки, ожидающие локального доказательства (кольцевая очередь)
+    private int dirtyHead;
+    private int dirtySize;
+    private final boolean[] dirty;
+
+    private int[] variables = new int[LevelAnalyzer.MAX_LOCAL_CELLS]; // Ячейки переменных перебора
+    private final int[] varOf; // Номер переменной перебора для ячейки или -1
+    private final byte[] values; // Значения переменных перебора
+    private int[] constraintStamp = new int[64]; // Отметки ограничений при построении ключа
+    private int stamp;
+    private boolean[] runScratch = new boolean[8]; // Состояния динамики последовательности
+    private boolean[] nextScratch = new boolean[8];
+    private long globalBudget = LevelAnalyzer.TOTAL_GLOBAL_BUDGET;
+    private boolean ambiguous; // В последней остановке для каждой невыведенной ячейки найдена другая расстановка
+    private long searchNodes; // Узлов, пройденных последним перебором
+    private int[] witnessStamp; // Отметки ячеек, свобода которых показана найденной расстановкой
+    private int witness;
+    private boolean trailing; // Начата проба: выведенные ячейки записываются для отката
+    private int[] trail = new int[64]; // Ячейки, выведенные с начала первой пробы
+    private int trailSize;
+
+    Analysis(LevelAnalyzer analyzer, int rows, int cols, BitPlane mines) {
+        this.analyzer = analyzer;
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        int cells = rows * cols;
+        this.neighborCounts = NeighborCounter.count(mines);
+        this.state = new byte[cells];
+        this.unknownCount = cells;
+        this.cellConstraints = new int[cells][];
+        this.cellConstraintCount = new int[cells];
+        this.dirtyCells = new int[cells];
+        this.dirty = new boolean[cells];
+        this.varOf = new int[cells];
+        Arrays.fill(varOf, -1);
+        this.values = new byte[cells];
+        this.witnessStamp = new int[cells];
+    }
+
+    /**
+     * Копирует остановившийся анализ (после solve, с пустыми очередями).
+     * @param source Исходный анализ
+     * @param analyzer Память доказательств для копии (своя у каждого потока)
+     */
+    Analysis(Analysis source, LevelAnalyzer analyzer) {
+        this.analyzer = analyzer;
+        this.rows = source.rows;
+        this.cols = source.cols;
+        this.mines = source.mines;
+        this.neighborCounts = source.neighborCounts;
+        this.state = source.state.clone();
+        this.unknownCount = source.unknownCount;
+        int capacity = source.constraintCells.length;
+        this.constraintCells = source.constraintCells.clone(); // Ячейки ограничения не меняются
+        this.expected = source.expected.clone();
+        this.sequence = source.sequence.clone();
+        this.constraintCount = source.constraintCount;
+        this.cellConstraints = new int[state.length][];
+        for (int cell = 0; cell < state.length; cell++) {
+            if (source.cellConstraints[cell] != null) {
+                cellConstraints[cell] = source.cellConstraints[cell].clone();
+            }
+        }
+        this.cellConstraintCount = source.cellConstraintCount.clone();
+        this.queue = new int[capacity];
+        this.queued = new boolean[capacity];
+        this.constraintStamp = new int[capacity];
+        this.dirtyCells = new int[state.length];
+        this.dirty = new boolean[state.length];
+        this.varOf = new int[state.length];
+        Arrays.fill(varOf, -1);
+        this.values = new byte[state.length];
+        this.witnessStamp = new int[state.length];
+        this.globalBudget = source.globalBudget;
+        this.ambiguous = source.ambiguous;
+    }
+
+    int getUnknownCount() {
+        return unknownCount;
+    }
+
+    boolean isUnknown(int q, int r) {
+        return state[r * cols + q] == UNKNOWN;
+    }
+
+    /**
+     * Начинает пробу: последующие ограничения и выводы можно откатить.
+     * Пробы могут быть вложенными: откат к более ранней отметке отменяет и все последующие.
+     * @return Отметка для endTrial и trialCells
+     */
+    long beginTrial() {
+        trailing = true;
+        return ((long) constraintCount << 32) | trailSize;
+    }
+
+    /**
+     * Возвращает ячейки, выведенные после отметки.
+     */
+    int[] trialCells(long mark) {
+        return Arrays.copyOfRange(trail, (int) mark, trailSize);
+    }
+
+    /**
+     * Откатывает пробу: удаляет ограничения и выводы, добавленные после отметки.
+     * @param mark Отметка, полученная от beginTrial
+     */
+    void endTrial(long mark) {
+        int trailMark = (int) mark;
+        int constraintMark = (int) (mark >>> 32);
+        for (int i = trailMark; i < trailSize; i++) {
+            state[trail[i]] = UNKNOWN;
+        }
+        unknownCount += trailSize - trailMark;
+        trailSize = trailMark;
+        for (int id = constraintCount - 1; id >= constraintMark; id--) {
+            for (int cell : constraintCells[id]) {
+                if (cell != OUTSIDE) {
+                    cellConstraintCount[cell]--; // Ограничения добавлялись в конец списков
+                }
+            }
+            constraintCells[id] = null;
+        }
+        constraintCount = constraintMark;
+        while (queueHead != queueTail) {
+            queued[queue[queueHead]] = false;
+            queueHead = (queueHead + 1) % queue.length;
+        }
+        while (dirtySize > 0) {
+            dirty[dirtyCells[dirtyHead]] = false;
+            dirtyHead = (dirtyHead + 1) % dirtyCells.length;
+            dirtySize--;
+        }
+    }
+
+    /**
+     * Добавляет ограничение "среди ячеек ровно expectedMines мин".
+     * Повторы и ячейки вне сетки отбрасываются.
+     */
+    void count(List<HexCoord> cells, int expectedMines) {
+        int[] indices = new int[cells.size()];
+        int count = 0;
+        for (HexCoord cell : cells) {
+            if (contains(cell.getQ(), cell.getR())) {
+                indices[count++] = cell.getR() * cols + cell.getQ();
+            }
+        }
+        Arrays.sort(indices, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || indices[unique - 1] != indices[i]) {
+                indices[unique++] = indices[i];
+            }
+        }
+        addConstraint(Arrays.copyOf(indices, unique), expectedMines, false);
+    }
+
+    /**
+     * Добавляет ограничение "среди соседей ячейки ровно expectedMines мин".
+     */
+    void neighborCount(HexCoord center, int expectedMines) {
+        addConstraint(neighbors(center.getR() * cols + center.getQ(), center.getQ(), center.getR()), expectedMines, false);
+    }
+
+    /**
+     * Добавляет ограничение "самая длинная серия мин в ячейках по порядку равна expectedMines".
+     */
+    void sequence(List<HexCoord> cells, int expectedMines) {
+        int[] indices = new int[cells.size()];
+        for (int i = 0; i < indices.length; i++) {
+            HexCoord cell = cells.get(i);
+            indices[i] = contains(cell.getQ(), cell.getR()) ? cell.getR() * cols + cell.getQ() : OUTSIDE;
+        }
+        addConstraint(indices, expectedMines, true);
+    }
+
+    private boolean contains(int q, int r) {
+        return q >= 0 && q < cols && r >= 0 && r < rows;
+    }
+
+    private int[] neighbors(int cell, int q, int r) {
+        int[] result = new int[CompiledRule.NEIGHBOR_OFFSETS.length];
+        int count = 0;
+        for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+            int nq = q + offset[0];
+            int nr = r + offset[1];
+            if (contains(nq, nr)) {
+                result[count++] = nr * cols + nq;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void addConstraint(int[] cells, int expectedMines, boolean isSequence) {
+        if (constraintCount == constraintCells.length) {
+            int capacity = constraintCount * 2;
+            constraintCells = Arrays.copyOf(constraintCells, capacity);
+            expected = Arrays.copyOf(expected, capacity);
+            sequence = Arrays.copyOf(sequence, capacity);
+            queued = Arrays.copyOf(queued, capacity);
+            constraintStamp = Arrays.copyOf(constraintStamp, capacity);
+            int[] grown = new int[capacity]; // Кольцевая очередь: переносим элементы по порядку
+            int size = 0;
+            for (int i = queueHead; i != queueTail; i = (i + 1) % queue.length) {
+                grown[size++] = queue[i];
+            }
+            queue = grown;
+            queueHead = 0;
+            queueTail = size;
+        }
+        int id = constraintCount++;
+        constraintCells[id] = cells;
+        expected[id] = expectedMines;
+        sequence[id] = isSequence;
+        for (int cell : cells) {
+            if (cell == OUTSIDE) {
+                continue;
+            }
+            int[] list = cellConstraints[cell];
+            int count = cellConstraintCount[cell];
+            if (list == null) {
+                list = new int[4];
+            } else if (count == list.length) {
+                list = Arrays.copyOf(list, count * 2);
+            }
+            list[count] = id;
+            cellConstraints[cell] = list;
+            cellConstraintCount[cell] = count + 1;
+            if (state[cell] == UNKNOWN) {
+                markDirty(cell);
+            }
+        }
+        enqueue(id);
+    }
+
+    private void enqueue(int constraint) {
+        if (!queued[constraint]) {
+            queued[constraint] = true;
+            queue[queueTail] = constraint;
+            queueTail = (queueTail + 1) % queue.length;
+        }
+    }
+
+    private void markDirty(int cell) {
+        if (!dirty[cell]) {
+            dirty[cell] = true;
+            dirtyCells[(dirtyHead + dirtySize) % dirtyCells.length] = cell;
+            dirtySize++;
+        }
+    }
+
+    /**
+     * Выполняет анализ.
+     * @return Результат или null, если поток прерван
+     */
+    AnalysisResult run() {
+        return solve(true) ? result() : null;
+    }
+
+    /**
+     * Выводит ячейки до остановки.
+     * @param global Выполнять ли ступень 3 (перебор по связной области)
+     * @return false, если поток прерван
+     */
+    boolean solve(boolean global) {
+        while (true) {
+            if (!propagate()) {
+                return false;
+            }
+            if (unknownCount == 0) {
+                break;
+            }
+
+            // Ступень 2: локальные доказательства для ячеек, окрестность которых изменилась
+            if (dirtySize > 0) {
+                int cell = dirtyCells[dirtyHead];
+                dirtyHead = (dirtyHead + 1) % dirtyCells.length;
+                dirtySize--;
+                dirty[cell] = false;
+                if (state[cell] == UNKNOWN && cellConstraintCount[cell] > 0 && localForced(cell)) {
+                    assign(cell, truth(cell));
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                continue;
+            }
+
+            // Ступень 3: перебор по связной области
+            if (!global) {
+                break;
+            }
+            int forced = globalStep();
+            if (forced == -2) {
+                return false;
+            }
+            if (forced < 0) {
+                break;
+            }
+            assign(forced, truth(forced));
+        }
+        return true;
+    }
+
+    /**
+     * Составляет результат по текущему состоянию.
+     */
+    AnalysisResult result() {
+        BitPlane undetermined = new BitPlane(rows, cols);
+        for (int cell = 0; cell < state.length; cell++) {
+            if (state[cell] == UNKNOWN) {
+                undetermined.set(cell % cols, cell / cols, true);
+            }
+        }
+        LevelVerdict verdict = unknownCount == 0 ? LevelVerdict.SOLVABLE
+                : ambiguous ? LevelVerdict.AMBIGUOUS : LevelVerdict.UNDECIDED;
+        return new AnalysisResult(verdict, undetermined, unknownCount, 0);
+    }
+
+    private byte truth(int cell) {
+        return mines.get(cell % cols, cell / cols) ? MINE : SAFE;
+    }
+
+    /**
+     * Записывает выведенное значение; открытая безопасная ячейка дает ограничение соседей.
+     */
+    private void assign(int cell, byte value) {
+        state[cell] = value;
+        unknownCount--;
+        ambiguous = false; // Вывод изменился: прежние другие расстановки могли стать невозможными
+        if (trailing) {
+            if (trailSize == trail.length) {
+                trail = Arrays.copyOf(trail, trailSize * 2);
+            }
+            trail[trailSize++] = cell;
+        }
+        if (value == SAFE) {
+            int q = cell % cols;
+            int r = cell / cols;
+            addConstraint(neighbors(cell, q, r), neighborCounts[cell], false);
+        }
+        for (int i = 0; i < cellConstraintCount[cell]; i++) {
+            int constraint = cellConstraints[cell][i];
+            enqueue(constraint);
+            for (int other : constraintCells[constraint]) {
+                if (other != OUTSIDE && state[other] == UNKNOWN) {
+                    markDirty(other);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ступень 1: распространяет ограничения до неподвижной точки.
+     * @return false, если поток прерван
+     */
+    private boolean propagate() {
+        int steps = 0;
+        while (queueHead != queueTail) {
+            if ((++steps & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            int constraint = queue[queueHead];
+            queueHead = (queueHead + 1) % queue.length;
+            queued[constraint] = false;
+            if (sequence[constraint]) {
+                propagateSequence(constraint);
+            } else {
+                propagateCount(constraint);
+            }
+        }
+        return true;
+    }
+
+    private void propagateCount(int constraint) {
+        int[] cells = constraintCells[constraint];
+        int mineCount = 0;
+        int unknown = 0;
+        for (int cell : cells) {
+            if (state[cell] == MINE) {
+                mineCount++;
+            } else if (state[cell] == UNKNOWN) {
+                unknown++;
+            }
+        }
+        if (unknown == 0) {
+            return;
+        }
+        int remaining = expected[constraint] - mineCount;
+        if (remaining == 0 || remaining == unknown) {
+            byte value = remaining == 0 ? SAFE : MINE;
+            for (int cell : cells) {
+                if (state[cell] == UNKNOWN) {
+                    assign(cell, value);
+                }
+            }
+        }
+    }
+
+    private void propagateSequence(int constraint) {
+        for (int cell : constraintCells[constraint]) {
+            if (cell == OUTSIDE || state[cell] != UNKNOWN) {
+                continue;
+            }
+            state[cell] = MINE;
+            boolean canBeMine = feasible(constraint);
+            state[cell] = SAFE;
+            boolean canBeSafe = feasible(constraint);
+            state[cell] = UNKNOWN;
+            if (canBeMine != canBeSafe) {
+                assign(cell, canBeMine ? MINE : SAFE);
+            }
+        }
+    }
+
+    /**
+     * Значение ячейки для проверки ограничений: выведенное, назначенное перебором или UNKNOWN.
+     */
+    private byte valueOf(int cell) {
+        if (cell == OUTSIDE) {
+            return SAFE;
+        }
+        byte value = state[cell];
+        if (value == UNKNOWN && varOf[cell] >= 0) {
+            value = values[varOf[cell]];
+        }
+        return value;
+    }
+
+    /**
+     * Проверяет, можно ли дополнить текущие значения так, чтобы ограничение выполнялось.
+     */
+    private boolean feasible(int constraint) {
+        int[] cells = constraintCells[constraint];
+        int target = expected[constraint];
+        if (!sequence[constraint]) {
+            int mineCount = 0;
+            int unknown = 0;
+            for (int cell : cells) {
+                byte value = valueOf(cell);
+                if (value == MINE) {
+                    mineCount++;
+                } else if (value == UNKNOWN) {
+                    unknown++;
+                }
+            }
+            return mineCount <= target && target <= mineCount + unknown;
+        }
+
+        // Последовательность: достижимые состояния (длина текущей серии, достигнута ли длина target)
+        if (target < 0 || target > cells.length) {
+            return false;
+        }
+        int states = 2 * (target + 1);
+        if (runScratch.length < states) {
+            runScratch = new boolean[states];
+            nextScratch = new boolean[states];
+        }
+        boolean[] current = runScratch;
+        boolean[] next = nextScratch;
+        Arrays.fill(current, 0, states, false);
+        current[target == 0 ? 1 : 0] = true;
+        for (int cell : cells) {
+            byte value = valueOf(cell);
+            Arrays.fill(next, 0, states, false);
+            boolean any = false;
+            for (int s = 0; s < states; s++) {
+                if (!current[s]) {
+                    continue;
+                }
+                int run = s >> 1;
+                int reached = s & 1;
+                if (value != MINE) {
+                    next[reached] = true;
+                    any = true;
+                }
+                if (value != SAFE && run + 1 <= target) {
+                    int length = run + 1;
+                    next[(length << 1) | (length == target ? 1 : reached)] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return false;
+            }
+            boolean[] swap = current;
+            current = next;
+            next = swap;
+        }
+        for (int s = 1; s < states; s += 2) {
+            if (current[s]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ступень 2: доказывает значение ячейки от противного в ее окрестности.
+     * @return true, если противоположное истинному значение невозможно
+     */
+    private boolean localForced(int cell) {
+        int count = collectVariables(cell, LevelAnalyzer.MAX_LOCAL_CELLS);
+        byte hypothesis = truth(cell) == MINE ? SAFE : MINE;
+        NeighborhoodKey key = neighborhoodKey(cell, count, hypothesis);
+        Boolean forced = analyzer.recall(key);
+        if (forced == null) {
+            int outcome = search(count, hypothesis, LevelAnalyzer.LOCAL_NODE_BUDGET);
+            forced = outcome == UNSAT;
+            if (outcome != CUT_SHORT) {
+                analyzer.remember(key, forced); // Незаконченный перебор ничего не доказывает
+            }
+        }
+        releaseVariables(count);
+        return forced;
+    }
+
+    /**
+     * Ступень 3: перебирает связные области невыведенных ячеек.
+     * Если доказанных ячеек нет, ambiguous становится true, только когда для каждой
+     * невыведенной ячейки найдена другая расстановка (ячейки, которые ничто не
+     * ограничивает, и ячейки, отличающиеся от истины в уже найденной расстановке,
+     * заново не перебираются). Иначе — лимит проверок или бюджет — итог не установлен.
+     * @return Ячейка, значение которой доказано, -1, если таких нет, -2, если поток прерван
+     */
+    private int globalStep() {
+        ambiguous = false;
+        witness++;
+        boolean allFree = true;
+        int tries = 0;
+        for (int cell = 0; cell < state.length; cell++) {
+            if (state[cell] != UNKNOWN || cellConstraintCount[cell] == 0 || witnessStamp[cell] == witness) {
+                continue;
+            }
+            if (tries == LevelAnalyzer.MAX_GLOBAL_TRIES || globalBudget <= 0) {
+                allFree = false;
+                break;
+            }
+            tries++;
+            int count = collectVariables(cell, Integer.MAX_VALUE);
+            long budget = Math.min(LevelAnalyzer.GLOBAL_NODE_BUDGET, globalBudget);
+            int outcome = search(count, truth(cell) == MINE ? SAFE : MINE, budget);
+            globalBudget -= Math.min(searchNodes, globalBudget);
+            if (outcome == SAT) {
+                // Найденная расстановка показывает свободу всех ячеек, где она отличается от истины
+                for (int i = 0; i < count; i++) {
+                    if (values[i] != truth(variables[i])) {
+                        witnessStamp[variables[i]] = witness;
+                    }
+                }
+            }
+            releaseVariables(count);
+            if (Thread.currentThread().isInterrupted()) {
+                return -2;
+            }
+            if (outcome == UNSAT) {
+                return cell;
+            }
+            if (outcome == CUT_SHORT) {
+                allFree = false;
+            }
+        }
+        ambiguous = allFree;
+        return -1;
+    }
+
+    /**
+     * Собирает переменные перебора (в variables) обходом в ширину от ячейки
+     * по общим ограничениям: ближние ячейки перебираются первыми.
+     * @param start Проверяемая ячейка (переменная 0)
+     * @param limit Наибольшее количество переменных
+     * @return Количество переменных
+     */
+    private int collectVariables(int start, int limit) {
+        if (variables.length < Math.min(limit, state.length)) {
+            variables = new int[Math.min(limit, state.length)];
+        }
+        int count = 0;
+        variables[count] = start;
+        varOf[start] = count;
+        values[count++] = UNKNOWN;
+        for (int i = 0; i < count && count < limit; i++) {
+            int cell = variables[i];
+            for (int c = 0; c < cellConstraintCount[cell] && count < limit; c++) {
+                for (int other : constraintCells[cellConstraints[cell][c]]) {
+                    if (other != OUTSIDE && state[other] == UNKNOWN && varOf[other] < 0) {
+                        variables[count] = other;
+                        varOf[other] = count;
+                        values[count++] = UNKNOWN;
+                        if (count == limit) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void releaseVariables(int count) {
+        for (int i = 0; i < count; i++) {
+            varOf[variables[i]] = -1;
+        }
+    }
+
+    /**
+     * Перебор с возвратами: ищет значения переменных, при которых первая переменная
+     * равна hypothesis и все затронутые ограничения выполнимы. Ячейки вне переменных
+     * считаются свободными, поэтому UNSAT доказывает противоречие и для всей доски.
+     * Остальные переменные сначала получают истинное значение — так другая
+     * расстановка, если она есть, находится быстрее. При SAT найденные значения
+     * остаются в values.
+     * @return SAT, UNSAT или CUT_SHORT (бюджет исчерпан или поток прерван)
+     */
+    private int search(int count, byte hypothesis, long budget) {
+        values[0] = hypothesis;
+        searchNodes = 0;
+        if (!consistent(0)) {
+            return UNSAT;
+        }
+        int i = 1;
+        while (i > 0) {
+            if (i == count) {
+                return SAT;
+            }
+            if (++searchNodes > budget || ((searchNodes & 4095) == 0 && Thread.currentThread().isInterrupted())) {
+                return CUT_SHORT;
+            }
+            byte first = truth(variables[i]);
+            byte second = first == MINE ? SAFE : MINE;
+            byte current = values[i];
+            byte next = current == UNKNOWN ? first : current == first ? second : UNKNOWN;
+            values[i] = next;
+            if (next == UNKNOWN) {
+                i--; // Оба значения перебраны: возврат
+            } else if (consistent(i)) {
+                i++;
+            }
+        }
+        return UNSAT;
+    }
+
+    private boolean consistent(int variable) {
+        int cell = variables[variable];
+        for (int c = 0; c < cellConstraintCount[cell]; c++) {
+            if (!feasible(cellConstraints[cell][c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Описывает окрестность: все ограничения, затрагивающие переменные, со значениями
+     * ячеек и координатами относительно проверяемой ячейки.
+     */
+    private NeighborhoodKey neighborhoodKey(int cell, int count, byte hypothesis) {
+        int centerQ = cell % cols;
+        int centerR = cell / cols;
+        stamp++;
+        long[][] segments = new long[16][];
+        int segmentCount = 0;
+        int length = 1;
+        for (int i = 0; i < count; i++) {
+            int variable = variables[i];
+            for (int c = 0; c < cellConstraintCount[variable]; c++) {
+                int constraint = cellConstraints[variable][c];
+                if (constraintStamp[constraint] == stamp) {
+                    continue;
+                }
+                constraintStamp[constraint] = stamp;
+                int[] cells = constraintCells[constraint];
+                long[] segment = new long[cells.length + 2];
+                segment[0] = ((long) expected[constraint] << 1) | (sequence[constraint] ? 1 : 0);
+                segment[1] = cells.length;
+                for (int j = 0; j < cells.length; j++) {
+                    segment[j + 2] = cellCode(cells[j], centerQ, centerR);
+                }
+                if (!sequence[constraint]) {
+                    Arrays.sort(segment, 2, segment.length); // Порядок ячеек группы не важен
+                }
+                if (segmentCount == segments.length) {
+                    segments = Arrays.copyOf(segments, segmentCount * 2);
+                }
+                segments[segmentCount++] = segment;
+                length += segment.length;
+            }
+        }
+        Arrays.sort(segments, 0, segmentCount, Arrays::compare);
+        long[] data = new long[length];
+        data[0] = hypothesis;
+        int position = 1;
+        for (int s = 0; s < segmentCount; s++) {
+            System.arraycopy(segments[s], 0, data, position, segments[s].length);
+            position += segments[s].length;
+        }
+        return new NeighborhoodKey(data);
+    }
+
+    /**
+     * Код ячейки в ключе: выведенные ячейки — только значение, неизвестные — еще
+     * и относительные координаты (переменная перебора или свободная ячейка).
+     */
+    private long cellCode(int cell, int centerQ, int centerR) {
+        byte value = cell == OUTSIDE ? SAFE : state[cell];
+        if (value != UNKNOWN) {
+            return value;
+        }
+        long dq = cell % cols - centerQ + (1 << 20);
+        long dr = cell / cols - centerR + (1 << 20);
+        return (((dq << 21) | dr) << 2) | (varOf[cell] >= 0 ? 0 : 3);
+    }
+}
\ No newline at end of file
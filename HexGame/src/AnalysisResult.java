@@ -0,0 +1,35 @@
+/**
+ * Результат анализа: итог и ячейки, которые не удалось вывести.
+ */
+class AnalysisResult {
+    private final LevelVerdict verdict;
+    private final BitPlane undetermined; // Невыведенные ячейки или null
+    private final int undeterminedCount;
+    private final int unsatisfiedRules; // Правил, не выполненных для расстановки мин
+
+    AnalysisResult(LevelVerdict verdict, BitPlane undetermined, int undeterminedCount, int unsatisfiedRules) {
+        this.verdict = verdict;
+        this.undetermined = undetermined;
+        this.undeterminedCount = undeterminedCount;
+        this.unsatisfiedRules = unsatisfiedRules;
+    }
+
+    public LevelVerdict getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Проверяет, осталась ли ячейка невыведенной.
+     */
+    public boolean isUndetermined(int q, int r) {
+        return undetermined != null && undetermined.contains(q, r) && undetermined.get(q, r);
+    }
+
+    public int getUndeterminedCount() {
+        return undeterminedCount;
+    }
+
+    public int getUnsatisfiedRules() {
+        return unsatisfiedRules;
+    }
+}
\ No newline at end of file
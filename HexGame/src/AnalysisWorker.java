@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Фоновый анализ решаемости уровня для редактора.
+ * После каждой правки анализирует копию уровня; устаревший анализ прерывается,
+ * а его результат, если он успел появиться, отбрасывается по номеру запроса.
+ * Анализатор с памятью доказательств живет столько же, сколько объект, поэтому
+ * после правки заново перебираются только затронутые ею окрестности.
+ * Все методы вызываются из потока обработки событий Swing.
+ */
+public class AnalysisWorker {
+    private final ExecutorService executor; // Поток для фоновых вычислений
+    private final LevelAnalyzer analyzer; // Используется только фоновым потоком
+    private Future<?> pending; // Текущее вычисление
+    private int generation; // Номер последнего запроса
+
+    /**
+     * Конструктор, создающий фоновый поток-демон.
+     */
+    public AnalysisWorker() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.analyzer = new LevelAnalyzer();
+        this.pending = null;
+        this.generation = 0;
+    }
+
+    /**
+     * Сообщает о правке уровня: отменяет устаревший анализ и запускает новый.
+     * @param model Модель уровня после правки
+     * @param listener Получатель результата (вызывается в потоке обработки событий)
+     */
+    public void levelChanged(EditorModel model, Consumer<AnalysisResult> listener) {
+        cancel();
+        int requested = generation;
+        int rows = model.getRows();
+        int cols = model.getCols();
+        BitPlane mines = model.getMinePlane().copy(); // Фоновый поток не должен видеть дальнейших правок
+        List<RuleData> rules = new ArrayList<>(model.getRules());
+        pending = executor.submit(() -> {
+            AnalysisResult result = analyzer.analyze(rows, cols, mines, rules);
+            if (result != null) {
+                SwingUtilities.invokeLater(() -> {
+                    if (requested == generation) {
+                        listener.accept(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Отменяет текущий анализ; уже готовый, но не доставленный результат отбрасывается.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Останавливает фоновый поток.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
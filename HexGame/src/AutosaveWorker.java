@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Автосохранение партии с ограниченной частотой.
+ * Состояние доски снимается в потоке обработки событий Swing (упаковка в битовые
+ * плоскости), а запись файла выполняется в фоновом потоке. Ходы, сделанные
+ * чаще MIN_INTERVAL_MS, объединяются в одно сохранение.
+ * Все методы, кроме фоновой записи, вызываются из потока обработки событий Swing.
+ */
+public class AutosaveWorker {
+    private static final int MIN_INTERVAL_MS = 2000; // Минимальный интервал между сохранениями
+    private static final int CLOSE_TIMEOUT_MS = 5000; // Сколько ждать последней записи при закрытии
+
+    private final String levelPath; // Путь к уровню
+    private final LevelConfig config; // Конфигурация уровня
+    private final String checkpointPath; // Путь к файлу сохранения
+    private final Consumer<String> errorListener; // Получатель сообщений об ошибках записи
+    private final ExecutorService executor; // Поток для записи файлов
+    private final AtomicReference<GameCheckpoint> latest = new AtomicReference<>(); // Еще не записанное сохранение
+    private final Timer delayTimer; // Отложенное сохранение для частых ходов
+    private byte[] levelHash; // Хэш уровня (считается в фоне при запуске)
+    private Board board; // Доска, ожидающая отложенного сохранения
+    private long lastCapture; // Время последнего снятия состояния
+
+    /**
+     * Конструктор.
+     * @param levelPath Путь к уровню
+     * @param config Конфигурация уровня (для хэша)
+     * @param checkpointPath Путь к файлу сохранения
+     * @param errorListener Получатель сообщений об ошибках записи (в потоке обработки событий)
+     */
+    public AutosaveWorker(String levelPath, LevelConfig config, String checkpointPath, Consumer<String> errorListener) {
+        this.levelPath = levelPath;
+        this.config = config;
+        this.checkpointPath = checkpointPath;
+        this.errorListener = errorListener;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.delayTimer = new Timer(MIN_INTERVAL_MS, e -> {
+            if (board != null) {
+                capture(board);
+            }
+        });
+        this.delayTimer.setRepeats(false);
+
+        // Хэш большого уровня считается в фоне; сохранения ставятся в ту же очередь после него
+        executor.submit(() -> {
+            byte[] hash = GameCheckpoint.levelHash(config);
+            SwingUtilities.invokeLater(() -> levelHash = hash);
+        });
+    }
+
+    /**
+     * Сообщает о ходе. Сохраняет сразу, если с прошлого сохранения прошло
+     * достаточно времени, иначе откладывает сохранение до конца интервала.
+     * Завершенная партия удаляет сохранение.
+     * @param board Игровая доска после хода
+     */
+    public void positionChanged(Board board) {
+        if (board.isGameOver()) {
+            delayTimer.stop();
+            this.board = null;
+            latest.set(null);
+            executor.submit(this::deleteCheckpoint);
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - lastCapture;
+        if (elapsed >= MIN_INTERVAL_MS && levelHash != null) {
+            capture(board);
+        } else {
+            this.board = board;
+            delayTimer.setInitialDelay((int) Math.max(1, MIN_INTERVAL_MS - elapsed));
+            if (!delayTimer.isRunning()) {
+                delayTimer.start();
+            }
+        }
+    }
+
+    /**
+     * Сохраняет текущее состояние и дожидается записи (при закрытии окна).
+     * @param board Игровая доска
+     */
+    public void close(Board board) {
+        delayTimer.stop();
+        if (!board.isGameOver() && board.getMoveCount() > 0) {
+            byte[] hash = levelHash != null ? levelHash : GameCheckpoint.levelHash(config);
+            latest.set(GameCheckpoint.capture(board, levelPath, hash));
+            executor.submit(this::writeLatest);
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Снимает состояние доски и ставит запись в очередь.
+     * Если предыдущая запись еще не началась, она заменяется более новой.
+     */
+    private void capture(Board board) {
+        if (levelHash == null) {
+            delayTimer.restart(); // Хэш уровня еще считается
+            return;
+        }
+        this.board = null;
+        lastCapture = System.currentTimeMillis();
+        if (latest.getAndSet(GameCheckpoint.capture(board, levelPath, levelHash)) == null) {
+            executor.submit(this::writeLatest);
+        }
+    }
+
+    /**
+     * Записывает последнее снятое состояние (выполняется в фоновом потоке).
+     */
+    private void writeLatest() {
+        GameCheckpoint checkpoint = latest.getAndSet(null);
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            checkpoint.write(checkpointPath);
+        } catch (IOException e) {
+            reportError("Автосохранение не удалось: " + e.getMessage());
+        }
+    }
+
+    private void deleteCheckpoint() {
+        try {
+            Files.deleteIfExists(Paths.get(checkpointPath));
+        } catch (IOException e) {
+            reportError("Не удалось удалить сохранение: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Передает сообщение об ошибке в поток обработки событий.
+     */
+    private void reportError(String message) {
+        SwingUtilities.invokeLater(() -> errorListener.accept(message));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,389 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Двоичный формат файла уровня (.hexb) и преобразование из/в текстовый формат.
+ *
+ * Формат (big-endian):
+ * int    магическое число "HEXB"
+ * short  версия формата (читаются версии 1 и 2)
+ * short  флаги сжатия (только в версии 2)
+ * int    rows, int cols, int количество мин, int количество правил
+ * мины:  без FLAG_MINE_GAPS — long[] плоскость мин: rows * ceil(cols / 64) слов в раскладке BitPlane;
+ *        с FLAG_MINE_GAPS — varint промежуток между линейными индексами r * cols + q соседних мин
+ *        (для первой мины — ее индекс)
+ * правила: varint тип (порядковый номер RuleType), varint мины, varint количество ячеек,
+ *          затем линейные индексы ячеек: без FLAG_RULE_DELTAS — varint индекс каждой ячейки;
+ *          с FLAG_RULE_DELTAS — zigzag varint разность с предыдущей ячейкой
+ *          (для первой ячейки правила — с первой ячейкой предыдущего правила)
+ *
+ * Кодировщик сам выбирает для мин более короткое представление: плоскость
+ * выгоднее на плотных уровнях, промежутки — на разреженных. Ячейки правил
+ * обычно соседние, поэтому их разности почти всегда занимают один байт.
+ * Файл читается через отображение в память, и мины в любом представлении
+ * раскладываются сразу в BitPlane, которую затем использует доска.
+ */
+public class BinaryLevelFile {
+    public static final String EXTENSION = ".hexb"; // Расширение двоичных файлов уровней
+    private static final int MAGIC = 0x48455842; // "HEXB"
+    private static final short VERSION = 2; // Текущая версия формата
+    private static final int FLAG_MINE_GAPS = 1; // Мины записаны промежутками между индексами
+    private static final int FLAG_RULE_DELTAS = 2; // Ячейки правил записаны разностями
+
+    /**
+     * Загружает конфигурацию уровня из двоичного файла.
+     * @param filePath Путь к файлу уровня
+     * @return Объект LevelConfig
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат файла некорректен
+     */
+    public static LevelConfig loadLevelFromFile(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * Сохраняет конфигурацию уровня в двоичный файл.
+     * @param config Объект LevelConfig
+     * @param filePath Путь к файлу
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если config null
+     */
+    public static void saveLevelToFile(LevelConfig config, String filePath) throws IOException {
+        if (config == null) {
+            throw new IllegalArgumentException("Конфигурация уровня не может быть null");
+        }
+        try {
+            Files.write(Paths.get(filePath), encode(config));
+        } catch (IOException e) {
+            throw new IOException("Не удалось записать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * Кодирует конфигурацию уровня в двоичный формат со сжатием.
+     * @param config Объект LevelConfig
+     * @return Закодированный уровень
+     */
+    public static byte[] encode(LevelConfig config) {
+        int rows = config.getRows();
+        int cols = config.getCols();
+        List<RuleData> rules = config.getRuleDataList();
+        BitPlane minePlane = config.getMinePlane();
+        int mineCount = minePlane.cardinality();
+        long[] words = minePlane.words();
+
+        // Для мин выбираем более короткое из двух представлений
+        long planeBytes = (long) words.length * Long.BYTES;
+        long gapBytes = 0;
+        long previous = -1;
+        for (int i = 0; i < words.length && gapBytes <= planeBytes; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                long index = linearIndex(i, Long.numberOfTrailingZeros(word), minePlane);
+                gapBytes += varintSize(index - previous - 1);
+                previous = index;
+            }
+        }
+        boolean mineGaps = gapBytes < planeBytes;
+        int flags = FLAG_RULE_DELTAS | (mineGaps ? FLAG_MINE_GAPS : 0);
+
+        long estimate = 28 + (mineGaps ? gapBytes : planeBytes) + rules.size() * 8L;
+        ByteOutput out = new ByteOutput((int) Math.min(estimate, Integer.MAX_VALUE - 8)); // Массив больше не выделить
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(flags);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(mineCount);
+        out.writeInt(rules.size());
+        if (mineGaps) {
+            previous = -1;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    long index = linearIndex(i, Long.numberOfTrailingZeros(word), minePlane);
+                    out.writeVarint((int) (index - previous - 1));
+                    previous = index;
+                }
+            }
+        } else {
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+
+        int previousFirst = 0;
+        for (RuleData rule : rules) {
+            List<HexCoord> cells = rule.getCells();
+            out.writeVarint(rule.getType().ordinal());
+            out.writeVarint(rule.getExpectedMines());
+            out.writeVarint(cells.size());
+            int previousCell = previousFirst;
+            for (int j = 0; j < cells.size(); j++) {
+                HexCoord cell = cells.get(j);
+                int index = cell.getR() * cols + cell.getQ();
+                out.writeVarint(zigzag(index - previousCell));
+                previousCell = index;
+                if (j == 0) {
+                    previousFirst = index;
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Декодирует конфигурацию уровня, начиная с текущей позиции буфера.
+     * @param buffer Буфер с закодированным уровнем
+     * @return Объект LevelConfig
+     * @throws IllegalArgumentException если формат некорректен
+     */
+    public static LevelConfig decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Файл не является двоичным уровнем");
+            }
+            short version = buffer.getShort();
+            if (version != 1 && version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия формата: " + version);
+            }
+            int flags = buffer.getShort();
+            if (version == 1 && flags != 0 || (flags & ~(FLAG_MINE_GAPS | FLAG_RULE_DELTAS)) != 0) {
+                throw new IllegalArgumentException("Неизвестные флаги формата: " + flags);
+            }
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            int mineCount = buffer.getInt();
+            int ruleCount = buffer.getInt();
+            int cellCount = BitPlane.cellCount(rows, cols);
+            if (mineCount < 0 || ruleCount < 0) {
+                throw new IllegalArgumentException("Недопустимое количество мин или правил: " + mineCount + ", " + ruleCount);
+            }
+
+            // Мины раскладываются сразу в плоскость, которую затем использует доска
+            BitPlane minePlane = new BitPlane(rows, cols);
+            if ((flags & FLAG_MINE_GAPS) != 0) {
+                long[] words = minePlane.words();
+                int wordsPerRow = minePlane.getWordsPerRow();
+                long index = -1;
+                for (int i = 0; i < mineCount; i++) {
+                    index += readVarint(buffer) + 1L;
+                    if (index >= cellCount) {
+                        throw new IllegalArgumentException("Мина вне сетки: индекс " + index);
+                    }
+                    int q = (int) (index % cols);
+                    words[(int) (index / cols) * wordsPerRow + (q >>> 6)] |= BitPlane.bitMask(q);
+                }
+            } else {
+                buffer.asLongBuffer().get(minePlane.words());
+                buffer.position(buffer.position() + minePlane.words().length * Long.BYTES);
+                minePlane.checkPadding();
+                if (minePlane.cardinality() != mineCount) {
+                    throw new IllegalArgumentException("Количество мин не совпадает с заголовком: "
+                            + minePlane.cardinality() + " != " + mineCount);
+                }
+            }
+
+            boolean deltas = (flags & FLAG_RULE_DELTAS) != 0;
+            RuleType[] types = RuleType.values();
+            List<RuleData> rules = new ArrayList<>(ruleCount);
+            int previousFirst = 0;
+            for (int i = 0; i < ruleCount; i++) {
+                int typeIndex = readVarint(buffer);
+                if (typeIndex >= types.length) {
+                    throw new IllegalArgumentException("Неизвестный тип правила: " + typeIndex);
+                }
+                int expectedMines = readVarint(buffer);
+                int ruleCells = readVarint(buffer);
+                if (ruleCells > buffer.remaining()) {
+                    throw new IllegalArgumentException("Двоичный уровень обрезан");
+                }
+                List<HexCoord> cells = new ArrayList<>(ruleCells);
+                long index = previousFirst;
+                for (int j = 0; j < ruleCells; j++) {
+                    index = deltas ? index + unzigzag(readVarint(buffer)) : readVarint(buffer);
+                    if (index < 0 || index >= cellCount) {
+                        throw new IllegalArgumentException("Координаты правила вне сетки: индекс " + index);
+                    }
+                    if (j == 0) {
+                        previousFirst = (int) index;
+                    }
+                    cells.add(new HexCoord((int) (index % cols), (int) (index / cols)));
+                }
+                rules.add(types[typeIndex].createData(cells, expectedMines));
+            }
+            return new LevelConfig(rows, cols, minePlane, rules);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Двоичный уровень обрезан", e);
+        }
+    }
+
+    /**
+     * Преобразует текстовый файл уровня в двоичный.
+     * @param textPath Путь к текстовому файлу
+     * @param binaryPath Путь к двоичному файлу
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static void convertTextToBinary(String textPath, String binaryPath) throws IOException {
+        saveLevelToFile(LevelFile.loadLevelFromFile(textPath), binaryPath);
+    }
+
+    /**
+     * Преобразует двоичный файл уровня в текстовый.
+     * @param binaryPath Путь к двоичному файлу
+     * @param textPath Путь к текстовому файлу
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static void convertBinaryToText(String binaryPath, String textPath) throws IOException {
+        LevelFile.saveLevelToFile(loadLevelFromFile(binaryPath), textPath);
+    }
+
+    /**
+     * Линейный индекс r * cols + q бита b слова с номером wordIndex.
+     */
+    private static long linearIndex(int wordIndex, int bit, BitPlane plane) {
+        int wordsPerRow = plane.getWordsPerRow();
+        return (long) (wordIndex / wordsPerRow) * plane.getCols() + ((wordIndex % wordsPerRow) << 6) + bit;
+    }
+
+    /**
+     * Количество байт varint для неотрицательного числа.
+     */
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Переводит число со знаком в неотрицательное: 0, -1, 1, -2 ... -> 0, 1, 2, 3 ...
+     */
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Записывает неотрицательное число в формате varint (до 5 байт).
+     * Общая запись для уровней и журналов партий (ReplayRecorder).
+     * @param target Массив, в котором есть место для 5 байт начиная с offset
+     * @param offset Позиция записи
+     * @param value Число
+     * @return Позиция после записанного числа
+     * @throws IllegalArgumentException если число отрицательное
+     */
+    static int writeVarint(byte[] target, int offset, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Отрицательное значение не кодируется varint: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Читает неотрицательное число в формате varint.
+     * Пятый байт несет только биты 28–30: байт с продолжением, знаковым битом
+     * или битами за пределами int отвергается, а не обрезается.
+     */
+    static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0xF8) != 0) {
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Некорректное число varint");
+    }
+
+    /**
+     * Преобразование форматов из командной строки.
+     * @param args to-binary|to-text исходный_файл целевой_файл
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+            System.err.println("Использование: java BinaryLevelFile to-binary|to-text исходный_файл целевой_файл");
+            System.exit(1);
+        }
+        try {
+            if (args[0].equals("to-binary")) {
+                convertTextToBinary(args[1], args[2]);
+            } else {
+                convertBinaryToText(args[1], args[2]);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(args[1] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Запись в растущий массив байт без синхронизации и промежуточных потоков.
+     */
+    private static final class ByteOutput {
+        private byte[] bytes;
+        private int size;
+
+        ByteOutput(int capacity) {
+            bytes = new byte[Math.max(capacity, 64)];
+        }
+
+        void writeShort(int value) {
+            ensure(2);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            size = BinaryLevelFile.writeVarint(bytes, size, value);
+        }
+
+        private void ensure(int needed) {
+            if (size + needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + needed));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
\ No newline at end of file
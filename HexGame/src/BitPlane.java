@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Битовая плоскость гексагональной сетки: один бит на ячейку.
+ * Каждая строка начинается с границы 64-битного слова, поэтому бит ячейки (q, r)
+ * лежит в слове r * wordsPerRow + q / 64, а соседние строки можно обрабатывать
+ * сдвигами целых слов.
+ */
+public class BitPlane {
+    private final int rows; // Количество строк
+    private final int cols; // Количество столбцов
+    private final int wordsPerRow; // Количество слов на строку
+    private final long[] words; // Биты ячеек
+
+    /**
+     * Конструктор, создающий пустую плоскость.
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     */
+    public BitPlane(int rows, int cols) {
+        cellCount(rows, cols); // Слов не больше, чем ячеек, поэтому rows * wordsPerRow не переполняется
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = wordsPerRow(cols);
+        this.words = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * Возвращает количество ячеек сетки, проверяя размеры.
+     * Линейные индексы r * cols + q и массивы по ячейкам считаются в int,
+     * поэтому сетка больше Integer.MAX_VALUE ячеек отклоняется, а не переполняется.
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     * @return rows * cols
+     * @throws IllegalArgumentException если размеры не положительны или сетка слишком велика
+     */
+    public static int cellCount(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Размеры сетки должны быть положительными: rows=" + rows + ", cols=" + cols);
+        }
+        try {
+            return Math.multiplyExact(rows, cols);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Сетка слишком велика: rows=" + rows + ", cols=" + cols, e);
+        }
+    }
+
+    /**
+     * Создает плоскость с установленными битами для заданных координат.
+     * Координаты вне сетки пропускаются.
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     * @param coords Координаты ячеек
+     * @return Новая плоскость
+     */
+    public static BitPlane fromCoords(int rows, int cols, List<HexCoord> coords) {
+        BitPlane plane = new BitPlane(rows, cols);
+        for (HexCoord coord : coords) {
+            if (plane.contains(coord.getQ(), coord.getR())) {
+                plane.set(coord.getQ(), coord.getR(), true);
+            }
+        }
+        return plane;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Возвращает количество слов на строку для сетки с заданным числом столбцов.
+     */
+    public static int wordsPerRow(int cols) {
+        return (cols + 63) >>> 6;
+    }
+
+    /**
+     * Проверяет, лежат ли координаты в пределах сетки.
+     */
+    public boolean contains(int q, int r) {
+        return q >= 0 && q < cols && r >= 0 && r < rows;
+    }
+
+    /**
+     * Возвращает индекс слова, содержащего бит ячейки.
+     */
+    public int wordIndex(int q, int r) {
+        return r * wordsPerRow + (q >>> 6);
+    }
+
+    /**
+     * Возвращает маску бита ячейки внутри ее слова.
+     */
+    public static long bitMask(int q) {
+        return 1L << q; // Сдвиг long берется по модулю 64
+    }
+
+    public boolean get(int q, int r) {
+        return (words[wordIndex(q, r)] & bitMask(q)) != 0;
+    }
+
+    public void set(int q, int r, boolean value) {
+        if (value) {
+            words[wordIndex(q, r)] |= bitMask(q);
+        } else {
+            words[wordIndex(q, r)] &= ~bitMask(q);
+        }
+    }
+
+    /**
+     * Перечисляет координаты установленных битов по строкам.
+     * @return Список координат
+     * @throws IllegalArgumentException если установлен бит за последним столбцом строки
+     */
+    public List<HexCoord> toCoords() {
+        List<HexCoord> coords = new ArrayList<>(cardinality());
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int q = ((i % wordsPerRow) << 6) + Long.numberOfTrailingZeros(word);
+                if (q >= cols) {
+                    throw new IllegalArgumentException("Бит вне сетки: q=" + q);
+                }
+                coords.add(new HexCoord(q, i / wordsPerRow));
+                word &= word - 1;
+            }
+        }
+        return coords;
+    }
+
+    /**
+     * Проверяет, что биты за последним столбцом каждой строки сброшены
+     * (для плоскостей, прочитанных из файла целыми словами).
+     * @throws IllegalArgumentException если установлен бит вне сетки
+     */
+    public void checkPadding() {
+        if ((cols & 63) == 0) {
+            return;
+        }
+        long padding = -1L << (cols & 63);
+        for (int r = 0; r < rows; r++) {
+            if ((words[r * wordsPerRow + wordsPerRow - 1] & padding) != 0) {
+                throw new IllegalArgumentException("Бит вне сетки в строке " + r);
+            }
+        }
+    }
+
+    /**
+     * Возвращает массив слов без копирования.
+     * Используется в горячих циклах; вызывающий код не должен его изменять без необходимости.
+     * @return Слова плоскости
+     */
+    public long[] words() {
+        return words;
+    }
+
+    /**
+     * Возвращает количество установленных битов.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Сбрасывает все биты.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Создает независимую копию плоскости.
+     */
+    public BitPlane copy() {
+        BitPlane copy = new BitPlane(rows, cols);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+}
\ No newline at end of file
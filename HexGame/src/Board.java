@@ -1,16 +1,28 @@
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Класс, представляющий игровую доску Hexcells.
+ * Кроме ячеек, открытые ячейки и флаги хранятся в битовых плоскостях, которые
+ * обновляются при каждом ходе: снимок позиции (snapshot) и сохранение партии
+ * копируют их пословно, не обходя ячейки.
  */
 public class Board {
     private final int rows;
     private final int cols;
     private final Cell[][] grid;
-    private final List<Rule> activeRules;
+    private List<Rule> activeRules; // Неизменяемый список; заменяется целиком в initializeLevel
+    private LevelConfig levelConfig; // Конфигурация, по которой инициализирован уровень, или null
+    private BitPlane minePlane; // Расположение мин в упакованном виде
+    private BitPlane revealedPlane; // Открытые ячейки
+    private BitPlane flaggedPlane; // Ячейки с флагами
+    private byte[] neighborCounts; // Количество мин среди соседей, индекс r * cols + q
     private boolean gameOver;
     private boolean gameWon;
+    private int moveCount; // Количество успешных ходов (открытий и флагов)
+    private int unresolvedCells; // Мины без флага и закрытые безопасные ячейки; победа при нуле
+    private int stateVersion; // Счетчик замен состояния целиком (initializeLevel, restoreState)
 
     /**
      * Конструктор, создающий доску заданного размера.
@@ -18,12 +30,19 @@ public class Board {
      * @param cols Количество столбцов
      */
     public Board(int rows, int cols) {
+        int cells = BitPlane.cellCount(rows, cols);
         this.rows = rows;
         this.cols = cols;
         this.grid = new Cell[rows][cols];
-        this.activeRules = new ArrayList<>();
+        this.activeRules = Collections.emptyList();
         this.gameOver = false;
         this.gameWon = false;
+        this.moveCount = 0;
+        this.unresolvedCells = cells;
+        this.minePlane = new BitPlane(rows, cols);
+        this.revealedPlane = new BitPlane(rows, cols);
+        this.flaggedPlane = new BitPlane(rows, cols);
+        this.neighborCounts = new byte[cells];
 
         // Инициализация ячеек
         for (int r = 0; r < rows; r++) {
@@ -38,9 +57,14 @@ public class Board {
      * @param config Конфигурация уровня
      */
     public void initializeLevel(LevelConfig config) {
+        levelConfig = config;
+        stateVersion++;
         gameOver = false;
         gameWon = false;
-        activeRules.clear();
+        moveCount = 0;
+        unresolvedCells = rows * cols; // Все безопасные ячейки закрыты, флагов нет
+        revealedPlane = new BitPlane(rows, cols);
+        flaggedPlane = new BitPlane(rows, cols);
 
         // Сбрасываем ячейки
         for (int r = 0; r < rows; r++) {
@@ -54,84 +78,331 @@ public class Board {
         }
 
         // Устанавливаем мины
-        for (HexCoord mineCoord : config.getMines()) {
-            Cell cell = getCell(mineCoord);
-            if (cell != null) {
-                cell.setMine(true);
+        minePlane = config.getMinePlane();
+        if (minePlane.getRows() != rows || minePlane.getCols() != cols) {
+            minePlane = BitPlane.fromCoords(rows, cols, config.getMines());
+        }
+        long[] words = minePlane.words(); // Ячейки мин отмечаются по установленным битам плоскости
+        int wordsPerRow = minePlane.getWordsPerRow();
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int q = ((i % wordsPerRow) << 6) + Long.numberOfTrailingZeros(word);
+                grid[i / wordsPerRow][q].setMine(true);
+                word &= word - 1;
             }
         }
 
-        // Добавляем правила
+        // Добавляем правила и компилируем их заранее, чтобы проверки не тратили время на разбор координат.
+        // Список создается заново: прежний мог остаться в снимках позиции
+        List<Rule> rules = new ArrayList<>();
         for (RuleData ruleData : config.getRuleDataList()) {
-            if (ruleData instanceof SequenceRuleData) {
-                SequenceRuleData data = (SequenceRuleData) ruleData;
-                activeRules.add(new SequenceRule(data.getCellsInSequence(), data.getExpectedConsecutiveMines()));
-            } else if (ruleData instanceof GroupRuleData) {
-                GroupRuleData data = (GroupRuleData) ruleData;
-                activeRules.add(new GroupRule(data.getCellsInGroup(), data.getExpectedGroupedMines()));
-            } else if (ruleData instanceof EdgeRuleData) {
-                EdgeRuleData data = (EdgeRuleData) ruleData;
-                activeRules.add(new EdgeRule(data.getCellCoord(), data.getExpectedNeighborMines()));
-            }
+            Rule rule = ruleData.getType().createRule(ruleData);
+            rule.compile(rows, cols);
+            rules.add(rule);
         }
+        activeRules = Collections.unmodifiableList(rules);
 
         // Рассчитываем revealedValue для всех ячеек
         calculateAllNeighborRules();
     }
 
+    /**
+     * Возвращает конфигурацию, по которой инициализирован уровень
+     * (для записи партии, не загружая уровень заново).
+     * @return LevelConfig или null, если уровень не инициализирован
+     */
+    public LevelConfig getLevelConfig() {
+        return levelConfig;
+    }
+
+    /**
+     * Возвращает счетчик замен состояния доски целиком. Ходы его не меняют:
+     * об их изменениях панель узнает по измененным ячейкам.
+     * @return Номер, растущий при каждом initializeLevel и restoreState
+     */
+    public int getStateVersion() {
+        return stateVersion;
+    }
+
     /**
      * Открывает ячейку по координатам.
      * @param coord Координаты ячейки
      * @return true, если ячейка открыта успешно, false, если игра завершена или ячейка уже открыта/флагована
      */
     public boolean revealCell(HexCoord coord) {
-        if (gameOver || gameWon) {
+        if (gameOver || gameWon || !reveal(coord.getQ(), coord.getR(), null)) {
+            return false;
+        }
+
+        // Проверяем условия победы
+        if (!gameOver) {
+            checkWinCondition();
+        }
+        return true;
+    }
+
+    /**
+     * Устанавливает или снимает флаг на ячейке.
+     * @param coord Координаты ячейки
+     * @return true, если флаг изменен, false, если ячейка открыта или игра завершена
+     */
+    public boolean toggleFlag(HexCoord coord) {
+        if (gameOver || gameWon || !flag(coord.getQ(), coord.getR(), null)) {
             return false;
         }
 
-        Cell cell = getCell(coord);
-        if (cell == null || cell.isRevealed() || cell.isFlagged()) {
+        // Последний флаг тоже может завершить уровень
+        checkWinCondition();
+        return true;
+    }
+
+    /**
+     * Открывает все закрытые соседние ячейки без флагов вокруг открытого числа,
+     * если флагов вокруг него ровно столько, сколько мин показывает число.
+     * @param coord Координаты открытой ячейки с числом
+     * @return true, если открыта хотя бы одна ячейка
+     */
+    public boolean chord(HexCoord coord) {
+        if (gameOver || gameWon || !chord(coord.getQ(), coord.getR(), null)) {
+            return false;
+        }
+        if (!gameOver) {
+            checkWinCondition();
+        }
+        return true;
+    }
+
+    /**
+     * Применяет последовательность ходов как одну операцию: победа проверяется
+     * один раз в конце, а изменения собираются в общий набор для перерисовки.
+     * Ходы после проигрыша не применяются; ходы, не изменившие доску, пропускаются.
+     * @param moves Ходы в порядке применения
+     * @return Изменения, внесенные всеми ходами
+     */
+    public MoveResult applyMoves(List<Move> moves) {
+        MoveResult result = new MoveResult(cols);
+        for (Move move : moves) {
+            if (gameOver || gameWon) {
+                break;
+            }
+            HexCoord coord = move.getCoord();
+            boolean changed;
+            switch (move.getType()) {
+                case REVEAL:
+                    changed = reveal(coord.getQ(), coord.getR(), result);
+                    break;
+                case FLAG:
+                    changed = flag(coord.getQ(), coord.getR(), result);
+                    break;
+                case CHORD:
+                    changed = chord(coord.getQ(), coord.getR(), result);
+                    break;
+                default:
+                    throw new IllegalStateException("Неизвестный тип хода: " + move.getType());
+            }
+            if (changed) {
+                result.moveApplied();
+            }
+        }
+
+        if (!gameOver) {
+            checkWinCondition();
+        }
+        result.finish(gameOver, gameWon);
+        return result;
+    }
+
+    /**
+     * Открывает ячейку без проверки победы.
+     * @param changes Набор изменений или null
+     * @return true, если ячейка открыта
+     */
+    private boolean reveal(int q, int r, MoveResult changes) {
+        if (q < 0 || q >= cols || r < 0 || r >= rows) {
+            return false;
+        }
+        Cell cell = grid[r][q];
+        if (cell.isRevealed() || cell.isFlagged()) {
             return false;
         }
 
         cell.setRevealed(true);
+        revealedPlane.set(q, r, true);
+        moveCount++;
+        if (changes != null) {
+            changes.cellChanged(q, r);
+        }
         if (cell.isMine()) {
             gameOver = true;
             return true;
         }
 
         // Рассчитываем revealedValue
-        int mineCount = 0;
-        for (HexCoord neighborCoord : getNeighbors(coord)) {
-            Cell neighbor = getCell(neighborCoord);
-            if (neighbor != null && neighbor.isMine()) {
-                mineCount++;
-            }
+        cell.setRevealedValue(neighborCounts[r * cols + q]);
+        unresolvedCells--;
+        return true;
+    }
+
+    /**
+     * Ставит или снимает флаг.
+     * @param changes Набор изменений или null
+     * @return true, если флаг изменен
+     */
+    private boolean flag(int q, int r, MoveResult changes) {
+        if (q < 0 || q >= cols || r < 0 || r >= rows) {
+            return false;
+        }
+        Cell cell = grid[r][q];
+        if (cell.isRevealed()) {
+            return false;
         }
-        cell.setRevealedValue(mineCount);
 
-        // Проверяем условия победы
-        checkWinCondition();
+        boolean flagged = !cell.isFlagged();
+        cell.setFlagged(flagged);
+        flaggedPlane.set(q, r, flagged);
+        moveCount++;
+        if (cell.isMine()) {
+            unresolvedCells += flagged ? -1 : 1;
+        }
+        if (changes != null) {
+            changes.cellChanged(q, r);
+        }
         return true;
     }
 
     /**
-     * Устанавливает или снимает флаг на ячейке.
-     * @param coord Координаты ячейки
-     * @return true, если флаг изменен, false, если ячейка открыта или игра завершена
+     * Открывает соседей открытого числа без проверки победы.
+     * Останавливается, если открыта мина (флаги стояли неверно).
+     * @param changes Набор изменений или null
+     * @return true, если открыта хотя бы одна ячейка
      */
-    public boolean toggleFlag(HexCoord coord) {
-        if (gameOver || gameWon) {
+    private boolean chord(int q, int r, MoveResult changes) {
+        if (q < 0 || q >= cols || r < 0 || r >= rows) {
             return false;
         }
-
-        Cell cell = getCell(coord);
-        if (cell == null || cell.isRevealed()) {
+        Cell cell = grid[r][q];
+        if (!cell.isRevealed() || cell.isMine()) {
             return false;
         }
 
-        cell.setFlagged(!cell.isFlagged());
-        return true;
+        int flags = 0;
+        for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+            int nq = q + offset[0];
+            int nr = r + offset[1];
+            if (nq >= 0 && nq < cols && nr >= 0 && nr < rows && grid[nr][nq].isFlagged()) {
+                flags++;
+            }
+        }
+        if (flags != neighborCounts[r * cols + q]) {
+            return false; // Число еще не удовлетворено флагами
+        }
+
+        boolean changed = false;
+        for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+            changed |= reveal(q + offset[0], r + offset[1], changes);
+            if (gameOver) {
+                break;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Создает независимую копию доски вместе с состоянием ячеек.
+     * Правила неизменяемы, поэтому разделяются между копиями.
+     * @return Копия доски
+     */
+    public Board copy() {
+        Board copy = new Board(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            for (int q = 0; q < cols; q++) {
+                Cell source = grid[r][q];
+                Cell target = copy.grid[r][q];
+                target.setMine(source.isMine());
+                target.setRevealed(source.isRevealed());
+                target.setFlagged(source.isFlagged());
+                target.setRevealedValue(source.getRevealedValue());
+            }
+        }
+        copy.activeRules = activeRules;
+        copy.revealedPlane = revealedPlane.copy();
+        copy.flaggedPlane = flaggedPlane.copy();
+        copy.levelConfig = levelConfig;
+        copy.minePlane = minePlane; // Мины не меняются после инициализации уровня
+        copy.neighborCounts = neighborCounts;
+        copy.gameOver = gameOver;
+        copy.gameWon = gameWon;
+        copy.moveCount = moveCount;
+        copy.unresolvedCells = unresolvedCells;
+        copy.stateVersion = stateVersion;
+        return copy;
+    }
+
+    /**
+     * Упаковывает открытые ячейки в битовую плоскость (для сохранения партии).
+     * @return Новая плоскость открытых ячеек
+     */
+    public BitPlane exportRevealed() {
+        return revealedPlane.copy();
+    }
+
+    /**
+     * Упаковывает ячейки с флагами в битовую плоскость (для сохранения партии).
+     * @return Новая плоскость флагов
+     */
+    public BitPlane exportFlagged() {
+        return flaggedPlane.copy();
+    }
+
+    /**
+     * Снимает позицию для анализа в другом потоке (см. HintWorker).
+     * Копируются только плоскости открытых ячеек и флагов, поэтому снимок
+     * стоит O(rows·cols/64), а не копии всех ячеек, как copy().
+     * @return Независимый от дальнейших ходов снимок
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot(revealedPlane.copy(), flaggedPlane.copy(), minePlane, neighborCounts, activeRules);
+    }
+
+    /**
+     * Восстанавливает состояние партии поверх инициализированного уровня.
+     * Значения открытых ячеек берутся из заранее посчитанных счетчиков соседей.
+     * @param revealed Плоскость открытых ячеек
+     * @param flagged Плоскость флагов
+     * @param moveCount Количество сделанных ходов
+     * @param gameOver Игра завершена
+     * @param gameWon Игра выиграна
+     * @throws IllegalArgumentException если размеры плоскостей не совпадают с доской
+     */
+    public void restoreState(BitPlane revealed, BitPlane flagged, int moveCount, boolean gameOver, boolean gameWon) {
+        if (revealed.getRows() != rows || revealed.getCols() != cols
+                || flagged.getRows() != rows || flagged.getCols() != cols) {
+            throw new IllegalArgumentException("Размеры сохраненной партии не совпадают с доской " + rows + "x" + cols);
+        }
+        int unresolved = 0;
+        revealedPlane = new BitPlane(rows, cols);
+        flaggedPlane = new BitPlane(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            for (int q = 0; q < cols; q++) {
+                Cell cell = grid[r][q];
+                boolean isRevealed = revealed.get(q, r);
+                boolean isFlagged = flagged.get(q, r) && !isRevealed;
+                cell.setRevealed(isRevealed);
+                cell.setFlagged(isFlagged);
+                revealedPlane.set(q, r, isRevealed);
+                flaggedPlane.set(q, r, isFlagged);
+                cell.setRevealedValue(isRevealed && !cell.isMine() ? neighborCounts[r * cols + q] : -1);
+                if (cell.isMine() ? !cell.isFlagged() : !isRevealed) {
+                    unresolved++;
+                }
+            }
+        }
+        this.unresolvedCells = unresolved;
+        this.stateVersion++;
+        this.moveCount = moveCount;
+        this.gameOver = gameOver;
+        this.gameWon = gameWon;
     }
 
     /**
@@ -140,8 +411,16 @@ public class Board {
      * @return Ячейка или null, если координаты вне сетки
      */
     public Cell getCell(HexCoord coord) {
-        int q = coord.getQ();
-        int r = coord.getR();
+        return getCell(coord.getQ(), coord.getR());
+    }
+
+    /**
+     * Возвращает ячейку по координатам без создания HexCoord (для обхода всей доски).
+     * @param q Координата q
+     * @param r Координата r
+     * @return Ячейка или null, если координаты вне сетки
+     */
+    public Cell getCell(int q, int r) {
         if (q >= 0 && q < cols && r >= 0 && r < rows) {
             return grid[r][q];
         }
@@ -182,48 +461,50 @@ public class Board {
         return new ArrayList<>(activeRules);
     }
 
+    /**
+     * Возвращает расположение мин в упакованном виде.
+     * Плоскость не копируется и не должна изменяться вызывающим кодом.
+     * @return BitPlane мин
+     */
+    public BitPlane getMinePlane() {
+        return minePlane;
+    }
+
     /**
      * Рассчитывает revealedValue для всех ячеек.
+     * Счетчики соседей считаются сразу для всей доски по плоскости мин.
      */
     private void calculateAllNeighborRules() {
+        neighborCounts = NeighborCounter.count(minePlane);
         for (int r = 0; r < rows; r++) {
             for (int q = 0; q < cols; q++) {
                 Cell cell = grid[r][q];
                 if (cell.isRevealed() && !cell.isMine()) {
-                    int mineCount = 0;
-                    for (HexCoord neighborCoord : getNeighbors(new HexCoord(q, r))) {
-                        Cell neighbor = getCell(neighborCoord);
-                        if (neighbor != null && neighbor.isMine()) {
-                            mineCount++;
-                        }
-                    }
-                    cell.setRevealedValue(mineCount);
+                    cell.setRevealedValue(neighborCounts[r * cols + q]);
                 }
             }
         }
     }
 
     /**
-     * Проверяет условие победы.
+     * Возвращает количество мин среди соседей ячейки независимо от того, открыта ли она.
+     * @param coord Координаты ячейки
+     * @return Количество мин или -1, если координаты вне сетки
      */
-    private void checkWinCondition() {
-        // Победа: все мины помечены флагами, а все не-мины открыты
-        boolean allMinesFlagged = true;
-        boolean allNonMinesRevealed = true;
-
-        for (int r = 0; r < rows; r++) {
-            for (int q = 0; q < cols; q++) {
-                Cell cell = grid[r][q];
-                if (cell.isMine() && !cell.isFlagged()) {
-                    allMinesFlagged = false;
-                }
-                if (!cell.isMine() && !cell.isRevealed()) {
-                    allNonMinesRevealed = false;
-                }
-            }
+    public int getNeighborMineCount(HexCoord coord) {
+        if (getCell(coord) == null) {
+            return -1;
         }
+        return neighborCounts[coord.getR() * cols + coord.getQ()];
+    }
 
-        if (allMinesFlagged && allNonMinesRevealed) {
+    /**
+     * Проверяет условие победы.
+     * Победа: все мины помечены флагами, а все не-мины открыты. Счетчик
+     * нерешенных ячеек обновляется при каждом ходе, поэтому проверка не обходит доску.
+     */
+    private void checkWinCondition() {
+        if (unresolvedCells == 0) {
             gameWon = true;
             gameOver = true;
         }
@@ -245,6 +526,15 @@ public class Board {
         return cols;
     }
 
+    /**
+     * Возвращает количество сделанных ходов.
+     * Используется как номер версии позиции: любой ход увеличивает его.
+     * @return moveCount
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
     /**
      * Проверяет, завершена ли игра.
      * @return true, если игра завершена
@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Неизменяемый снимок позиции на доске для поиска подсказок в фоновом потоке.
+ * Плоскости открытых ячеек и флагов копируются пословно, а мины, количества
+ * мин среди соседей и правила разделяются с доской: до следующего
+ * initializeLevel они не меняются.
+ */
+public class BoardSnapshot {
+    private final int rows;
+    private final int cols;
+    private final BitPlane revealed; // Открытые ячейки
+    private final BitPlane flagged; // Ячейки с флагами
+    private final BitPlane mines; // Мины (общие с доской)
+    private final byte[] neighborCounts; // Количество мин среди соседей, индекс r * cols + q (общее с доской)
+    private final List<Rule> rules; // Правила уровня (общие с доской)
+
+    BoardSnapshot(BitPlane revealed, BitPlane flagged, BitPlane mines, byte[] neighborCounts, List<Rule> rules) {
+        this.rows = revealed.getRows();
+        this.cols = revealed.getCols();
+        this.revealed = revealed;
+        this.flagged = flagged;
+        this.mines = mines;
+        this.neighborCounts = neighborCounts;
+        this.rules = rules;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public boolean isRevealed(int q, int r) {
+        return revealed.get(q, r);
+    }
+
+    public boolean isFlagged(int q, int r) {
+        return flagged.get(q, r);
+    }
+
+    /**
+     * Возвращает число открытой безопасной ячейки.
+     * @return Количество мин среди соседей или -1, если ячейка закрыта или это мина
+     */
+    public int getRevealedValue(int q, int r) {
+        return revealed.get(q, r) && !mines.get(q, r) ? neighborCounts[r * cols + q] : -1;
+    }
+
+    /**
+     * Проверяет, лежит ли ячейка в пределах сетки.
+     */
+    public boolean contains(HexCoord coord) {
+        return coord.getQ() >= 0 && coord.getQ() < cols && coord.getR() >= 0 && coord.getR() < rows;
+    }
+
+    /**
+     * Возвращает соседей ячейки в том же порядке, что и Board.getNeighbors.
+     * @param coord Координаты ячейки
+     * @return Список координат соседей
+     */
+    public List<HexCoord> getNeighbors(HexCoord coord) {
+        List<HexCoord> neighbors = new ArrayList<>();
+        for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+            int nq = coord.getQ() + offset[0];
+            int nr = coord.getR() + offset[1];
+            if (nq >= 0 && nq < cols && nr >= 0 && nr < rows) {
+                neighbors.add(new HexCoord(nq, nr));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Возвращает правила уровня (неизменяемый список, без копирования).
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подбор правил, делающих уровень решаемым без угадывания.
+ *
+ * Жадный подбор по раундам: анализ уровня (LevelAnalyzer) доводится до остановки,
+ * затем кандидаты — EDGE на безопасных ячейках невыведенной области и GROUP
+ * из одной невыведенной ячейки — пробуются на копиях остановившегося анализа параллельно
+ * (копия на поток, проба откатывается, память доказательств своя у потока).
+ * Из кандидатов, выводящих больше всего ячеек, берутся те, чьи области действия
+ * не пересекаются, и добавляются в анализ одним раундом. Кандидат, выводящий
+ * не меньше половины оставшихся ячеек, принимается сразу: остальные пробы раунда
+ * не запускаются (на больших сетках почти каждый кандидат вызывает такую лавину,
+ * и полный перебор стоил бы секунды на раунд). GROUP из одной ячейки
+ * всегда выводит ее, поэтому подбор завершается.
+ * В конце правила, без которых уровень остается решаемым, удаляются в обратном
+ * порядке. Проверки идут на том же анализе: после каждого правила ставится
+ * отметка, и проверка удаления откатывается к ней, а не анализирует уровень заново.
+ * Удаление ограничено PRUNE_TIME_LIMIT_MS: на больших плотных сетках почти все
+ * правила нужны, и полная проверка стоила бы десятков секунд. Непроверенные
+ * к концу срока правила остаются, поэтому набор может быть не минимальным.
+ */
+public class ClueGenerator {
+    static final int MAX_CANDIDATES = 512; // Кандидатов за раунд
+    static final long PRUNE_TIME_LIMIT_MS = 3000; // Время на удаление лишних правил
+
+    private ClueGenerator() {
+    }
+
+    /**
+     * Подбирает правила для уровня. Вызывается из фонового потока (см. ClueWorker).
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     * @param mines Расстановка мин (не изменяется)
+     * @param rules Правила уровня
+     * @return Новые правила (пустой список, если уровень уже решается без угадывания)
+     *         или null, если поток прерван
+     * @throws IllegalArgumentException если правила уровня не выполняются для расстановки мин
+     * @throws IllegalStateException если проба кандидата завершилась ошибкой
+     */
+    public static List<RuleData> generate(int rows, int cols, BitPlane mines, List<RuleData> rules) {
+        int unsatisfied = 0;
+        for (RuleData rule : rules) {
+            if (!rule.getType().compile(rule, rows, cols).isSatisfied(mines)) {
+                unsatisfied++;
+            }
+        }
+        if (unsatisfied > 0) {
+            throw new IllegalArgumentException("Правила не выполняются для расстановки мин: " + unsatisfied);
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "clue-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            LevelAnalyzer[] analyzers = new LevelAnalyzer[threads]; // Память доказательств каждого потока
+            for (int i = 0; i < threads; i++) {
+                analyzers[i] = new LevelAnalyzer();
+            }
+            Analysis base = new LevelAnalyzer().prepare(rows, cols, mines, rules);
+            if (!base.solve(true)) {
+                return null;
+            }
+            long start = base.beginTrial(); // Состояние без подобранных правил (для удаления лишних)
+            byte[] neighborCounts = NeighborCounter.count(mines);
+            List<RuleData> clues = new ArrayList<>();
+            while (base.getUnknownCount() > 0) {
+                List<RuleData> candidates = candidates(base, rows, cols, mines, neighborCounts);
+                Trial[] trials = evaluate(executor, analyzers, base, candidates);
+                if (trials == null) {
+                    return null;
+                }
+                for (RuleData clue : select(trials, rows * cols)) {
+                    clue.getType().addConstraint(base, clue.getCells(), clue.getExpectedMines());
+                    clues.add(clue);
+                }
+                if (!base.solve(true)) {
+                    return null;
+                }
+            }
+            base.endTrial(start);
+            return prune(base, clues);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Собирает кандидатов: по каждой невыведенной ячейке GROUP из нее самой и EDGE
+     * на ней и на одном ее соседе. Число EDGE ставится только на ячейку без мины
+     * (иначе уровень не пройдет LevelValidator). Выведенная безопасная ячейка уже
+     * открыта и ее число известно, поэтому соседом берется невыведенная безопасная.
+     * При большой невыведенной области берется равномерная выборка.
+     */
+    private static List<RuleData> candidates(Analysis base, int rows, int cols, BitPlane mines, byte[] neighborCounts) {
+        List<HexCoord> unknown = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int q = 0; q < cols; q++) {
+                if (base.isUnknown(q, r)) {
+                    unknown.add(new HexCoord(q, r));
+                }
+            }
+        }
+        int step = Math.max(1, unknown.size() * 2 / MAX_CANDIDATES); // Кандидатов на ячейку до двух EDGE и GROUP
+        boolean[] edgeAdded = new boolean[rows * cols];
+        List<RuleData> result = new ArrayList<>();
+        for (int i = 0; i < unknown.size(); i += step) {
+            HexCoord cell = unknown.get(i);
+            int q = cell.getQ();
+            int r = cell.getR();
+            result.add(RuleType.GROUP.createData(List.of(cell), mines.get(q, r) ? 1 : 0));
+            if (!mines.get(q, r)) {
+                addEdge(result, edgeAdded, q, r, cols, neighborCounts);
+            }
+            for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+                int nq = q + offset[0];
+                int nr = r + offset[1];
+                if (nq >= 0 && nq < cols && nr >= 0 && nr < rows && base.isUnknown(nq, nr) && !mines.get(nq, nr)
+                        && !edgeAdded[nr * cols + nq]) {
+                    addEdge(result, edgeAdded, nq, nr, cols, neighborCounts);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addEdge(List<RuleData> result, boolean[] added, int q, int r, int cols, byte[] neighborCounts) {
+        int cell = r * cols + q;
+        if (!added[cell]) {
+            added[cell] = true;
+            result.add(RuleType.EDGE.createData(List.of(new HexCoord(q, r)), neighborCounts[cell]));
+        }
+    }
+
+    /**
+     * Пробует кандидатов параллельно: каждый поток копирует остановившийся анализ
+     * один раз и проверяет на копии свою долю кандидатов с откатом после каждого.
+     * Непроверенные кандидаты (после решающего) остаются null.
+     * @return Итоги проб или null, если поток прерван
+     */
+    private static Trial[] evaluate(ExecutorService executor, LevelAnalyzer[] analyzers, Analysis base,
+                                    List<RuleData> candidates) {
+        Trial[] trials = new Trial[candidates.size()];
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicBoolean decided = new AtomicBoolean(); // Найден кандидат, выводящий половину ячеек
+        for (int slot = 0; slot < analyzers.length; slot++) {
+            int first = slot;
+            LevelAnalyzer analyzer = analyzers[slot];
+            futures.add(executor.submit(() -> {
+                Analysis copy = new Analysis(base, analyzer);
+                int before = copy.getUnknownCount();
+                for (int i = first; i < trials.length && !decided.get(); i += analyzers.length) {
+                    RuleData clue = candidates.get(i);
+                    long mark = copy.beginTrial();
+                    clue.getType().addConstraint(copy, clue.getCells(), clue.getExpectedMines());
+                    copy.solve(false);
+                    int gain = before - copy.getUnknownCount();
+                    trials[i] = new Trial(clue, gain, copy.trialCells(mark));
+                    copy.endTrial(mark);
+                    if (gain * 2 >= before) {
+                        decided.set(true);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка подбора правил", e.getCause());
+        }
+        return trials;
+    }
+
+    /**
+     * Выбирает кандидатов по убыванию числа выведенных ячеек (при равенстве EDGE
+     * раньше GROUP), пропуская тех, чья область действия пересекается с уже выбранными:
+     * их выигрыши могли бы не сложиться.
+     */
+    private static List<RuleData> select(Trial[] trials, int cellCount) {
+        Trial[] sorted = Arrays.stream(trials).filter(Objects::nonNull).toArray(Trial[]::new);
+        Arrays.sort(sorted, (a, b) -> a.gain != b.gain ? Integer.compare(b.gain, a.gain)
+                : Boolean.compare(a.clue.getType() != RuleType.EDGE, b.clue.getType() != RuleType.EDGE));
+        boolean[] claimed = new boolean[cellCount];
+        List<RuleData> selected = new ArrayList<>();
+        for (Trial trial : sorted) {
+            if (trial.gain <= 0) {
+                break;
+            }
+            boolean overlaps = false;
+            for (int cell : trial.cells) {
+                overlaps |= claimed[cell];
+            }
+            if (overlaps) {
+                continue;
+            }
+            for (int cell : trial.cells) {
+                claimed[cell] = true;
+            }
+            selected.add(trial.clue);
+        }
+        return selected;
+    }
+
+    /**
+     * Удаляет подобранные правила, без которых уровень остается решаемым без угадывания.
+     * Правила проверяются с конца блоками по ~sqrt(n). Правила добавляются в анализ
+     * по порядку с отметкой перед каждым; для блока анализ откатывается к его началу,
+     * в него добавляются оставленные правила после блока, а затем правила блока
+     * снова с отметками. Проверка правила i откатывается к его отметке и добавляет
+     * только оставленные правила блока после i, поэтому весь проход стоит
+     * O(n·sqrt(n)) добавлений ограничений, а не O(n²). Проверки используют
+     * ступени 1–2: правило, лишнее лишь для перебора ступени 3, остается.
+     * По истечении PRUNE_TIME_LIMIT_MS непроверенные правила остаются.
+     * @param base Остановившийся анализ без подобранных правил
+     * @param clues Подобранные правила по порядку
+     * @return Оставленные правила или null, если поток прерван
+     */
+    private static List<RuleData> prune(Analysis base, List<RuleData> clues) {
+        int count = clues.size();
+        long deadline = System.currentTimeMillis() + PRUNE_TIME_LIMIT_MS;
+        long start = base.beginTrial();
+        long[] prefixMarks = new long[count]; // Отметки перед правилами в исходном порядке
+        for (int i = 0; i < count; i++) {
+            if (System.currentTimeMillis() >= deadline) {
+                base.endTrial(start);
+                return clues; // Не хватило времени даже на отметки: правила остаются все
+            }
+            prefixMarks[i] = base.beginTrial();
+            addClue(base, clues.get(i));
+            if (!base.solve(false)) {
+                return null;
+            }
+        }
+        int blockSize = Math.max(1, (int) Math.sqrt(count));
+        boolean[] kept = new boolean[count];
+        long[] blockMarks = new long[blockSize];
+        for (int end = count; end > 0; end -= blockSize) {
+            if (System.currentTimeMillis() >= deadline) {
+                Arrays.fill(kept, 0, end, true); // Непроверенные правила остаются
+                break;
+            }
+            int begin = Math.max(0, end - blockSize);
+            base.endTrial(prefixMarks[begin]);
+            for (int j = end; j < count; j++) {
+                if (kept[j]) {
+                    addClue(base, clues.get(j));
+                }
+            }
+            for (int i = begin; i < end; i++) {
+                blockMarks[i - begin] = base.beginTrial();
+                addClue(base, clues.get(i));
+                if (!base.solve(false)) {
+                    return null;
+                }
+            }
+            for (int i = end - 1; i >= begin; i--) {
+                base.endTrial(blockMarks[i - begin]);
+                for (int j = i + 1; j < end; j++) {
+                    if (kept[j]) {
+                        addClue(base, clues.get(j));
+                    }
+                }
+                if (!base.solve(false)) {
+                    return null;
+                }
+                kept[i] = base.getUnknownCount() > 0;
+            }
+        }
+        base.endTrial(start);
+        List<RuleData> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (kept[i]) {
+                result.add(clues.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static void addClue(Analysis analysis, RuleData clue) {
+        clue.getType().addConstraint(analysis, clue.getCells(), clue.getExpectedMines());
+    }
+
+    /**
+     * Итог пробы кандидата: сколько ячеек он вывел и какие.
+     */
+    private static class Trial {
+        final RuleData clue;
+        final int gain;
+        final int[] cells;
+
+        Trial(RuleData clue, int gain, int[] cells) {
+            this.clue = clue;
+            this.gain = gain;
+            this.cells = cells;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Фоновый подбор правил (ClueGenerator) для редактора.
+ * Подбор идет по копии уровня; отмененный подбор прерывается, а его результат,
+ * если он успел появиться, отбрасывается по номеру запроса.
+ * Все методы вызываются из потока обработки событий Swing.
+ */
+public class ClueWorker {
+    private final ExecutorService executor; // Поток для фоновых вычислений
+    private Future<?> pending; // Текущий подбор
+    private int generation; // Номер последнего запроса
+
+    /**
+     * Конструктор, создающий фоновый поток-демон.
+     */
+    public ClueWorker() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clue-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = null;
+        this.generation = 0;
+    }
+
+    /**
+     * Запускает подбор правил для текущего уровня; прежний подбор отменяется.
+     * @param model Модель уровня
+     * @param listener Получатель подобранных правил (в потоке обработки событий)
+     * @param errorListener Получатель сообщения об ошибке (в потоке обработки событий)
+     */
+    public void start(EditorModel model, Consumer<List<RuleData>> listener, Consumer<String> errorListener) {
+        cancel();
+        int requested = generation;
+        int rows = model.getRows();
+        int cols = model.getCols();
+        BitPlane mines = model.getMinePlane().copy(); // Фоновый поток не должен видеть дальнейших правок
+        List<RuleData> rules = new ArrayList<>(model.getRules());
+        pending = executor.submit(() -> {
+            try {
+                List<RuleData> clues = ClueGenerator.generate(rows, cols, mines, rules);
+                if (clues != null) {
+                    deliver(requested, () -> listener.accept(clues));
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                deliver(requested, () -> errorListener.accept(e.getMessage()));
+            }
+        });
+    }
+
+    private void deliver(int requested, Runnable action) {
+        SwingUtilities.invokeLater(() -> {
+            if (requested == generation) {
+                pending = null;
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Проверяет, идет ли подбор.
+     */
+    public boolean isRunning() {
+        return pending != null;
+    }
+
+    /**
+     * Отменяет текущий подбор; уже готовый, но не доставленный результат отбрасывается.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Останавливает фоновый поток.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
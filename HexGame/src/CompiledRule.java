@@ -0,0 +1,236 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Скомпилированная форма правила для доски заданного размера.
+ * Ячейки правила заранее переведены в разреженную битовую маску над BitPlane,
+ * поэтому проверка правила сводится к нескольким словным операциям:
+ * для групп и соседей — popcount(mask & mines), для последовательностей —
+ * сбор битов в порядке последовательности и поиск самой длинной серии сдвигами.
+ */
+public class CompiledRule {
+    /**
+     * Смещения соседей в гексагональной сетке (те же, что в Board.getNeighbors).
+     */
+    static final int[][] NEIGHBOR_OFFSETS = {
+            {+1, 0}, {-1, 0}, {0, +1}, {0, -1}, {+1, -1}, {-1, +1}
+    };
+
+    private final int rows; // Размеры доски, для которой скомпилировано правило
+    private final int cols;
+    private final int[] wordIndices; // Индексы непустых слов маски
+    private final long[] wordMasks; // Маски этих слов
+    private final int[] sequenceWords; // Для последовательности: слово каждой ячейки по порядку, иначе null
+    private final long[] sequenceBits; // Для последовательности: бит каждой ячейки (0 — вне сетки)
+    private final int expectedMines; // Ожидаемое количество мин
+
+    private CompiledRule(int rows, int cols, int[] wordIndices, long[] wordMasks,
+                         int[] sequenceWords, long[] sequenceBits, int expectedMines) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wordIndices = wordIndices;
+        this.wordMasks = wordMasks;
+        this.sequenceWords = sequenceWords;
+        this.sequenceBits = sequenceBits;
+        this.expectedMines = expectedMines;
+    }
+
+    /**
+     * Компилирует правило "количество мин среди ячеек" (GroupRule).
+     * @param cells Ячейки правила
+     * @param expectedMines Ожидаемое количество мин
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
+     * @throws IllegalArgumentException если ячейка указана дважды
+     */
+    public static CompiledRule forCount(List<HexCoord> cells, int expectedMines, int rows, int cols) {
+        return fromCells(rows, cols, cells, null, null, expectedMines);
+    }
+
+    /**
+     * Компилирует правило "количество мин среди соседей ячейки" (EdgeRule).
+     * @param center Ячейка правила
+     * @param expectedMines Ожидаемое количество мин
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
+     */
+    public static CompiledRule forNeighbors(HexCoord center, int expectedMines, int rows, int cols) {
+        List<HexCoord> neighbors = new ArrayList<>(NEIGHBOR_OFFSETS.length);
+        for (int[] offset : NEIGHBOR_OFFSETS) {
+            neighbors.add(new HexCoord(center.getQ() + offset[0], center.getR() + offset[1]));
+        }
+        return fromCells(rows, cols, neighbors, null, null, expectedMines);
+    }
+
+    /**
+     * Компилирует правило "длина самой длинной серии мин" (SequenceRule).
+     * @param cells Ячейки последовательности по порядку
+     * @param expectedMines Ожидаемая длина серии
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
+     * @throws IllegalArgumentException если ячейка указана дважды
+     */
+    public static CompiledRule forSequence(List<HexCoord> cells, int expectedMines, int rows, int cols) {
+        int wordsPerRow = BitPlane.wordsPerRow(cols);
+        int[] sequenceWords = new int[cells.size()];
+        long[] sequenceBits = new long[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            HexCoord coord = cells.get(i);
+            if (inBounds(coord, rows, cols)) {
+                sequenceWords[i] = coord.getR() * wordsPerRow + (coord.getQ() >>> 6);
+                sequenceBits[i] = BitPlane.bitMask(coord.getQ());
+            }
+        }
+        return fromCells(rows, cols, cells, sequenceWords, sequenceBits, expectedMines);
+    }
+
+    /**
+     * Строит разреженную маску прямо по ячейкам, не заводя плоскость размером с доску:
+     * ключи (слово, бит) сортируются, и биты одного слова объединяются.
+     * Ячейки вне сетки пропускаются. Повтор ячейки отклоняется, как в LevelValidator:
+     * маска учла бы ячейку один раз, и правило молча проверяло бы не то, что записано.
+     */
+    private static CompiledRule fromCells(int rows, int cols, List<HexCoord> cells,
+                                          int[] sequenceWords, long[] sequenceBits, int expectedMines) {
+        int wordsPerRow = BitPlane.wordsPerRow(cols);
+        long[] keys = new long[cells.size()];
+        int count = 0;
+        for (HexCoord coord : cells) {
+            if (inBounds(coord, rows, cols)) {
+                long word = (long) coord.getR() * wordsPerRow + (coord.getQ() >>> 6);
+                keys[count++] = (word << 6) | (coord.getQ() & 63);
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] wordIndices = new int[count];
+        long[] wordMasks = new long[count];
+        int nonEmpty = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                int row = (int) ((keys[i] >>> 6) / wordsPerRow);
+                int q = (int) ((keys[i] >>> 6) % wordsPerRow) * 64 + (int) (keys[i] & 63);
+                throw new IllegalArgumentException("Ячейка указана в правиле дважды: (" + q + ", " + row + ")");
+            }
+            int word = (int) (keys[i] >>> 6);
+            long bit = 1L << (keys[i] & 63);
+            if (nonEmpty > 0 && wordIndices[nonEmpty - 1] == word) {
+                wordMasks[nonEmpty - 1] |= bit;
+            } else {
+                wordIndices[nonEmpty] = word;
+                wordMasks[nonEmpty++] = bit;
+            }
+        }
+        return new CompiledRule(rows, cols, Arrays.copyOf(wordIndices, nonEmpty), Arrays.copyOf(wordMasks, nonEmpty),
+                sequenceWords, sequenceBits, expectedMines);
+    }
+
+    private static boolean inBounds(HexCoord coord, int rows, int cols) {
+        return coord.getQ() >= 0 && coord.getQ() < cols && coord.getR() >= 0 && coord.getR() < rows;
+    }
+
+    /**
+     * Проверяет, скомпилировано ли правило для доски заданного размера.
+     */
+    public boolean matches(int rows, int cols) {
+        return this.rows == rows && this.cols == cols;
+    }
+
+    public int getExpectedMines() {
+        return expectedMines;
+    }
+
+    /**
+     * Возвращает количество различных ячеек правила в пределах доски.
+     */
+    public int getCellCount() {
+        int count = 0;
+        for (long mask : wordMasks) {
+            count += Long.bitCount(mask);
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает линейные индексы r * cols + q ячеек правила в пределах доски.
+     * @return Индексы по возрастанию
+     */
+    int[] cellIndices() {
+        int wordsPerRow = BitPlane.wordsPerRow(cols);
+        int[] cells = new int[getCellCount()];
+        int count = 0;
+        for (int i = 0; i < wordIndices.length; i++) {
+            int r = wordIndices[i] / wordsPerRow;
+            int qBase = (wordIndices[i] % wordsPerRow) << 6;
+            for (long mask = wordMasks[i]; mask != 0; mask &= mask - 1) {
+                cells[count++] = r * cols + qBase + Long.numberOfTrailingZeros(mask);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Считает мины среди ячеек правила.
+     * @param mines Плоскость мин доски того же размера
+     * @return Количество мин
+     */
+    public int countMines(BitPlane mines) {
+        long[] words = mines.words();
+        int count = 0;
+        for (int i = 0; i < wordIndices.length; i++) {
+            count += Long.bitCount(words[wordIndices[i]] & wordMasks[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Проверяет, выполнено ли правило для заданного расположения мин.
+     * @param mines Плоскость мин доски того же размера
+     * @return true, если правило выполнено
+     */
+    public boolean isSatisfied(BitPlane mines) {
+        if (sequenceWords == null) {
+            return countMines(mines) == expectedMines;
+        }
+        return longestRun(mines) == expectedMines;
+    }
+
+    /**
+     * Находит длину самой длинной серии мин в последовательности.
+     * Биты последовательности собираются в массив слов, после чего каждое
+     * преобразование x &= x >> 1 укорачивает все серии на единицу.
+     */
+    private int longestRun(BitPlane mines) {
+        long[] words = mines.words();
+        int length = sequenceWords.length;
+        long[] run = new long[(length + 63) >>> 6];
+        for (int i = 0; i < length; i++) {
+            if ((words[sequenceWords[i]] & sequenceBits[i]) != 0) {
+                run[i >>> 6] |= 1L << i;
+            }
+        }
+
+        int longest = 0;
+        while (!isZero(run)) {
+            longest++;
+            for (int w = 0; w < run.length; w++) {
+                long carry = w + 1 < run.length ? run[w + 1] << 63 : 0L;
+                run[w] &= (run[w] >>> 1) | carry;
+            }
+        }
+        return longest;
+    }
+
+    private static boolean isZero(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
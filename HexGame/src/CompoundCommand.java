@@ -0,0 +1,27 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Несколько команд как один шаг истории; откатываются в обратном порядке.
+ */
+class CompoundCommand implements EditCommand {
+    private final List<EditCommand> commands;
+
+    CompoundCommand(List<EditCommand> commands) {
+        this.commands = new ArrayList<>(commands);
+    }
+
+    @Override
+    public void apply(EditorModel model) {
+        for (EditCommand command : commands) {
+            command.apply(model);
+        }
+    }
+
+    @Override
+    public void revert(EditorModel model) {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).revert(model);
+        }
+    }
+}
\ No newline at end of file
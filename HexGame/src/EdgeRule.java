@@ -1,7 +1,4 @@
-import java.awt.*;
-import java.awt.geom.Point2D;
 import java.util.List;
-import javax.swing.JPanel;
 
 /**
  * Правило для ячейки, определяющее количество мин среди её соседей.
@@ -9,6 +6,7 @@ import javax.swing.JPanel;
 public class EdgeRule implements Rule {
     private final HexCoord cellCoord;
     private final int expectedMines;
+    private CompiledRule compiled; // Кэш скомпилированной формы для последнего размера доски
 
     /**
      * Конструктор.
@@ -25,39 +23,36 @@ public class EdgeRule implements Rule {
         return List.of(cellCoord);
     }
 
+    /**
+     * Возвращает координаты ячейки правила.
+     * @return Координаты ячейки
+     */
+    public HexCoord getCell() {
+        return cellCoord;
+    }
+
     @Override
     public int getExpectedMines() {
         return expectedMines;
     }
 
+    @Override
+    public RuleType getType() {
+        return RuleType.EDGE;
+    }
+
     @Override
     public boolean isSatisfied(Board board) {
-        int mineCount = 0;
-        List<HexCoord> neighbors = board.getNeighbors(cellCoord); // Исправлено: используем cellCoord
-        for (HexCoord neighborCoord : neighbors) {
-            Cell neighborCell = board.getCell(neighborCoord); // Получаем Cell для каждой координаты
-            if (neighborCell != null && neighborCell.isMine()) {
-                mineCount++;
-            }
-        }
-        return mineCount == expectedMines;
+        return compile(board.getRows(), board.getCols()).isSatisfied(board.getMinePlane());
     }
 
     @Override
-    public void draw(Graphics2D g2d, JPanel panel, Board board) {
-        Point2D.Double center;
-        if (panel instanceof GridPanel) {
-            GridPanel gridPanel = (GridPanel) panel;
-            center = gridPanel.hexToPixel(cellCoord.getQ(), cellCoord.getR());
-        } else if (panel instanceof EditorGridPanel) {
-            EditorGridPanel editorGridPanel = (EditorGridPanel) panel;
-            center = editorGridPanel.hexToPixel(cellCoord.getQ(), cellCoord.getR());
-        } else {
-            return;
+    public CompiledRule compile(int rows, int cols) {
+        CompiledRule cached = compiled;
+        if (cached == null || !cached.matches(rows, cols)) {
+            cached = RuleType.EDGE.compile(getCells(), expectedMines, rows, cols);
+            compiled = cached;
         }
-
-        g2d.setColor(Color.BLUE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 14));
-        g2d.drawString(String.valueOf(expectedMines), (int) center.x - 5, (int) center.y + 5);
+        return cached;
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+import java.util.List;
+
+/**
+ * Данные для правила EdgeRule (число на границе).
+ */
+class EdgeRuleData extends RuleData {
+    private final HexCoord cellCoord; // Координаты ячейки
+    private final int expectedNeighborMines; // Ожидаемое количество мин среди соседей
+
+    public EdgeRuleData(HexCoord cellCoord, int expectedNeighborMines) {
+        if (cellCoord == null) {
+            throw new IllegalArgumentException("Координаты ячейки не могут быть null");
+        }
+        if (expectedNeighborMines < 0 || expectedNeighborMines > 6) {
+            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedNeighborMines);
+        }
+        this.cellCoord = cellCoord;
+        this.expectedNeighborMines = expectedNeighborMines;
+    }
+
+    public HexCoord getCellCoord() {
+        return cellCoord;
+    }
+
+    public int getExpectedNeighborMines() {
+        return expectedNeighborMines;
+    }
+
+    @Override
+    public RuleType getType() {
+        return RuleType.EDGE;
+    }
+
+    @Override
+    public List<HexCoord> getCells() {
+        return List.of(cellCoord);
+    }
+
+    @Override
+    public int getExpectedMines() {
+        return expectedNeighborMines;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+/**
+ * Обратимая правка модели уровня.
+ * revert вызывается только сразу после apply (и наоборот), поэтому команда
+ * может полагаться на состояние модели, которое оставила сама.
+ */
+interface EditCommand {
+    void apply(EditorModel model);
+
+    void revert(EditorModel model);
+}
\ No newline at end of file
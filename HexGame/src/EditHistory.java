@@ -0,0 +1,76 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * История правок редактора: отмена и повтор.
+ * Каждая правка — команда, которая применяется к модели на месте и знает, как
+ * откатить себя. Команда хранит только то, что меняет (координаты ячейки,
+ * данные и позицию правила), поэтому память истории пропорциональна размеру
+ * правок, а не уровня, и отмена или повтор шага стоит столько же, сколько сама правка.
+ * Хранится не более MAX_COMMANDS последних команд.
+ */
+public class EditHistory {
+    public static final int MAX_COMMANDS = 1000; // Наибольшее количество шагов отмены
+    private final Deque<EditCommand> undoStack = new ArrayDeque<>(); // Выполненные команды (последняя сверху)
+    private final Deque<EditCommand> redoStack = new ArrayDeque<>(); // Отмененные команды
+
+    /**
+     * Применяет команду и запоминает ее для отмены. История повтора сбрасывается.
+     * @param command Команда
+     * @param model Модель уровня
+     */
+    public void execute(EditCommand command, EditorModel model) {
+        command.apply(model);
+        undoStack.push(command);
+        if (undoStack.size() > MAX_COMMANDS) {
+            undoStack.removeLast();
+        }
+        redoStack.clear();
+    }
+
+    /**
+     * Отменяет последнюю команду.
+     * @param model Модель уровня
+     * @return true, если было что отменять
+     */
+    public boolean undo(EditorModel model) {
+        EditCommand command = undoStack.poll();
+        if (command == null) {
+            return false;
+        }
+        command.revert(model);
+        redoStack.push(command);
+        return true;
+    }
+
+    /**
+     * Повторяет последнюю отмененную команду.
+     * @param model Модель уровня
+     * @return true, если было что повторять
+     */
+    public boolean redo(EditorModel model) {
+        EditCommand command = redoStack.poll();
+        if (command == null) {
+            return false;
+        }
+        command.apply(model);
+        undoStack.push(command);
+        return true;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Очищает историю (например, после загрузки другого уровня).
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+    }
+}
\ No newline at end of file
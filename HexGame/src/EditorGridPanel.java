@@ -5,11 +5,21 @@ import java.util.List;
 
 /**
  * Панель для визуального редактирования уровня в Hexcells.
- * Отображает гексагональную сетку, мины, правила и подсвечивает выбранные ячейки.
+ * Отображает гексагональную сетку, мины, правила и подсвечивает выбранные ячейки
+ * и ячейки, которые анализ решаемости не смог вывести.
+ * Рисуются только ячейки в области отсечения, поэтому правка одной ячейки
+ * перерисовывает только ее, а большая сетка в JScrollPane — только видимую часть.
  */
 public class EditorGridPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
     private final EditorLogic editorLogic; // Логика редактора
     private static final int HEX_RADIUS = 30; // Радиус гексагона
+    private static final Color UNDETERMINED_COLOR = new Color(255, 140, 0, 110); // Полупрозрачный оранжевый
+    private static final Stroke PREVIEW_STROKE = new BasicStroke(2); // Линия предпросмотра последовательности
+    private HexGeometry geometry; // Закэшированная геометрия сетки
+    private RuleOverlayRenderer ruleOverlay; // Отрисовка правил для текущей геометрии
+    private int overlayRuleVersion; // Версия правил, для которой построена отрисовка
+    private AnalysisResult analysis; // Последний результат анализа решаемости или null
 
     /**
      * Конструктор, инициализирующий панель.
@@ -20,10 +30,7 @@ public class EditorGridPanel extends JPanel {
         setBackground(Color.LIGHT_GRAY);
 
         // Установка предпочтительного размера на основе размеров сетки
-        LevelConfig config = editorLogic.getLevelConfig();
-        int width = (int) (config.getCols() * HEX_RADIUS * 1.5 + HEX_RADIUS);
-        int height = (int) (config.getRows() * HEX_RADIUS * Math.sqrt(3) + HEX_RADIUS);
-        setPreferredSize(new Dimension(width, height));
+        setPreferredSize(geometry().getPreferredSize());
     }
 
     /**
@@ -36,56 +43,68 @@ public class EditorGridPanel extends JPanel {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        LevelConfig config = editorLogic.getLevelConfig();
-        int rows = config.getRows();
-        int cols = config.getCols();
-
-        // Отрисовка гексагонов
-        for (int r = 0; r < rows; r++) {
-            for (int q = 0; q < cols; q++) {
-                HexCoord coord = new HexCoord(q, r);
-                Point2D.Double center = hexToPixel(q, r);
+        EditorModel model = editorLogic.getModel();
+        int rows = model.getRows();
+        int cols = model.getCols();
+        HexGeometry geometry = geometry();
+        Polygon hex = HexGeometry.newHexagon();
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
 
+        // Отрисовка гексагонов в области отсечения
+        int lastCol = geometry.lastCol(clip.getMaxX());
+        for (int q = geometry.firstCol(clip.getMinX()); q <= lastCol; q++) {
+            int lastRow = geometry.lastRow(q, clip.getMaxY());
+            for (int r = geometry.firstRow(q, clip.getMinY()); r <= lastRow; r++) {
                 // Рисуем гексагон
-                Polygon hex = createHexagon(center, HEX_RADIUS);
+                geometry.hexagon(q, r, hex);
                 g2d.setColor(Color.GRAY);
                 g2d.fillPolygon(hex);
                 g2d.setColor(Color.BLACK);
                 g2d.drawPolygon(hex);
 
                 // Рисуем мину, если она есть
-                if (editorLogic.isMine(coord)) {
+                if (model.isMine(q, r)) {
                     g2d.setColor(Color.BLACK);
-                    g2d.fillOval((int) (center.x - HEX_RADIUS / 2), (int) (center.y - HEX_RADIUS / 2),
+                    g2d.fillOval((int) geometry.centerX(q) - HEX_RADIUS / 2, (int) geometry.centerY(q, r) - HEX_RADIUS / 2,
                             HEX_RADIUS, HEX_RADIUS);
                 }
+
+                // Подсвечиваем ячейку, которую нельзя вывести без угадывания
+                if (analysis != null && analysis.isUndetermined(q, r)) {
+                    g2d.setColor(UNDETERMINED_COLOR);
+                    g2d.fillPolygon(hex);
+                }
             }
         }
 
         // Подсветка выбранных ячеек
         List<HexCoord> selectedCells = editorLogic.getSelectedCells();
         for (HexCoord coord : selectedCells) {
-            Point2D.Double center = hexToPixel(coord.getQ(), coord.getR());
-            Polygon hex = createHexagon(center, HEX_RADIUS);
+            if (coord.getQ() < 0 || coord.getQ() >= cols || coord.getR() < 0 || coord.getR() >= rows) {
+                continue;
+            }
+            geometry.hexagon(coord.getQ(), coord.getR(), hex);
             g2d.setColor(new Color(255, 255, 0, 100)); // Полупрозрачный желтый
             g2d.fillPolygon(hex);
             g2d.setColor(Color.YELLOW);
             g2d.drawPolygon(hex);
         }
 
-        // Отрисовка правил
-        for (RuleData ruleData : config.getRuleDataList()) {
-            Rule rule = createRuleFromData(ruleData);
-            if (rule != null) {
-                rule.draw(g2d, this, null); // Board не нужен, используем null
-            }
+        // Отрисовка правил: перестраивается только при изменении правил или геометрии
+        if (ruleOverlay == null || !ruleOverlay.matches(geometry) || model.getRuleVersion() != overlayRuleVersion) {
+            ruleOverlay = RuleOverlayRenderer.forRuleData(geometry, model.getRules());
+            overlayRuleVersion = model.getRuleVersion();
         }
+        ruleOverlay.paint(g2d, clip);
 
         // Визуализация текущего инструмента (пример)
         String tool = editorLogic.getCurrentTool();
         if (tool.equals("SEQUENCE") && selectedCells.size() > 1) {
             g2d.setColor(Color.BLUE);
-            g2d.setStroke(new BasicStroke(2));
+            g2d.setStroke(PREVIEW_STROKE);
             for (int i = 0; i < selectedCells.size() - 1; i++) {
                 Point2D.Double p1 = hexToPixel(selectedCells.get(i).getQ(), selectedCells.get(i).getR());
                 Point2D.Double p2 = hexToPixel(selectedCells.get(i + 1).getQ(), selectedCells.get(i + 1).getR());
@@ -94,41 +113,39 @@ public class EditorGridPanel extends JPanel {
         }
     }
 
+    /**
+     * Задает результат анализа решаемости для подсветки невыведенных ячеек.
+     * @param analysis Результат анализа или null, чтобы убрать подсветку
+     */
+    public void setAnalysis(AnalysisResult analysis) {
+        this.analysis = analysis;
+        repaint();
+    }
+
+    /**
+     * Обновляет предпочтительный размер панели по размерам уровня (например, после загрузки).
+     */
+    public void updatePreferredSize() {
+        setPreferredSize(geometry().getPreferredSize());
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Запрашивает перерисовку только области ячейки.
+     * @param coord Изменившаяся ячейка
+     */
+    public void repaintCell(HexCoord coord) {
+        repaint(geometry().cellBounds(coord.getQ(), coord.getR()));
+    }
+
     /**
      * Преобразует пиксельные координаты в координаты гексагона.
      * @param pixelPoint Точка в пикселях
      * @return Координаты HexCoord или null, если точка вне сетки
      */
     public HexCoord pixelToHex(Point pixelPoint) {
-        double x = pixelPoint.x;
-        double y = pixelPoint.y;
-
-        // Преобразование в кубические координаты
-        double q = (2.0 / 3 * x) / HEX_RADIUS;
-        double r = (-x / 3 + Math.sqrt(3) / 3 * y) / HEX_RADIUS;
-
-        // Округление кубических координат
-        double z = -q - r;
-        int rq = (int) Math.round(q);
-        int rr = (int) Math.round(r);
-        int rz = (int) Math.round(z);
-
-        double qDiff = Math.abs(rq - q);
-        double rDiff = Math.abs(rr - r);
-        double zDiff = Math.abs(rz - z);
-
-        if (qDiff > rDiff && qDiff > zDiff) {
-            rq = -rr - rz;
-        } else if (rDiff > zDiff) {
-            rr = -rq - rz;
-        }
-
-        // Проверка, находится ли координата в пределах сетки
-        LevelConfig config = editorLogic.getLevelConfig();
-        if (rq >= 0 && rq < config.getCols() && rr >= 0 && rr < config.getRows()) {
-            return new HexCoord(rq, rr);
-        }
-        return null;
+        return geometry().pixelToHex(pixelPoint.x, pixelPoint.y);
     }
 
     /**
@@ -138,44 +155,17 @@ public class EditorGridPanel extends JPanel {
      * @return Точка центра гексагона
      */
     public Point2D.Double hexToPixel(int q, int r) { // Изменено на public
-        double x = HEX_RADIUS * (3.0 / 2 * q);
-        double y = HEX_RADIUS * (Math.sqrt(3) * (r + q / 2.0));
-        return new Point2D.Double(x + HEX_RADIUS, y + HEX_RADIUS); // Смещение для отступа
-    }
-
-    /**
-     * Создает полигон гексагона.
-     * @param center Центр гексагона
-     * @param radius Радиус гексагона
-     * @return Полигон гексагона
-     */
-    private Polygon createHexagon(Point2D.Double center, int radius) {
-        Polygon hex = new Polygon();
-        for (int i = 0; i < 6; i++) {
-            double angle = Math.toRadians(60 * i);
-            int x = (int) (center.x + radius * Math.cos(angle));
-            int y = (int) (center.y + radius * Math.sin(angle));
-            hex.addPoint(x, y);
-        }
-        return hex;
+        return geometry().center(q, r);
     }
 
     /**
-     * Создает объект Rule на основе RuleData.
-     * @param ruleData Данные правила
-     * @return Объект Rule или null, если тип неизвестен
+     * Возвращает геометрию сетки, пересоздавая ее только при смене радиуса или размеров уровня.
      */
-    private Rule createRuleFromData(RuleData ruleData) {
-        if (ruleData instanceof SequenceRuleData) {
-            SequenceRuleData data = (SequenceRuleData) ruleData;
-            return new SequenceRule(data.getCellsInSequence(), data.getExpectedConsecutiveMines());
-        } else if (ruleData instanceof GroupRuleData) {
-            GroupRuleData data = (GroupRuleData) ruleData;
-            return new GroupRule(data.getCellsInGroup(), data.getExpectedGroupedMines());
-        } else if (ruleData instanceof EdgeRuleData) {
-            EdgeRuleData data = (EdgeRuleData) ruleData;
-            return new EdgeRule(data.getCellCoord(), data.getExpectedNeighborMines());
+    private HexGeometry geometry() {
+        EditorModel model = editorLogic.getModel();
+        if (geometry == null || !geometry.matches(HEX_RADIUS, model.getRows(), model.getCols())) {
+            geometry = new HexGeometry(HEX_RADIUS, model.getRows(), model.getCols());
         }
-        return null;
+        return geometry;
     }
 }
\ No newline at end of file
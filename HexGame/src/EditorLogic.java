@@ -6,7 +6,8 @@ import java.io.IOException;
  * Класс, управляющий данными и состоянием редактируемого уровня в Hexcells.
  */
 public class EditorLogic {
-    private LevelConfig currentLevelConfig; // Текущая конфигурация уровня
+    private EditorModel model; // Редактируемый уровень
+    private final EditHistory history = new EditHistory(); // Отмена и повтор правок
     private String currentTool; // Текущий инструмент редактирования
     private List<HexCoord> selectedCells; // Выбранные ячейки
 
@@ -15,41 +16,42 @@ public class EditorLogic {
      */
     public EditorLogic() {
         // Создаем пустой уровень 5x5
-        this.currentLevelConfig = new LevelConfig(5, 5, new ArrayList<>(), new ArrayList<>());
+        this.model = new EditorModel(5, 5);
         this.currentTool = "SELECT"; // Инструмент по умолчанию
         this.selectedCells = new ArrayList<>();
     }
 
     /**
-     * Возвращает текущую конфигурацию уровня.
+     * Возвращает модель редактируемого уровня.
+     * @return EditorModel
+     */
+    public EditorModel getModel() {
+        return model;
+    }
+
+    /**
+     * Создает конфигурацию с текущим состоянием уровня.
+     * Последующие правки в редакторе на нее не влияют.
      * @return LevelConfig
      */
     public LevelConfig getLevelConfig() {
-        return currentLevelConfig;
+        return model.toConfig();
     }
 
     /**
-     * Переключает состояние мины в указанной ячейке.
+     * Переключает состояние мины в указанной ячейке (правка отменяема).
      * @param coord Координаты ячейки
      * @throws IllegalArgumentException если координаты вне сетки
      */
     public void toggleMine(HexCoord coord) {
-        if (coord == null || coord.getQ() < 0 || coord.getQ() >= currentLevelConfig.getCols() ||
-                coord.getR() < 0 || coord.getR() >= currentLevelConfig.getRows()) {
+        if (coord == null || !model.contains(coord.getQ(), coord.getR())) {
             throw new IllegalArgumentException("Недопустимые координаты: " + coord);
         }
-
-        List<HexCoord> mines = new ArrayList<>(currentLevelConfig.getMines());
-        if (mines.contains(coord)) {
-            mines.remove(coord);
-        } else {
-            mines.add(coord);
-        }
-        currentLevelConfig.setMineCoordinates(mines);
+        history.execute(new ToggleMineCommand(coord.getQ(), coord.getR()), model);
     }
 
     /**
-     * Добавляет новое правило в конфигурацию уровня.
+     * Добавляет новое правило в конфигурацию уровня (правка отменяема).
      * @param ruleData Данные правила
      * @throws IllegalArgumentException если ruleData null
      */
@@ -57,13 +59,28 @@ public class EditorLogic {
         if (ruleData == null) {
             throw new IllegalArgumentException("Данные правила не могут быть null");
         }
-        List<RuleData> rules = new ArrayList<>(currentLevelConfig.getRuleDataList());
-        rules.add(ruleData);
-        currentLevelConfig.setRuleDataList(rules);
+        history.execute(new AddRuleCommand(ruleData), model);
     }
 
     /**
-     * Изменяет размеры сетки уровня.
+     * Добавляет подобранные правила (см. ClueGenerator) одним отменяемым шагом.
+     * @param clues Подобранные правила
+     * @return Количество добавленных правил
+     */
+    public int addClues(List<RuleData> clues) {
+        if (clues.isEmpty()) {
+            return 0;
+        }
+        List<EditCommand> commands = new ArrayList<>(clues.size());
+        for (RuleData clue : clues) {
+            commands.add(new AddRuleCommand(clue));
+        }
+        history.execute(new CompoundCommand(commands), model);
+        return clues.size();
+    }
+
+    /**
+     * Изменяет размеры сетки уровня. История правок очищается.
      * @param rows Новое количество строк
      * @param cols Новое количество столбцов
      * @throws IllegalArgumentException если размеры недопустимы
@@ -73,46 +90,9 @@ public class EditorLogic {
             throw new IllegalArgumentException("Размеры сетки должны быть положительными: rows=" + rows + ", cols=" + cols);
         }
 
-        // Проверяем, что мины и правила остаются в пределах новой сетки
-        List<HexCoord> newMines = new ArrayList<>();
-        for (HexCoord mine : currentLevelConfig.getMines()) {
-            if (mine.getQ() < cols && mine.getR() < rows) {
-                newMines.add(mine);
-            }
-        }
-
-        List<RuleData> newRules = new ArrayList<>();
-        for (RuleData rule : currentLevelConfig.getRuleDataList()) {
-            boolean valid = true;
-            if (rule instanceof SequenceRuleData) {
-                SequenceRuleData data = (SequenceRuleData) rule;
-                for (HexCoord cell : data.getCellsInSequence()) {
-                    if (cell.getQ() >= cols || cell.getR() >= rows) {
-                        valid = false;
-                        break;
-                    }
-                }
-            } else if (rule instanceof GroupRuleData) {
-                GroupRuleData data = (GroupRuleData) rule;
-                for (HexCoord cell : data.getCellsInGroup()) {
-                    if (cell.getQ() >= cols || cell.getR() >= rows) {
-                        valid = false;
-                        break;
-                    }
-                }
-            } else if (rule instanceof EdgeRuleData) {
-                EdgeRuleData data = (EdgeRuleData) rule;
-                HexCoord cell = data.getCellCoord();
-                if (cell.getQ() >= cols || cell.getR() >= rows) {
-                    valid = false;
-                }
-            }
-            if (valid) {
-                newRules.add(rule);
-            }
-        }
-
-        currentLevelConfig = new LevelConfig(rows, cols, newMines, newRules);
+        // Мины и правила за пределами новой сетки удаляются
+        model.resize(rows, cols);
+        history.clear();
         selectedCells.removeIf(cell -> cell.getQ() >= cols || cell.getR() >= rows);
     }
 
@@ -122,28 +102,55 @@ public class EditorLogic {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     public void saveLevel(String filePath) throws IOException {
-        LevelFile.saveLevelToFile(currentLevelConfig, filePath);
+        LevelFile.saveLevelToFile(model.toConfig(), filePath);
+        LevelCache.getShared().invalidate(filePath); // Время изменения может совпасть с прежним
     }
 
     /**
      * Загружает уровень из файла.
+     * Уровень берется из общего кэша, а редактор работает с его моделью.
      * @param filePath Путь к файлу
      * @throws IOException если произошла ошибка ввода-вывода
      * @throws IllegalArgumentException если формат файла некорректен
      */
     public void loadLevel(String filePath) throws IOException {
-        currentLevelConfig = LevelFile.loadLevelFromFile(filePath);
+        model = EditorModel.fromConfig(LevelCache.getShared().load(filePath));
+        history.clear();
         selectedCells.clear(); // Сбрасываем выбор
         currentTool = "SELECT"; // Сбрасываем инструмент
     }
 
+    /**
+     * Отменяет последнюю правку.
+     * @return true, если было что отменять
+     */
+    public boolean undo() {
+        return history.undo(model);
+    }
+
+    /**
+     * Повторяет последнюю отмененную правку.
+     * @return true, если было что повторять
+     */
+    public boolean redo() {
+        return history.redo(model);
+    }
+
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
     /**
      * Проверяет, есть ли мина в указанной ячейке.
      * @param coord Координаты ячейки
      * @return true, если в ячейке мина
      */
     public boolean isMine(HexCoord coord) {
-        return currentLevelConfig.getMines().contains(coord);
+        return model.isMine(coord.getQ(), coord.getR());
     }
 
     /**
@@ -178,8 +185,7 @@ public class EditorLogic {
      * @param coord Координаты ячейки
      */
     public void toggleSelectedCell(HexCoord coord) {
-        if (coord == null || coord.getQ() < 0 || coord.getQ() >= currentLevelConfig.getCols() ||
-                coord.getR() < 0 || coord.getR() >= currentLevelConfig.getRows()) {
+        if (coord == null || !model.contains(coord.getQ(), coord.getR())) {
             return;
         }
         if (selectedCells.contains(coord)) {
@@ -190,24 +196,17 @@ public class EditorLogic {
     }
 
     /**
-     * Возвращает список ячеек для отрисовки.
-     * @return Список всех ячеек в сетке
+     * Снимает выбор со всех ячеек.
      */
-    public List<HexCoord> getCellsToDraw() {
-        List<HexCoord> cells = new ArrayList<>();
-        for (int r = 0; r < currentLevelConfig.getRows(); r++) {
-            for (int q = 0; q < currentLevelConfig.getCols(); q++) {
-                cells.add(new HexCoord(q, r));
-            }
-        }
-        return cells;
+    public void clearSelection() {
+        selectedCells.clear();
     }
 
     /**
      * Возвращает список правил для отрисовки.
-     * @return Список RuleData
+     * @return Неизменяемый список RuleData
      */
     public List<RuleData> getRulesToDraw() {
-        return new ArrayList<>(currentLevelConfig.getRuleDataList());
+        return model.getRules();
     }
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Изменяемая модель уровня для редактора.
+ * Мины хранятся в битовой плоскости, поэтому проверка мины — O(1),
+ * а правила хранятся вместе со скомпилированными формами (CompiledRule), которые
+ * обновляются по одному при добавлении и удалении правила и целиком только при
+ * смене размеров сетки. LevelConfig создается лишь при сохранении и запуске уровня.
+ * Номер версии правил меняется при каждом изменении списка, чтобы панель могла
+ * перестраивать отрисовку правил без сравнения списков.
+ * Невыполненные правила отслеживаются по мере правок: для каждой ячейки известны
+ * правила, которые ее касаются, и переключение мины перепроверяет только их.
+ */
+public class EditorModel {
+    private int rows; // Количество строк сетки
+    private int cols; // Количество столбцов сетки
+    private BitPlane mines; // Мины
+    private int mineCount; // Количество мин
+    private final List<RuleData> rules = new ArrayList<>(); // Данные правил
+    private final List<CompiledRule> compiledRules = new ArrayList<>(); // Скомпилированные правила (по тем же индексам)
+    private int ruleVersion; // Номер версии списка правил
+    private final Map<Integer, List<CompiledRule>> rulesByCell = new HashMap<>(); // Правила, касающиеся ячейки r * cols + q
+    private final Set<CompiledRule> unsatisfiedRules = new HashSet<>(); // Невыполненные правила (по ссылке)
+
+    /**
+     * Конструктор, создающий пустой уровень.
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     * @throws IllegalArgumentException если размеры недопустимы
+     */
+    public EditorModel(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = new BitPlane(rows, cols);
+    }
+
+    /**
+     * Создает модель по конфигурации уровня. Конфигурация не изменяется.
+     * @param config Конфигурация уровня
+     * @return Новая модель
+     */
+    public static EditorModel fromConfig(LevelConfig config) {
+        EditorModel model = new EditorModel(config.getRows(), config.getCols());
+        model.mines = config.getMinePlane().copy();
+        model.mineCount = model.mines.cardinality();
+        for (RuleData rule : config.getRuleDataList()) {
+            model.addRule(rule);
+        }
+        return model;
+    }
+
+    /**
+     * Создает конфигурацию уровня с текущими минами и правилами.
+     * @return Новая изменяемая конфигурация
+     */
+    public LevelConfig toConfig() {
+        return new LevelConfig(rows, cols, mines.copy(), rules);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Проверяет, лежит ли ячейка в пределах сетки.
+     */
+    public boolean contains(int q, int r) {
+        return q >= 0 && q < cols && r >= 0 && r < rows;
+    }
+
+    /**
+     * Проверяет, есть ли мина в ячейке.
+     * @return true, если в ячейке мина; false для ячеек вне сетки
+     */
+    public boolean isMine(int q, int r) {
+        return contains(q, r) && mines.get(q, r);
+    }
+
+    /**
+     * Ставит или убирает мину.
+     * @param q Координата q
+     * @param r Координата r
+     * @param mine true — поставить мину
+     * @return true, если состояние ячейки изменилось
+     * @throws IllegalArgumentException если координаты вне сетки
+     */
+    public boolean setMine(int q, int r, boolean mine) {
+        if (!contains(q, r)) {
+            throw new IllegalArgumentException("Недопустимые координаты: " + q + "," + r);
+        }
+        if (mines.get(q, r) == mine) {
+            return false;
+        }
+        mines.set(q, r, mine);
+        mineCount += mine ? 1 : -1;
+        for (CompiledRule rule : rulesByCell.getOrDefault(r * cols + q, List.of())) {
+            updateSatisfied(rule);
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает плоскость мин без копирования. Вызывающий код не должен ее изменять.
+     */
+    public BitPlane getMinePlane() {
+        return mines;
+    }
+
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    /**
+     * Добавляет правило в конец списка.
+     * @param rule Данные правила
+     * @return Индекс добавленного правила
+     * @throws IllegalArgumentException если rule null
+     */
+    public int addRule(RuleData rule) {
+        return insertRule(rules.size(), rule);
+    }
+
+    /**
+     * Вставляет правило в указанную позицию.
+     * @param index Позиция (от 0 до getRuleCount())
+     * @param rule Данные правила
+     * @return Индекс вставленного правила
+     * @throws IllegalArgumentException если rule null
+     */
+    public int insertRule(int index, RuleData rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Данные правила не могут быть null");
+        }
+        CompiledRule compiled = rule.getType().compile(rule, rows, cols);
+        rules.add(index, rule);
+        compiledRules.add(index, compiled);
+        for (int cell : compiled.cellIndices()) {
+            rulesByCell.computeIfAbsent(cell, key -> new ArrayList<>(1)).add(compiled);
+        }
+        updateSatisfied(compiled);
+        ruleVersion++;
+        return index;
+    }
+
+    /**
+     * Удаляет правило.
+     * @param index Индекс правила
+     * @return Удаленные данные правила
+     */
+    public RuleData removeRule(int index) {
+        CompiledRule compiled = compiledRules.remove(index);
+        for (int cell : compiled.cellIndices()) {
+            List<CompiledRule> touching = rulesByCell.get(cell);
+            touching.remove(compiled);
+            if (touching.isEmpty()) {
+                rulesByCell.remove(cell);
+            }
+        }
+        unsatisfiedRules.remove(compiled);
+        ruleVersion++;
+        return rules.remove(index);
+    }
+
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    /**
+     * Возвращает неизменяемое представление списка правил (без копирования).
+     */
+    public List<RuleData> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Возвращает скомпилированную форму правила для текущих размеров сетки.
+     * @param index Индекс правила
+     */
+    public CompiledRule getCompiledRule(int index) {
+        return compiledRules.get(index);
+    }
+
+    /**
+     * Возвращает номер версии списка правил; меняется при каждом изменении списка.
+     */
+    public int getRuleVersion() {
+        return ruleVersion;
+    }
+
+    /**
+     * Возвращает количество правил, которые не выполняются для текущего расположения мин.
+     * Счетчик поддерживается при правках, поэтому вызов стоит O(1).
+     */
+    public int countUnsatisfiedRules() {
+        return unsatisfiedRules.size();
+    }
+
+    /**
+     * Перепроверяет правило и обновляет множество невыполненных.
+     */
+    private void updateSatisfied(CompiledRule rule) {
+        if (rule.isSatisfied(mines)) {
+            unsatisfiedRules.remove(rule);
+        } else {
+            unsatisfiedRules.add(rule);
+        }
+    }
+
+    /**
+     * Меняет размеры сетки. Мины за пределами новой сетки удаляются,
+     * правила с ячейками за пределами удаляются, остальные компилируются заново.
+     * @param newRows Новое количество строк
+     * @param newCols Новое количество столбцов
+     * @throws IllegalArgumentException если размеры недопустимы
+     */
+    public void resize(int newRows, int newCols) {
+        BitPlane resized = new BitPlane(newRows, newCols);
+        int count = 0;
+        for (int r = 0; r < Math.min(rows, newRows); r++) {
+            for (int q = 0; q < Math.min(cols, newCols); q++) {
+                if (mines.get(q, r)) {
+                    resized.set(q, r, true);
+                    count++;
+                }
+            }
+        }
+        rows = newRows;
+        cols = newCols;
+        mines = resized;
+        mineCount = count;
+
+        List<RuleData> kept = new ArrayList<>(rules.size());
+        for (RuleData rule : rules) {
+            boolean valid = true;
+            for (HexCoord cell : rule.getCells()) {
+                if (cell.getQ() >= cols || cell.getR() >= rows) {
+                    valid = false;
+                    break;
+                }
+            }
+            if (valid) {
+                kept.add(rule);
+            }
+        }
+        rules.clear();
+        compiledRules.clear();
+        rulesByCell.clear();
+        unsatisfiedRules.clear();
+        for (RuleData rule : kept) {
+            addRule(rule);
+        }
+        ruleVersion++;
+    }
+}
\ No newline at end of file
@@ -10,9 +10,20 @@ import java.util.List;
  * Главное окно редактора уровней Hexcells.
  */
 public class EditorWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final int MAX_VIEW_WIDTH = 1200; // Наибольший начальный размер окна просмотра
+    private static final int MAX_VIEW_HEIGHT = 800;
+    private static final String GENERATE_TEXT = "Подобрать правила";
     private final EditorGridPanel editorGridPanel;
     private final EditorLogic editorLogic;
     private JTextField minesInput;
+    private JLabel statusLabel; // Количество мин и правил
+    private JLabel analysisLabel; // Итог анализа решаемости
+    private final AnalysisWorker analysisWorker; // Фоновый анализ решаемости
+    private final ClueWorker clueWorker; // Фоновый подбор правил
+    private JButton generateButton;
+    private JButton undoButton;
+    private JButton redoButton;
     private String currentRuleType; // Для хранения типа создаваемого правила
 
     /**
@@ -27,6 +38,8 @@ public class EditorWindow extends JFrame {
         // Инициализация логики и панели
         editorLogic = new EditorLogic();
         editorGridPanel = new EditorGridPanel(editorLogic);
+        analysisWorker = new AnalysisWorker();
+        clueWorker = new ClueWorker();
 
         // Создание панели инструментов
         JToolBar toolBar = createToolBar();
@@ -36,8 +49,17 @@ public class EditorWindow extends JFrame {
         JPanel controlPanel = createControlPanel();
         add(controlPanel, BorderLayout.SOUTH);
 
-        // Добавление EditorGridPanel
-        add(editorGridPanel, BorderLayout.CENTER);
+        // Добавление EditorGridPanel в прокручиваемом окне просмотра
+        JScrollPane scrollPane = new JScrollPane(editorGridPanel);
+        scrollPane.getViewport().setBackground(editorGridPanel.getBackground());
+        scrollPane.getVerticalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        Dimension preferred = editorGridPanel.getPreferredSize();
+        scrollPane.setPreferredSize(new Dimension(Math.min(preferred.width + 4, MAX_VIEW_WIDTH),
+                Math.min(preferred.height + 4, MAX_VIEW_HEIGHT)));
+        add(scrollPane, BorderLayout.CENTER);
+        bindHistoryKeys();
+        updateStatus();
 
         // Добавление MouseListener для EditorGridPanel
         editorGridPanel.addMouseListener(new MouseAdapter() {
@@ -48,15 +70,25 @@ public class EditorWindow extends JFrame {
                     String tool = editorLogic.getCurrentTool();
                     if (tool.equals("MINE")) {
                         editorLogic.toggleMine(coord);
+                        editorGridPanel.repaintCell(coord); // Правила не меняются, перерисовываем только ячейку
+                        updateStatus();
                     } else if (tool.equals("SELECT") || tool.equals("SEQUENCE") ||
                             tool.equals("GROUP") || tool.equals("EDGE")) {
                         editorLogic.toggleSelectedCell(coord);
+                        editorGridPanel.repaint();
                     }
-                    editorGridPanel.repaint();
                 }
             }
         });
 
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                analysisWorker.shutdown();
+                clueWorker.shutdown();
+            }
+        });
+
         // Упаковка и отображение
         pack();
         setLocationRelativeTo(null); // Центрирование
@@ -118,9 +150,76 @@ public class EditorWindow extends JFrame {
         createRuleButton.addActionListener(e -> createRule());
         toolBar.add(createRuleButton);
 
+        // Автоматический подбор правил
+        generateButton = new JButton(GENERATE_TEXT);
+        generateButton.setToolTipText("Добавить правила, с которыми уровень решается без угадывания");
+        generateButton.addActionListener(e -> {
+            if (clueWorker.isRunning()) {
+                stopClueGeneration();
+            } else {
+                generateClues();
+            }
+        });
+        toolBar.add(generateButton);
+
+        // Отмена и повтор правок
+        toolBar.addSeparator();
+        undoButton = new JButton("Отменить");
+        undoButton.setToolTipText("Ctrl+Z");
+        undoButton.addActionListener(e -> undo());
+        toolBar.add(undoButton);
+        redoButton = new JButton("Повторить");
+        redoButton.setToolTipText("Ctrl+Y");
+        redoButton.addActionListener(e -> redo());
+        toolBar.add(redoButton);
+
         return toolBar;
     }
 
+    /**
+     * Назначает Ctrl+Z (отмена) и Ctrl+Y / Ctrl+Shift+Z (повтор) для всего окна.
+     */
+    private void bindHistoryKeys() {
+        int menuMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        InputMap inputMap = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, menuMask), "undo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, menuMask), "redo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, menuMask | InputEvent.SHIFT_DOWN_MASK), "redo");
+        ActionMap actionMap = getRootPane().getActionMap();
+        actionMap.put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undo();
+            }
+        });
+        actionMap.put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                redo();
+            }
+        });
+    }
+
+    /**
+     * Отменяет последнюю правку.
+     */
+    private void undo() {
+        if (editorLogic.undo()) {
+            editorGridPanel.repaint();
+            updateStatus();
+        }
+    }
+
+    /**
+     * Повторяет последнюю отмененную правку.
+     */
+    private void redo() {
+        if (editorLogic.redo()) {
+            editorGridPanel.repaint();
+            updateStatus();
+        }
+    }
+
     /**
      * Создает панель управления.
      * @return JPanel с кнопками управления
@@ -131,6 +230,8 @@ public class EditorWindow extends JFrame {
         JButton testButton = new JButton("Опробовать");
         JButton loadButton = new JButton("Загрузить");
         JButton exitButton = new JButton("Выйти в меню");
+        statusLabel = new JLabel();
+        analysisLabel = new JLabel();
 
         // ActionListener для кнопок
         saveButton.addActionListener(e -> saveLevel());
@@ -143,6 +244,8 @@ public class EditorWindow extends JFrame {
         panel.add(testButton);
         panel.add(loadButton);
         panel.add(exitButton);
+        panel.add(statusLabel);
+        panel.add(analysisLabel);
 
         return panel;
     }
@@ -180,8 +283,9 @@ public class EditorWindow extends JFrame {
                         throw new IllegalArgumentException("Выберите тип правила");
                 }
                 editorLogic.addRule(ruleData);
-                editorLogic.getSelectedCells().clear(); // Очистка выбора
+                editorLogic.clearSelection();
                 editorGridPanel.repaint();
+                updateStatus();
             } else {
                 JOptionPane.showMessageDialog(this, "Выберите тип правила", "Ошибка", JOptionPane.ERROR_MESSAGE);
             }
@@ -192,6 +296,80 @@ public class EditorWindow extends JFrame {
         }
     }
 
+    /**
+     * Запускает фоновый подбор правил, с которыми уровень решается без угадывания.
+     * Пока подбор идет, кнопка подбора останавливает его.
+     */
+    private void generateClues() {
+        generateButton.setText("Остановить подбор");
+        clueWorker.start(editorLogic.getModel(), this::addClues, message -> {
+            generateButton.setText(GENERATE_TEXT);
+            JOptionPane.showMessageDialog(this, "Ошибка подбора правил: " + message,
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Останавливает фоновый подбор правил.
+     */
+    private void stopClueGeneration() {
+        clueWorker.cancel();
+        generateButton.setText(GENERATE_TEXT);
+    }
+
+    /**
+     * Добавляет подобранные правила одним отменяемым шагом.
+     */
+    private void addClues(List<RuleData> clues) {
+        generateButton.setText(GENERATE_TEXT);
+        int added = editorLogic.addClues(clues);
+        editorGridPanel.repaint();
+        updateStatus();
+        JOptionPane.showMessageDialog(this, added == 0 ? "Уровень уже решается без угадывания"
+                : "Добавлено правил: " + added);
+    }
+
+    /**
+     * Обновляет метку с количеством мин и правил и доступность отмены и повтора
+     * и запускает анализ решаемости измененного уровня (идущий подбор правил,
+     * начатый до правки, останавливается).
+     * Выполнение правил проверяется по скомпилированным правилам модели.
+     */
+    private void updateStatus() {
+        if (clueWorker.isRunning()) {
+            stopClueGeneration(); // Подбор шел для уровня до правки
+        }
+        EditorModel model = editorLogic.getModel();
+        statusLabel.setText("Мин: " + model.getMineCount() + ", правил: " + model.getRuleCount()
+                + ", не выполнено: " + model.countUnsatisfiedRules());
+        undoButton.setEnabled(editorLogic.canUndo());
+        redoButton.setEnabled(editorLogic.canRedo());
+        analysisLabel.setText("Анализ...");
+        analysisWorker.levelChanged(model, this::showAnalysis);
+    }
+
+    /**
+     * Показывает результат анализа решаемости: итог в метке, невыведенные ячейки на сетке.
+     */
+    private void showAnalysis(AnalysisResult result) {
+        switch (result.getVerdict()) {
+            case SOLVABLE:
+                analysisLabel.setText("Решается без угадывания");
+                break;
+            case AMBIGUOUS:
+                analysisLabel.setText("Нужна догадка, не выводится ячеек: " + result.getUndeterminedCount());
+                break;
+            case UNDECIDED:
+                analysisLabel.setText("Не выводится ячеек: " + result.getUndeterminedCount()
+                        + ", единственность решения не установлена");
+                break;
+            default:
+                analysisLabel.setText("Анализ невозможен: правила не выполняются");
+                break;
+        }
+        editorGridPanel.setAnalysis(result);
+    }
+
     /**
      * Сохраняет уровень в файл.
      */
@@ -239,7 +417,8 @@ public class EditorWindow extends JFrame {
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
                 editorLogic.loadLevel(fileChooser.getSelectedFile().getPath());
-                editorGridPanel.repaint();
+                editorGridPanel.updatePreferredSize();
+                updateStatus();
                 JOptionPane.showMessageDialog(this, "Уровень загружен");
             } catch (IOException | IllegalArgumentException e) {
                 JOptionPane.showMessageDialog(this, "Ошибка при загрузке: " + e.getMessage(),
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сохраненное состояние партии (.hexs).
+ *
+ * Формат (big-endian):
+ * int    магическое число "HEXS"
+ * short  версия формата
+ * short  флаги: бит 0 — игра завершена, бит 1 — игра выиграна
+ * byte[32] SHA-256 уровня (размеры, плоскость мин и правила)
+ * int    количество ходов
+ * int    rows, int cols
+ * short  длина пути к уровню, затем путь в UTF-8
+ * long[] плоскость открытых ячеек, затем плоскость флагов (раскладка BitPlane)
+ *
+ * Файл записывается атомарно (временный файл и переименование), поэтому
+ * обрыв записи не портит предыдущее сохранение. Читается через отображение
+ * в память, и плоскости копируются в BitPlane без разбора.
+ */
+public class GameCheckpoint {
+    public static final String EXTENSION = ".hexs"; // Расширение файлов сохранений
+    public static final String AUTOSAVE_PATH = "autosave" + EXTENSION; // Файл автосохранения
+    private static final int MAGIC = 0x48455853; // "HEXS"
+    private static final short VERSION = 1; // Текущая версия формата
+    private static final int HASH_SIZE = 32; // Размер SHA-256
+    private static final int HASH_BLOCK_SIZE = 1 << 16; // Размер блока данных для SHA-256
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_GAME_WON = 2;
+
+    private final String levelPath; // Путь к уровню (в том числе псевдопуть архива)
+    private final byte[] levelHash; // SHA-256 уровня
+    private final BitPlane revealed; // Открытые ячейки
+    private final BitPlane flagged; // Ячейки с флагами
+    private final int moveCount; // Количество ходов
+    private final boolean gameOver; // Игра завершена
+    private final boolean gameWon; // Игра выиграна
+
+    /**
+     * Конструктор.
+     * @param levelPath Путь к уровню
+     * @param levelHash SHA-256 уровня (см. levelHash(LevelConfig))
+     * @param revealed Плоскость открытых ячеек
+     * @param flagged Плоскость флагов
+     * @param moveCount Количество ходов
+     * @param gameOver Игра завершена
+     * @param gameWon Игра выиграна
+     */
+    public GameCheckpoint(String levelPath, byte[] levelHash, BitPlane revealed, BitPlane flagged,
+                          int moveCount, boolean gameOver, boolean gameWon) {
+        if (levelHash.length != HASH_SIZE) {
+            throw new IllegalArgumentException("Хэш уровня должен занимать " + HASH_SIZE + " байта");
+        }
+        if (revealed.getRows() != flagged.getRows() || revealed.getCols() != flagged.getCols()) {
+            throw new IllegalArgumentException("Размеры плоскостей сохранения не совпадают");
+        }
+        this.levelPath = levelPath;
+        this.levelHash = levelHash.clone();
+        this.revealed = revealed;
+        this.flagged = flagged;
+        this.moveCount = moveCount;
+        this.gameOver = gameOver;
+        this.gameWon = gameWon;
+    }
+
+    /**
+     * Снимает состояние партии с доски.
+     * @param board Игровая доска
+     * @param levelPath Путь к уровню
+     * @param levelHash SHA-256 уровня
+     * @return Сохранение партии
+     */
+    public static GameCheckpoint capture(Board board, String levelPath, byte[] levelHash) {
+        return new GameCheckpoint(levelPath, levelHash, board.exportRevealed(), board.exportFlagged(),
+                board.getMoveCount(), board.isGameOver(), board.isGameWon());
+    }
+
+    /**
+     * Считает хэш уровня по размерам, плоскости мин и правилам, чтобы сохранение
+     * не применялось к измененному уровню. Данные подаются в SHA-256 блоками
+     * фиксированного размера без промежуточного кодирования уровня.
+     * Для замороженных конфигураций (из LevelCache) хэш считается один раз.
+     * @param config Конфигурация уровня
+     * @return SHA-256 уровня
+     */
+    public static byte[] levelHash(LevelConfig config) {
+        byte[] cached = config.getCachedHash();
+        if (cached != null) {
+            return cached.clone();
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+        int cols = config.getCols();
+        ByteBuffer block = ByteBuffer.allocate(HASH_BLOCK_SIZE);
+        block.putInt(config.getRows()).putInt(cols);
+        for (long word : config.getMinePlane().words()) {
+            flushIfFull(digest, block, Long.BYTES).putLong(word);
+        }
+        for (RuleData rule : config.getRuleDataList()) {
+            List<HexCoord> cells = rule.getCells();
+            flushIfFull(digest, block, 3 * Integer.BYTES)
+                    .putInt(rule.getType().ordinal()).putInt(rule.getExpectedMines()).putInt(cells.size());
+            for (HexCoord cell : cells) {
+                flushIfFull(digest, block, Integer.BYTES).putInt(cell.getR() * cols + cell.getQ());
+            }
+        }
+        digest.update(block.flip());
+        byte[] hash = digest.digest();
+        config.setCachedHash(hash.clone());
+        return hash;
+    }
+
+    /**
+     * Передает накопленный блок в SHA-256, если в нем не хватает места.
+     */
+    private static ByteBuffer flushIfFull(MessageDigest digest, ByteBuffer block, int needed) {
+        if (block.remaining() < needed) {
+            digest.update(block.flip());
+            block.clear();
+        }
+        return block;
+    }
+
+    /**
+     * Проверяет, что сохранение сделано для этого уровня.
+     * @param config Конфигурация уровня
+     * @return true, если хэш и размеры уровня совпадают
+     */
+    public boolean matches(LevelConfig config) {
+        return config.getRows() == revealed.getRows() && config.getCols() == revealed.getCols()
+                && Arrays.equals(levelHash, levelHash(config));
+    }
+
+    /**
+     * Восстанавливает партию на доске, инициализированной тем же уровнем.
+     * @param board Игровая доска
+     * @throws IllegalArgumentException если размеры не совпадают
+     */
+    public void restore(Board board) {
+        board.restoreState(revealed, flagged, moveCount, gameOver, gameWon);
+    }
+
+    /**
+     * Атомарно записывает сохранение в файл: данные пишутся во временный файл
+     * в том же каталоге, который затем переименовывается поверх старого.
+     * @param filePath Путь к файлу сохранения
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public void write(String filePath) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = encode();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException e) {
+            throw new IOException("Не удалось записать файл: " + filePath, e);
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Загружает сохранение через отображение файла в память.
+     * @param filePath Путь к файлу сохранения
+     * @return Сохранение партии
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат файла некорректен
+     */
+    public static GameCheckpoint load(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * Кодирует сохранение в буфер.
+     */
+    private ByteBuffer encode() {
+        byte[] path = levelPath.getBytes(StandardCharsets.UTF_8);
+        if (path.length > 0xFFFF) {
+            throw new IllegalArgumentException("Слишком длинный путь к уровню: " + levelPath);
+        }
+        long[] revealedWords = revealed.words();
+        long[] flaggedWords = flagged.words();
+        int size = 4 + 2 + 2 + HASH_SIZE + 4 + 4 + 4 + 2 + path.length
+                + (revealedWords.length + flaggedWords.length) * Long.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) ((gameOver ? FLAG_GAME_OVER : 0) | (gameWon ? FLAG_GAME_WON : 0)));
+        buffer.put(levelHash);
+        buffer.putInt(moveCount);
+        buffer.putInt(revealed.getRows());
+        buffer.putInt(revealed.getCols());
+        buffer.putShort((short) path.length);
+        buffer.put(path);
+        buffer.asLongBuffer().put(revealedWords).put(flaggedWords);
+        buffer.position(size);
+        return buffer.flip();
+    }
+
+    /**
+     * Декодирует сохранение из буфера.
+     */
+    private static GameCheckpoint decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Файл не является сохранением партии");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия сохранения: " + version);
+            }
+            int flags = buffer.getShort();
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(hash);
+            int moveCount = buffer.getInt();
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            if (rows <= 0 || cols <= 0 || moveCount < 0) {
+                throw new IllegalArgumentException("Некорректный заголовок сохранения: rows=" + rows + ", cols=" + cols);
+            }
+            byte[] path = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(path);
+
+            BitPlane revealed = new BitPlane(rows, cols);
+            BitPlane flagged = new BitPlane(rows, cols);
+            int words = revealed.words().length;
+            buffer.asLongBuffer().get(revealed.words()).get(flagged.words());
+            buffer.position(buffer.position() + 2 * words * Long.BYTES);
+
+            return new GameCheckpoint(new String(path, StandardCharsets.UTF_8), hash, revealed, flagged, moveCount,
+                    (flags & FLAG_GAME_OVER) != 0, (flags & FLAG_GAME_WON) != 0);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Сохранение партии обрезано", e);
+        }
+    }
+
+    /**
+     * @return Путь к уровню
+     */
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    /**
+     * @return Количество ходов
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return true, если партия завершена
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,46 @@
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Главное окно игры, отображающее гексагональную сетку и интерфейс.
  * Использует остроконечные (pointy-topped) гексагоны.
  */
 public class GameWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
     private final GridPanel gridPanel; // Панель с гексагональной сеткой
     private final Board gameBoard; // Игровая доска
     private final JLabel statusLabel; // Метка для сообщений игроку
     private final JButton hintButton; // Кнопка для получения подсказки
+    private final HintWorker hintWorker; // Фоновый поиск подсказок
+    private final SolvePath solvePath; // Заранее вычисленный путь решения или null
+    private final AutosaveWorker autosave; // Автосохранение партии или null для уровней без файла
+    private ReplayRecorder recorder; // Запись партии или null, если запись недоступна
     private boolean isGameOver; // Флаг, указывающий, закончена ли игра
+    private static final int MAX_VIEW_WIDTH = 1200; // Наибольший начальный размер окна просмотра
+    private static final int MAX_VIEW_HEIGHT = 800;
 
     /**
      * Конструктор, инициализирующий окно игры.
      *  board Игровая доска
      */
     public GameWindow(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * Конструктор для уровня, загруженного из файла.
+     *  board Игровая доска
+     *  levelPath Путь к файлу уровня (для поиска файла-спутника с путем решения и автосохранения) или null
+     */
+    public GameWindow(Board board, String levelPath) {
         this.gameBoard = board;
+        this.hintWorker = new HintWorker();
+        this.solvePath = levelPath != null ? SolvePath.loadFor(levelPath) : null;
+        this.autosave = levelPath != null ? createAutosave(levelPath, board) : null;
+        this.recorder = levelPath != null ? createRecorder(levelPath, board) : null;
         this.isGameOver = false;
 
         // Настраиваем окно
@@ -26,9 +48,16 @@ public class GameWindow extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        // Инициализируем панель сетки
+        // Инициализируем панель сетки в прокручиваемом окне просмотра
         this.gridPanel = new GridPanel(gameBoard);
-        add(gridPanel, BorderLayout.CENTER);
+        JScrollPane scrollPane = new JScrollPane(gridPanel);
+        scrollPane.getViewport().setBackground(gridPanel.getBackground());
+        scrollPane.getVerticalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        Dimension preferred = gridPanel.getPreferredSize();
+        scrollPane.setPreferredSize(new Dimension(Math.min(preferred.width + 4, MAX_VIEW_WIDTH),
+                Math.min(preferred.height + 4, MAX_VIEW_HEIGHT)));
+        add(scrollPane, BorderLayout.CENTER);
 
         // Инициализируем метку статуса
         this.statusLabel = new JLabel("Игра началась!", SwingConstants.CENTER);
@@ -38,6 +67,16 @@ public class GameWindow extends JFrame {
         this.hintButton = new JButton("Подсказка");
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(hintButton);
+
+        // Масштаб: кнопки или колесо мыши с Ctrl
+        JButton zoomOutButton = new JButton("−");
+        zoomOutButton.setToolTipText("Уменьшить (Ctrl + колесо мыши)");
+        zoomOutButton.addActionListener(e -> gridPanel.zoomOut());
+        JButton zoomInButton = new JButton("+");
+        zoomInButton.setToolTipText("Увеличить (Ctrl + колесо мыши)");
+        zoomInButton.addActionListener(e -> gridPanel.zoomIn());
+        buttonPanel.add(zoomOutButton);
+        buttonPanel.add(zoomInButton);
         add(buttonPanel, BorderLayout.NORTH);
 
         // Добавляем обработчик кликов мыши на gridPanel
@@ -53,17 +92,34 @@ public class GameWindow extends JFrame {
 
                 // Проверяем, валидны ли координаты (в пределах доски)
                 if (isValidCoord(coord)) {
-                    Cell cell = gameBoard.getCell(coord);
-                    if (cell != null) {
-                        if (SwingUtilities.isLeftMouseButton(e)) {
-                            // Левая кнопка: открываем ячейку
-                            gameBoard.revealCell(cell);
-                        } else if (SwingUtilities.isRightMouseButton(e)) {
-                            // Правая кнопка: ставим/снимаем флажок
-                            gameBoard.toggleFlag(cell);
-                        }
-                        gridPanel.repaint(); // Перерисовываем сетку
-                        checkGameStatus(); // Проверяем состояние игры
+                    Move move = null;
+                    if (SwingUtilities.isLeftMouseButton(e)) {
+                        // Левая кнопка: открываем ячейку, а на открытом числе — всех его соседей без флагов
+                        move = gameBoard.getCell(coord).isRevealed() ? Move.chord(coord) : Move.reveal(coord);
+                    } else if (SwingUtilities.isRightMouseButton(e)) {
+                        // Правая кнопка: ставим/снимаем флажок
+                        move = Move.flag(coord);
+                    }
+                    if (move == null) {
+                        return;
+                    }
+                    MoveResult result = gameBoard.applyMoves(List.of(move));
+                    if (result.isEmpty()) {
+                        return; // Ход ничего не изменил
+                    }
+                    recordMove(move);
+                    List<HexCoord> changed = result.getChangedCells();
+                    if (solvePath != null) {
+                        solvePath.cellsChanged(gameBoard, changed);
+                    }
+                    gridPanel.repaintCells(changed); // Перерисовываем только измененные ячейки
+                    if (result.isGameOver() && !result.isGameWon()) {
+                        gridPanel.repaint(); // Проигрыш открывает все мины
+                    }
+                    checkGameStatus(); // Проверяем состояние игры
+                    prepareHint(); // Начинаем искать следующую подсказку
+                    if (autosave != null) {
+                        autosave.positionChanged(gameBoard);
                     }
                 }
             }
@@ -72,42 +128,157 @@ public class GameWindow extends JFrame {
         // Добавляем обработчик для кнопки подсказки
         hintButton.addActionListener(e -> {
             if (!isGameOver) {
-                // Предполагается, что Board или HintBot имеет метод getHint()
-                String hint = gameBoard.getHint(); // Заменить на реальный метод
-                statusLabel.setText(hint != null ? hint : "Подсказок нет!");
-                gridPanel.repaint();
+                // Для встроенных уровней подсказка берется из файла-спутника,
+                // иначе обычно уже посчитана в фоне после последнего хода
+                HintResult hint = solvePath != null ? solvePath.nextHint(gameBoard) : null;
+                if (hint == null) {
+                    hint = hintWorker.getHint(gameBoard);
+                }
+                statusLabel.setText(hint != null ? formatHint(hint) : "Подсказок нет!");
+            }
+        });
+
+        // Освобождаем фоновый поток при закрытии окна
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (autosave != null) {
+                    autosave.close(gameBoard); // Дописываем сохранение до выхода из приложения
+                }
+                stopRecording();
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                hintWorker.shutdown();
             }
         });
 
+        // Ищем подсказку для начальной позиции, пока игрок осматривает поле
+        prepareHint();
+
         // Упаковываем компоненты и делаем окно видимым
         pack();
         setVisible(true);
     }
 
+    /**
+     * Запускает фоновый поиск подсказки, если ее не дает путь решения:
+     * файла-спутника нет, он устарел или все его шаги уже выполнены.
+     */
+    private void prepareHint() {
+        if (solvePath == null || solvePath.nextHint(gameBoard) == null) {
+            hintWorker.positionChanged(gameBoard);
+        }
+    }
+
+    /**
+     * Создает автосохранение для уровня из файла.
+     * Уровень берется из доски, а не загружается заново.
+     *  levelPath Путь к файлу уровня
+     *  board Игровая доска
+     */
+    private AutosaveWorker createAutosave(String levelPath, Board board) {
+        LevelConfig config = board.getLevelConfig();
+        if (config == null) {
+            return null; // Доска собрана без конфигурации: сохранение нельзя будет проверить
+        }
+        return new AutosaveWorker(levelPath, config, GameCheckpoint.AUTOSAVE_PATH, this::showAutosaveError);
+    }
+
+    /**
+     * Показывает ошибку автосохранения в строке статуса.
+     *  message Сообщение об ошибке
+     */
+    private void showAutosaveError(String message) {
+        if (statusLabel != null) {
+            statusLabel.setText(message);
+        }
+    }
+
+    /**
+     * Начинает запись партии в журнал последней игры.
+     * Уровень берется из доски, а не загружается заново.
+     *  levelPath Путь к файлу уровня
+     *  board Доска в начальной позиции
+     */
+    private static ReplayRecorder createRecorder(String levelPath, Board board) {
+        LevelConfig config = board.getLevelConfig();
+        if (config == null) {
+            return null; // Доска собрана без конфигурации: записывать нечего
+        }
+        try {
+            return new ReplayRecorder(ReplayRecorder.LAST_GAME_PATH, levelPath, config,
+                    board, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // Журнал недоступен: играем без записи
+        }
+    }
+
+    /**
+     * Дописывает ход в журнал; при ошибке записи журнал закрывается.
+     *  move Примененный ход
+     */
+    private void recordMove(Move move) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(move, gameBoard);
+        } catch (IOException e) {
+            stopRecording();
+        }
+    }
+
+    /**
+     * Закрывает журнал партии, дописывая буфер на диск.
+     */
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            // Журнал останется обрезанным; ReplayLog отбросит недописанную запись
+        }
+        recorder = null;
+    }
+
     /**
      * Проверяет, находятся ли координаты в пределах доски.
      *  coord Координаты ячейки
      */
     private boolean isValidCoord(HexCoord coord) {
-        if (coord == null || gameBoard == null || gameBoard.getGrid() == null) {
+        if (coord == null || gameBoard == null) {
             return false;
         }
-        int q = coord.getQ();
-        int r = coord.getR();
-        Cell[][] grid = gameBoard.getGrid();
-        return q >= 0 && q < grid.length && r >= 0 && r < grid[q].length;
+        return gameBoard.getCell(coord) != null;
     }
 
     /**
      * Проверяет состояние игры (победа или поражение).
      */
     private void checkGameStatus() {
-        if (gameBoard.checkWinCondition()) {
+        if (gameBoard.isGameWon()) {
             statusLabel.setText("Победа!");
             isGameOver = true;
-        } else if (gameBoard.isGameLost()) { // Предполагаемый метод в Board
+        } else if (gameBoard.isGameOver()) {
             statusLabel.setText("Поражение!");
             isGameOver = true;
         }
+        if (isGameOver) {
+            hintWorker.cancel();
+        }
+    }
+
+    /**
+     * Формирует текст подсказки для строки статуса.
+     *  hint Результат HintBot
+     */
+    private String formatHint(HintResult hint) {
+        HexCoord coord = hint.getCoord();
+        String verdict = hint.getType() == HintType.MINE ? "мина" : "безопасна";
+        return "Подсказка: ячейка (" + coord.getQ() + ", " + coord.getR() + ") — " + verdict;
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Заранее отрисованные числа 0..MAX_VALUE одного шрифта и цвета.
+ * Числа рисуются один раз в общий лист спрайтов в пикселях устройства
+ * (с учетом масштаба HiDPI-экрана), а при отрисовке кадра копируются вызовом
+ * drawImage без раскладки глифов и сглаживания текста на каждую ячейку.
+ * При смене шрифта (масштаба сетки) или масштаба экрана создается новый объект.
+ */
+public class GlyphAtlas {
+    public static final int MAX_VALUE = 99; // Наибольшее число в листе
+    private static final int COLUMNS = 10; // Чисел в строке листа
+    private static final int PADDING = 1; // Запас вокруг числа на сглаживание, пиксели
+
+    private final Font font; // Шрифт в координатах панели
+    private final Color color;
+    private final double scale; // Масштаб экрана, для которого отрисован лист
+    private final BufferedImage[] sprites; // Области общего листа по числам
+    private final int ascent; // Высота над базовой линией в пикселях устройства
+    private final AffineTransform placement = new AffineTransform(); // Переиспользуемое положение спрайта
+
+    /**
+     * Отрисовывает лист чисел.
+     * @param font Шрифт в координатах панели
+     * @param color Цвет чисел
+     * @param scale Масштаб экрана (1 для обычного, 2 для Retina и т.п.)
+     */
+    public GlyphAtlas(Font font, Color color, double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Масштаб должен быть положительным: " + scale);
+        }
+        this.font = font;
+        this.color = color;
+        this.scale = scale;
+        Font deviceFont = font.deriveFont((float) (font.getSize2D() * scale));
+
+        // Метрики берутся из контекста с теми же подсказками, что и при отрисовке листа
+        Graphics2D probe = textGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), deviceFont);
+        FontMetrics metrics = probe.getFontMetrics();
+        probe.dispose();
+        int[] widths = new int[MAX_VALUE + 1];
+        int maxWidth = 0;
+        for (int value = 0; value <= MAX_VALUE; value++) {
+            widths[value] = metrics.stringWidth(String.valueOf(value));
+            maxWidth = Math.max(maxWidth, widths[value]);
+        }
+        this.ascent = metrics.getAscent();
+        int cellWidth = maxWidth + 2 * PADDING;
+        int cellHeight = metrics.getAscent() + metrics.getDescent() + 2 * PADDING;
+
+        int rows = (MAX_VALUE + COLUMNS) / COLUMNS;
+        BufferedImage sheet = new BufferedImage(COLUMNS * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = textGraphics(sheet, deviceFont);
+        g2d.setColor(color);
+        this.sprites = new BufferedImage[MAX_VALUE + 1];
+        for (int value = 0; value <= MAX_VALUE; value++) {
+            int x = (value % COLUMNS) * cellWidth;
+            int y = (value / COLUMNS) * cellHeight;
+            g2d.drawString(String.valueOf(value), x + PADDING, y + PADDING + ascent);
+            sprites[value] = sheet.getSubimage(x, y, widths[value] + 2 * PADDING, cellHeight);
+        }
+        g2d.dispose();
+    }
+
+    private static Graphics2D textGraphics(BufferedImage image, Font font) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setFont(font);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        return g2d;
+    }
+
+    /**
+     * Проверяет, отрисован ли лист для этого шрифта, цвета и масштаба экрана.
+     */
+    public boolean matches(Font font, Color color, double scale) {
+        return this.scale == scale && this.font.equals(font) && this.color.equals(color);
+    }
+
+    /**
+     * Рисует число так же, как drawString: (x, y) — начало базовой линии.
+     * Числа вне 0..MAX_VALUE рисуются через drawString шрифтом и цветом листа
+     * (шрифт и цвет контекста при этом меняются).
+     * @param g2d Графический контекст с масштабом, для которого отрисован лист
+     * @param value Число
+     * @param x X начала базовой линии в координатах панели
+     * @param y Y базовой линии в координатах панели
+     */
+    public void draw(Graphics2D g2d, int value, int x, int y) {
+        if (value < 0 || value > MAX_VALUE) {
+            g2d.setFont(font);
+            g2d.setColor(color);
+            g2d.drawString(String.valueOf(value), x, y);
+            return;
+        }
+        if (scale == 1) {
+            g2d.drawImage(sprites[value], x - PADDING, y - PADDING - ascent, null);
+            return;
+        }
+
+        // Лист уже в пикселях устройства: обратный масштаб вместе с масштабом
+        // контекста дает копирование один к одному
+        placement.setTransform(1 / scale, 0, 0, 1 / scale, x - (double) PADDING / scale, y - (PADDING + ascent) / scale);
+        g2d.drawImage(sprites[value], placement, null);
+    }
+}
\ No newline at end of file
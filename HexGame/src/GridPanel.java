@@ -1,18 +1,59 @@
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Collection;
 import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
 
 /**
  * Панель для отображения игровой сетки Hexcells.
+ *
+ * Отрисовка разделена на слои размером с видимую область панели:
+ * слой состояния ячеек (заливка, числа, флаги) обновляется по грязным
+ * областям после ходов; статический слой (контуры гексагонов и правила)
+ * не зависит от хода и рисуется заново только при смене геометрии или видимой
+ * области; временный слой (мины после проигрыша) — только при смене состояния игры.
+ * Кадр собирается тремя вызовами drawImage. Если видимая область слишком велика
+ * для буферов, панель рисует слои напрямую в пределах области отсечения.
+ *
+ * Панель рассчитана на размещение в JScrollPane: слои покрывают видимую часть
+ * с запасом, а диапазон ячеек вычисляется по области отсечения за O(1).
+ * Масштаб меняется колесом мыши с Ctrl. При радиусе меньше LOD_RADIUS ячейки
+ * рисуются без контуров, чисел и правил — прямоугольными блоками цвета состояния,
+ * которые записываются прямо в пиксели слоя.
  */
 public class GridPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
     private final Board board;
-    private static final int HEX_RADIUS = 30; // Радиус гексагона
+    public static final int DEFAULT_RADIUS = 30; // Радиус гексагона по умолчанию
+    public static final int MIN_RADIUS = 1; // Наименьший радиус при уменьшении
+    public static final int MAX_RADIUS = 80; // Наибольший радиус при увеличении
+    private static final int LOD_RADIUS = 5; // Радиус, ниже которого ячейки рисуются блоками
+    private static final int NUMBER_MIN_RADIUS = 8; // Радиус, ниже которого числа не помещаются
+    private static final double ZOOM_STEP = 1.25; // Множитель одного шага масштаба
+    private static final int OVERSCAN = 256; // Запас слоев вокруг видимой области, пиксели
+    private static final long MAX_LAYER_PIXELS = 4096L * 4096; // Наибольшая площадь буфера слоя
+    private int radius = DEFAULT_RADIUS; // Текущий радиус гексагона (масштаб)
+    private HexGeometry geometry; // Закэшированная геометрия сетки
+    private RuleOverlayRenderer ruleOverlay; // Отрисовка правил для текущей геометрии
+    private GlyphAtlas numberAtlas; // Заранее отрисованные числа открытых ячеек
+
+    private Rectangle layerBounds; // Область панели, которую покрывают слои
+    private HexGeometry layerGeometry; // Геометрия, с которой нарисованы слои
+    private double layerScale; // Масштаб экрана (HiDPI), с которым нарисованы слои
+    private BufferedImage cellLayer; // Слой состояния ячеек (непрозрачный)
+    private BufferedImage staticLayer; // Слой контуров и правил (прозрачный)
+    private BufferedImage transientLayer; // Слой мин после проигрыша или null
+    private Rectangle dirtyCells; // Область слоя ячеек, требующая перерисовки, или null
+    private boolean transientShown; // Для какого состояния (проигрыш) нарисован временный слой
+    private int layerStateVersion; // Board.getStateVersion(), с которым нарисованы слои
 
     /**
      * Конструктор, инициализирующий панель.
+     * Ходы обрабатывает окно игры, панель только отображает доску.
      * @param board Игровая доска
      */
     public GridPanel(Board board) {
@@ -20,50 +61,276 @@ public class GridPanel extends JPanel {
         setBackground(Color.LIGHT_GRAY);
 
         // Установка предпочтительного размера
-        int width = (int) (board.getCols() * HEX_RADIUS * 1.5 + HEX_RADIUS);
-        int height = (int) (board.getRows() * HEX_RADIUS * Math.sqrt(3) + HEX_RADIUS);
-        setPreferredSize(new Dimension(width, height));
-
-        // Добавление обработчика мыши
-        addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                HexCoord coord = pixelToHex(e.getPoint());
-                if (coord != null) {
-                    if (e.getButton() == MouseEvent.BUTTON1) { // Левая кнопка
-                        board.revealCell(coord);
-                    } else if (e.getButton() == MouseEvent.BUTTON3) { // Правая кнопка
-                        board.toggleFlag(coord);
-                    }
-                    repaint();
+        setPreferredSize(geometry().getPreferredSize());
+
+        // Ctrl + колесо меняет масштаб, остальное колесо прокручивает окно просмотра
+        addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                if (e.getPreciseWheelRotation() != 0) {
+                    setRadius(e.getPreciseWheelRotation() < 0 ? zoomedIn(radius) : zoomedOut(radius), e.getPoint());
                 }
+            } else if (getParent() != null) {
+                getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
             }
         });
     }
 
     /**
-     * Отрисовывает компонент: сетку гексагонов, ячейки, флаги, мины и правила.
+     * @return Текущий радиус гексагона в пикселях
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Увеличивает масштаб на один шаг относительно центра видимой области.
+     */
+    public void zoomIn() {
+        setRadius(zoomedIn(radius), null);
+    }
+
+    /**
+     * Уменьшает масштаб на один шаг относительно центра видимой области.
+     */
+    public void zoomOut() {
+        setRadius(zoomedOut(radius), null);
+    }
+
+    /**
+     * Меняет масштаб, сохраняя точку-якорь на том же месте экрана.
+     * @param newRadius Новый радиус (ограничивается MIN_RADIUS..MAX_RADIUS)
+     * @param anchor Точка панели, которая должна остаться под курсором, или null для центра видимой области
+     */
+    public void setRadius(int newRadius, Point anchor) {
+        newRadius = Math.max(MIN_RADIUS, Math.min(MAX_RADIUS, newRadius));
+        if (newRadius == radius) {
+            return;
+        }
+        Rectangle visible = getVisibleRect();
+        if (anchor == null) {
+            anchor = new Point((int) visible.getCenterX(), (int) visible.getCenterY());
+        }
+
+        // Координаты центров пропорциональны радиусу, поэтому якорь просто масштабируется
+        double factor = (double) newRadius / radius;
+        radius = newRadius;
+        Dimension size = geometry().getPreferredSize();
+        setPreferredSize(size);
+
+        JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, this);
+        if (viewport != null) {
+            Dimension extent = viewport.getExtentSize();
+            int x = (int) Math.round(anchor.x * factor) - (anchor.x - visible.x);
+            int y = (int) Math.round(anchor.y * factor) - (anchor.y - visible.y);
+            x = Math.max(0, Math.min(x, size.width - extent.width));
+            y = Math.max(0, Math.min(y, size.height - extent.height));
+            viewport.setViewSize(size);
+            viewport.setViewPosition(new Point(x, y));
+        }
+        revalidate();
+        repaint();
+    }
+
+    private static int zoomedIn(int radius) {
+        return Math.max(radius + 1, (int) Math.round(radius * ZOOM_STEP));
+    }
+
+    private static int zoomedOut(int radius) {
+        return Math.min(radius - 1, (int) Math.round(radius / ZOOM_STEP));
+    }
+
+    private boolean isLevelOfDetail() {
+        return radius < LOD_RADIUS;
+    }
+
+    /**
+     * Отмечает ячейки измененными и запрашивает перерисовку только их области.
+     * Правила не зависят от состояния доски, поэтому статический слой не меняется.
+     * @param cells Изменившиеся ячейки
+     */
+    public void repaintCells(Collection<HexCoord> cells) {
+        HexGeometry geometry = geometry();
+        Rectangle dirty = null;
+        for (HexCoord coord : cells) {
+            Rectangle bounds = geometry.cellBounds(coord.getQ(), coord.getR());
+            if (dirty == null) {
+                dirty = bounds;
+            } else {
+                dirty.add(bounds);
+            }
+        }
+        if (dirty != null) {
+            if (dirtyCells == null) {
+                dirtyCells = new Rectangle(dirty);
+            } else {
+                dirtyCells.add(dirty);
+            }
+            repaint(dirty);
+        }
+    }
+
+    /**
+     * Сбрасывает все слои, например после замены состояния доски целиком.
+     * Замену через Board.initializeLevel и Board.restoreState панель замечает
+     * сама по Board.getStateVersion().
+     */
+    public void invalidateLayers() {
+        layerBounds = null;
+        repaint();
+    }
+
+    /**
+     * Собирает кадр из слоев, перерисовывая только устаревшие.
      * @param g Графический контекст
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        HexGeometry geometry = geometry();
+        boolean lost = board.isGameOver() && !board.isGameWon();
+
+        Rectangle visible = getVisibleRect();
+        double scale = g2d.getTransform().getScaleX();
+        if (visible.isEmpty() || (long) (visible.width * scale) * (long) (visible.height * scale) > MAX_LAYER_PIXELS) {
+            // Буферы такого размера не окупаются: рисуем слои напрямую
+            Rectangle clip = g2d.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            if (isLevelOfDetail()) {
+                renderBlocks(g2d, geometry, clip, false);
+            } else {
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                renderCells(g2d, geometry, clip);
+                renderStatic(g2d, geometry, clip);
+            }
+            if (lost) {
+                renderTransient(g2d, geometry, clip);
+            }
+            return;
+        }
+
+        // Слои переиспользуются, пока видимая область остается внутри них, а состояние доски не заменено
+        if (board.getStateVersion() != layerStateVersion) {
+            layerBounds = null; // Как invalidateLayers(), но без повторной перерисовки
+        }
+        if (layerBounds == null || !layerBounds.contains(visible) || geometry != layerGeometry || scale != layerScale) {
+            Rectangle bounds = new Rectangle(visible);
+            bounds.grow(OVERSCAN, OVERSCAN);
+            bounds = bounds.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+            if ((long) (bounds.width * scale) * (long) (bounds.height * scale) > MAX_LAYER_PIXELS) {
+                bounds = visible;
+            }
+            rebuildLayers(geometry, bounds, scale);
+        } else if (dirtyCells != null) {
+            Rectangle area = dirtyCells.intersection(layerBounds);
+            if (!area.isEmpty()) {
+                updateCellLayer(geometry, area);
+            }
+        }
+        dirtyCells = null;
+
+        if (lost && (transientLayer == null || !transientShown)) {
+            transientLayer = newLayer(BufferedImage.TYPE_INT_ARGB);
+            Graphics2D overlay = layerGraphics(transientLayer);
+            renderTransient(overlay, geometry, layerBounds);
+            overlay.dispose();
+        }
+        transientShown = lost;
+
+        int x = layerBounds.x;
+        int y = layerBounds.y;
+        int width = layerBounds.width;
+        int height = layerBounds.height;
+        g2d.drawImage(cellLayer, x, y, width, height, null);
+        if (staticLayer != null) {
+            g2d.drawImage(staticLayer, x, y, width, height, null);
+        }
+        if (lost) {
+            g2d.drawImage(transientLayer, x, y, width, height, null);
+        }
+    }
+
+    /**
+     * Рисует все слои заново для новой видимой области или геометрии.
+     */
+    private void rebuildLayers(HexGeometry geometry, Rectangle bounds, double scale) {
+        layerBounds = new Rectangle(bounds);
+        layerGeometry = geometry;
+        layerScale = scale;
+        layerStateVersion = board.getStateVersion();
+        transientLayer = null;
+
+        cellLayer = newLayer(BufferedImage.TYPE_INT_RGB);
+        updateCellLayer(geometry, layerBounds);
+
+        // В режиме блоков контуры и правила не различимы: статический слой не нужен
+        staticLayer = null;
+        if (!isLevelOfDetail()) {
+            staticLayer = newLayer(BufferedImage.TYPE_INT_ARGB);
+            Graphics2D overlay = layerGraphics(staticLayer);
+            renderStatic(overlay, geometry, layerBounds);
+            overlay.dispose();
+        }
+    }
+
+    /**
+     * Перерисовывает область слоя состояния ячеек.
+     */
+    private void updateCellLayer(HexGeometry geometry, Rectangle area) {
+        Graphics2D cells = layerGraphics(cellLayer);
+        cells.setClip(area);
+        cells.setColor(getBackground());
+        cells.fill(area);
+        if (!isLevelOfDetail()) {
+            renderCells(cells, geometry, area);
+        }
+        cells.dispose();
+        if (isLevelOfDetail()) {
+            renderBlocks(geometry, area);
+        }
+    }
 
-        // Отрисовка гексагонов
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int q = 0; q < board.getCols(); q++) {
-                HexCoord coord = new HexCoord(q, r);
-                Point2D.Double center = hexToPixel(q, r);
-                Polygon hex = createHexagon(center, HEX_RADIUS);
+    /**
+     * Создает буфер слоя в пикселях устройства, чтобы на HiDPI-экранах слой не размывался.
+     */
+    private BufferedImage newLayer(int type) {
+        return new BufferedImage((int) Math.ceil(layerBounds.width * layerScale),
+                (int) Math.ceil(layerBounds.height * layerScale), type);
+    }
+
+    /**
+     * Возвращает контекст слоя в координатах панели со сглаживанием.
+     */
+    private Graphics2D layerGraphics(BufferedImage layer) {
+        Graphics2D g2d = layer.createGraphics();
+        g2d.scale(layerScale, layerScale);
+        g2d.translate(-layerBounds.x, -layerBounds.y);
+        g2d.setFont(getFont());
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
 
-                Cell cell = board.getCell(coord);
+    /**
+     * Слой состояния: заливка ячеек, числа открытых ячеек и флаги в области.
+     */
+    private void renderCells(Graphics2D g2d, HexGeometry geometry, Rectangle area) {
+        int firstCol = geometry.firstCol(area.getMinX());
+        int lastCol = geometry.lastCol(area.getMaxX());
+        Polygon hex = HexGeometry.newHexagon();
+        GlyphAtlas numbers = numberAtlas(g2d.getTransform().getScaleX());
+        for (int q = firstCol; q <= lastCol; q++) {
+            int lastRow = geometry.lastRow(q, area.getMaxY());
+            for (int r = geometry.firstRow(q, area.getMinY()); r <= lastRow; r++) {
+                Cell cell = board.getCell(q, r);
                 if (cell == null) {
                     continue;
                 }
+                geometry.hexagon(q, r, hex);
+                int centerX = (int) geometry.centerX(q);
+                int centerY = (int) geometry.centerY(q, r);
 
-                // Отрисовка ячейки
                 if (cell.isRevealed()) {
                     if (cell.isMine()) {
                         g2d.setColor(Color.BLACK);
@@ -71,10 +338,8 @@ public class GridPanel extends JPanel {
                     } else {
                         g2d.setColor(Color.WHITE);
                         g2d.fillPolygon(hex);
-                        if (cell.getRevealedValue() > 0) {
-                            g2d.setColor(Color.BLACK);
-                            g2d.drawString(String.valueOf(cell.getRevealedValue()),
-                                    (int) center.x - 5, (int) center.y + 5);
+                        if (cell.getRevealedValue() > 0 && radius >= NUMBER_MIN_RADIUS) {
+                            numbers.draw(g2d, cell.getRevealedValue(), centerX - 5, centerY + 5);
                         }
                     }
                 } else {
@@ -82,33 +347,145 @@ public class GridPanel extends JPanel {
                     g2d.fillPolygon(hex);
                     if (cell.isFlagged()) {
                         g2d.setColor(Color.RED);
-                        g2d.fillOval((int) (center.x - HEX_RADIUS / 2), (int) (center.y - HEX_RADIUS / 2),
-                                HEX_RADIUS, HEX_RADIUS);
+                        g2d.fillOval(centerX - radius / 2, centerY - radius / 2, radius, radius);
                     }
                 }
+            }
+        }
+    }
+
+    /**
+     * Возвращает лист чисел для шрифта панели, создавая его заново при смене масштаба экрана.
+     */
+    private GlyphAtlas numberAtlas(double scale) {
+        if (numberAtlas == null || !numberAtlas.matches(getFont(), Color.BLACK, scale)) {
+            numberAtlas = new GlyphAtlas(getFont(), Color.BLACK, scale);
+        }
+        return numberAtlas;
+    }
+
+    /**
+     * Цвет ячейки в режиме блоков.
+     */
+    private static int blockColor(Cell cell) {
+        if (cell.isRevealed()) {
+            return cell.isMine() ? 0x000000 : 0xFFFFFF;
+        }
+        return cell.isFlagged() ? 0xFF0000 : 0x808080;
+    }
+
+    /**
+     * Режим блоков: каждая ячейка — прямоугольник 1.5 * radius x sqrt(3) * radius
+     * вокруг центра. Такие прямоугольники укладываются кирпичной кладкой без зазоров,
+     * как и сами гексагоны. Цвета записываются прямо в пиксели слоя.
+     */
+    private void renderBlocks(HexGeometry geometry, Rectangle area) {
+        int[] pixels = ((DataBufferInt) cellLayer.getRaster().getDataBuffer()).getData();
+        int width = cellLayer.getWidth();
+        int minX = Math.max(0, (int) Math.floor((area.x - layerBounds.x) * layerScale));
+        int maxX = Math.min(width, (int) Math.ceil((area.x + area.width - layerBounds.x) * layerScale));
+        int minY = Math.max(0, (int) Math.floor((area.y - layerBounds.y) * layerScale));
+        int maxY = Math.min(cellLayer.getHeight(), (int) Math.ceil((area.y + area.height - layerBounds.y) * layerScale));
+        double halfWidth = 0.75 * radius;
+        double halfHeight = radius * Math.sqrt(3) / 2;
+
+        int firstCol = geometry.firstCol(area.getMinX());
+        int lastCol = geometry.lastCol(area.getMaxX());
+        for (int q = firstCol; q <= lastCol; q++) {
+            // Границы соседних блоков вычисляются одной формулой, чтобы не было щелей от округления
+            double centerX = geometry.centerX(q);
+            int x0 = Math.max(minX, (int) Math.round((centerX - halfWidth - layerBounds.x) * layerScale));
+            int x1 = Math.min(maxX, (int) Math.round((centerX + halfWidth - layerBounds.x) * layerScale));
+            if (x0 >= x1) {
+                continue;
+            }
+            int firstRow = geometry.firstRow(q, area.getMinY());
+            int lastRow = geometry.lastRow(q, area.getMaxY());
+            double top = geometry.centerY(q, firstRow) - halfHeight;
+            for (int r = firstRow; r <= lastRow; r++) {
+                double bottom = top + 2 * halfHeight;
+                int y0 = Math.max(minY, (int) Math.round((top - layerBounds.y) * layerScale));
+                int y1 = Math.min(maxY, (int) Math.round((bottom - layerBounds.y) * layerScale));
+                top = bottom;
+                if (y0 >= y1) {
+                    continue;
+                }
+                int color = blockColor(board.getCell(q, r));
+                for (int y = y0; y < y1; y++) {
+                    Arrays.fill(pixels, y * width + x0, y * width + x1, color);
+                }
+            }
+        }
+    }
 
-                g2d.setColor(Color.BLACK);
-                g2d.drawPolygon(hex);
+    /**
+     * Режим блоков без буфера слоя: те же прямоугольники через fillRect.
+     * @param minesOnly Рисовать только неоткрытые мины (временный слой)
+     */
+    private void renderBlocks(Graphics2D g2d, HexGeometry geometry, Rectangle area, boolean minesOnly) {
+        double halfWidth = 0.75 * radius;
+        double halfHeight = radius * Math.sqrt(3) / 2;
+        int firstCol = geometry.firstCol(area.getMinX());
+        int lastCol = geometry.lastCol(area.getMaxX());
+        for (int q = firstCol; q <= lastCol; q++) {
+            double centerX = geometry.centerX(q);
+            int x0 = (int) Math.round(centerX - halfWidth);
+            int x1 = (int) Math.round(centerX + halfWidth);
+            int lastRow = geometry.lastRow(q, area.getMaxY());
+            for (int r = geometry.firstRow(q, area.getMinY()); r <= lastRow; r++) {
+                Cell cell = board.getCell(q, r);
+                if (minesOnly && (!cell.isMine() || cell.isRevealed())) {
+                    continue;
+                }
+                double centerY = geometry.centerY(q, r);
+                int y0 = (int) Math.round(centerY - halfHeight);
+                int y1 = (int) Math.round(centerY + halfHeight);
+                g2d.setColor(minesOnly ? Color.BLACK : new Color(blockColor(cell)));
+                g2d.fillRect(x0, y0, x1 - x0, y1 - y0);
             }
         }
+    }
 
-        // Отрисовка правил
-        for (Rule rule : board.getActiveRules()) {
-            rule.draw(g2d, this, board);
+    /**
+     * Статический слой: контуры гексагонов и правила в области.
+     */
+    private void renderStatic(Graphics2D g2d, HexGeometry geometry, Rectangle area) {
+        int firstCol = geometry.firstCol(area.getMinX());
+        int lastCol = geometry.lastCol(area.getMaxX());
+        Polygon hex = HexGeometry.newHexagon();
+        g2d.setColor(Color.BLACK);
+        for (int q = firstCol; q <= lastCol; q++) {
+            int lastRow = geometry.lastRow(q, area.getMaxY());
+            for (int r = geometry.firstRow(q, area.getMinY()); r <= lastRow; r++) {
+                g2d.drawPolygon(geometry.hexagon(q, r, hex));
+            }
         }
+        // Правила доски меняются только при инициализации уровня, поэтому
+        // отрисовка правил строится заново лишь вместе с геометрией
+        if (ruleOverlay == null || !ruleOverlay.matches(geometry)) {
+            ruleOverlay = RuleOverlayRenderer.forRules(geometry, board.getActiveRules());
+        }
+        ruleOverlay.paint(g2d, area);
+    }
 
-        // Если игра завершена и проиграна, показать все мины
-        if (board.isGameOver() && !board.isGameWon()) {
-            for (int r = 0; r < board.getRows(); r++) {
-                for (int q = 0; q < board.getCols(); q++) {
-                    HexCoord coord = new HexCoord(q, r);
-                    Cell cell = board.getCell(coord);
-                    if (cell != null && cell.isMine() && !cell.isRevealed()) {
-                        Point2D.Double center = hexToPixel(q, r);
-                        g2d.setColor(Color.BLACK);
-                        g2d.fillOval((int) (center.x - HEX_RADIUS / 2), (int) (center.y - HEX_RADIUS / 2),
-                                HEX_RADIUS, HEX_RADIUS);
-                    }
+    /**
+     * Временный слой: все неоткрытые мины после проигрыша.
+     */
+    private void renderTransient(Graphics2D g2d, HexGeometry geometry, Rectangle area) {
+        if (isLevelOfDetail()) {
+            renderBlocks(g2d, geometry, area, true);
+            return;
+        }
+        int firstCol = geometry.firstCol(area.getMinX());
+        int lastCol = geometry.lastCol(area.getMaxX());
+        g2d.setColor(Color.BLACK);
+        for (int q = firstCol; q <= lastCol; q++) {
+            int lastRow = geometry.lastRow(q, area.getMaxY());
+            for (int r = geometry.firstRow(q, area.getMinY()); r <= lastRow; r++) {
+                Cell cell = board.getCell(q, r);
+                if (cell != null && cell.isMine() && !cell.isRevealed()) {
+                    g2d.fillOval((int) geometry.centerX(q) - radius / 2, (int) geometry.centerY(q, r) - radius / 2,
+                            radius, radius);
                 }
             }
         }
@@ -120,34 +497,7 @@ public class GridPanel extends JPanel {
      * @return Координаты HexCoord или null, если точка вне сетки
      */
     public HexCoord pixelToHex(Point pixelPoint) {
-        double x = pixelPoint.x;
-        double y = pixelPoint.y;
-
-        // Преобразование в кубические координаты
-        double q = (2.0 / 3 * x) / HEX_RADIUS;
-        double r = (-x / 3 + Math.sqrt(3) / 3 * y) / HEX_RADIUS;
-
-        // Округление кубических координат
-        double z = -q - r;
-        int rq = (int) Math.round(q);
-        int rr = (int) Math.round(r);
-        int rz = (int) Math.round(z);
-
-        double qDiff = Math.abs(rq - q);
-        double rDiff = Math.abs(rr - r);
-        double zDiff = Math.abs(rz - z);
-
-        if (qDiff > rDiff && qDiff > zDiff) {
-            rq = -rr - rz;
-        } else if (rDiff > zDiff) {
-            rr = -rq - rz;
-        }
-
-        // Проверка, находится ли координата в пределах сетки
-        if (rq >= 0 && rq < board.getCols() && rr >= 0 && rr < board.getRows()) {
-            return new HexCoord(rq, rr);
-        }
-        return null;
+        return geometry().pixelToHex(pixelPoint.x, pixelPoint.y);
     }
 
     /**
@@ -157,25 +507,16 @@ public class GridPanel extends JPanel {
      * @return Точка центра гексагона
      */
     public Point2D.Double hexToPixel(int q, int r) { // Изменено на public
-        double x = HEX_RADIUS * (3.0 / 2 * q);
-        double y = HEX_RADIUS * (Math.sqrt(3) * (r + q / 2.0));
-        return new Point2D.Double(x + HEX_RADIUS, y + HEX_RADIUS);
+        return geometry().center(q, r);
     }
 
     /**
-     * Создает полигон гексагона.
-     * @param center Центр гексагона
-     * @param radius Радиус гексагона
-     * @return Полигон гексагона
+     * Возвращает геометрию сетки, пересоздавая ее только при смене радиуса или размеров.
      */
-    private Polygon createHexagon(Point2D.Double center, int radius) {
-        Polygon hex = new Polygon();
-        for (int i = 0; i < 6; i++) {
-            double angle = Math.toRadians(60 * i);
-            int x = (int) (center.x + radius * Math.cos(angle));
-            int y = (int) (center.y + radius * Math.sin(angle));
-            hex.addPoint(x, y);
+    private HexGeometry geometry() {
+        if (geometry == null || !geometry.matches(radius, board.getRows(), board.getCols())) {
+            geometry = new HexGeometry(radius, board.getRows(), board.getCols());
         }
-        return hex;
+        return geometry;
     }
 }
\ No newline at end of file
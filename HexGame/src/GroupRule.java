@@ -1,7 +1,4 @@
-import java.awt.*;
-import java.awt.geom.Point2D;
 import java.util.List;
-import javax.swing.JPanel;
 
 /**
  * Правило для группы ячеек, определяющее общее количество мин в группе.
@@ -9,6 +6,7 @@ import javax.swing.JPanel;
 public class GroupRule implements Rule {
     private final List<HexCoord> cellsInGroup;
     private final int expectedGroupedMines;
+    private CompiledRule compiled; // Кэш скомпилированной формы для последнего размера доски
 
     /**
      * Конструктор.
@@ -31,54 +29,22 @@ public class GroupRule implements Rule {
     }
 
     @Override
-    public boolean isSatisfied(Board board) {
-        int mineCount = 0;
-        for (HexCoord coord : cellsInGroup) {
-            Cell cell = board.getCell(coord);
-            if (cell != null && cell.isMine()) {
-                mineCount++;
-            }
-        }
-        return mineCount == expectedGroupedMines;
+    public RuleType getType() {
+        return RuleType.GROUP;
     }
 
     @Override
-    public void draw(Graphics2D g2d, JPanel panel, Board board) {
-        g2d.setColor(new Color(0, 128, 0)); // Темно-зеленый
-        g2d.setStroke(new BasicStroke(2));
-
-        // Отрисовка контура группы
-        for (HexCoord coord : cellsInGroup) {
-            Point2D.Double center;
-            if (panel instanceof GridPanel) {
-                GridPanel gridPanel = (GridPanel) panel;
-                center = gridPanel.hexToPixel(coord.getQ(), coord.getR());
-            } else if (panel instanceof EditorGridPanel) {
-                EditorGridPanel editorGridPanel = (EditorGridPanel) panel;
-                center = editorGridPanel.hexToPixel(coord.getQ(), coord.getR());
-            } else {
-                return;
-            }
-
-            // Рисуем небольшой круг вокруг ячейки
-            g2d.drawOval((int) (center.x - 10), (int) (center.y - 10), 20, 20);
-        }
-
-        // Отрисовка числа мин в центре первой ячейки
-        if (!cellsInGroup.isEmpty()) {
-            Point2D.Double center;
-            if (panel instanceof GridPanel) {
-                GridPanel gridPanel = (GridPanel) panel;
-                center = gridPanel.hexToPixel(cellsInGroup.get(0).getQ(), cellsInGroup.get(0).getR());
-            } else if (panel instanceof EditorGridPanel) {
-                EditorGridPanel editorGridPanel = (EditorGridPanel) panel;
-                center = editorGridPanel.hexToPixel(cellsInGroup.get(0).getQ(), cellsInGroup.get(0).getR());
-            } else {
-                return;
-            }
+    public boolean isSatisfied(Board board) {
+        return compile(board.getRows(), board.getCols()).isSatisfied(board.getMinePlane());
+    }
 
-            g2d.setFont(new Font("Arial", Font.BOLD, 14));
-            g2d.drawString(String.valueOf(expectedGroupedMines), (int) center.x - 5, (int) center.y + 5);
+    @Override
+    public CompiledRule compile(int rows, int cols) {
+        CompiledRule cached = compiled;
+        if (cached == null || !cached.matches(rows, cols)) {
+            cached = RuleType.GROUP.compile(cellsInGroup, expectedGroupedMines, rows, cols);
+            compiled = cached;
         }
+        return cached;
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * Данные для правила GroupRule ({X}).
+ */
+class GroupRuleData extends RuleData {
+    private final List<HexCoord> cellsInGroup; // Ячейки в группе
+    private final int expectedGroupedMines; // Ожидаемое количество сгруппированных мин
+
+    public GroupRuleData(List<HexCoord> cellsInGroup, int expectedGroupedMines) {
+        if (cellsInGroup == null || cellsInGroup.isEmpty()) {
+            throw new IllegalArgumentException("Группа ячеек не может быть пустой");
+        }
+        if (expectedGroupedMines < 0 || expectedGroupedMines > cellsInGroup.size()) {
+            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedGroupedMines);
+        }
+        this.cellsInGroup = new ArrayList<>(cellsInGroup);
+        this.expectedGroupedMines = expectedGroupedMines;
+    }
+
+    public List<HexCoord> getCellsInGroup() {
+        return new ArrayList<>(cellsInGroup);
+    }
+
+    public int getExpectedGroupedMines() {
+        return expectedGroupedMines;
+    }
+
+    @Override
+    public RuleType getType() {
+        return RuleType.GROUP;
+    }
+
+    @Override
+    public List<HexCoord> getCells() {
+        return getCellsInGroup();
+    }
+
+    @Override
+    public int getExpectedMines() {
+        return expectedGroupedMines;
+    }
+}
\ No newline at end of file
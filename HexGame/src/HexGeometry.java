@@ -0,0 +1,238 @@
+import java.awt.Dimension;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+
+/**
+ * Геометрия гексагональной сетки для заданного радиуса и размеров.
+ * Вершины единичного гексагона и координаты центров считаются один раз
+ * при создании, поэтому отрисовка кадра сводится к сложениям и вызовам fill/draw
+ * без тригонометрии и выделения памяти на каждую ячейку.
+ * Центр ячейки (q, r): x = colX[q], y = rowY[r] + colY[q].
+ * При изменении радиуса (масштаба) или размеров сетки создается новый объект.
+ */
+public class HexGeometry {
+    private static final double SQRT3 = Math.sqrt(3);
+    private static final int STROKE_MARGIN = 2; // Запас на обводку и сглаживание, пиксели
+    private static final double[] UNIT_X = new double[6]; // Вершины единичного гексагона
+    private static final double[] UNIT_Y = new double[6];
+
+    static {
+        for (int i = 0; i < 6; i++) {
+            double angle = Math.toRadians(60 * i);
+            UNIT_X[i] = Math.cos(angle);
+            UNIT_Y[i] = Math.sin(angle);
+        }
+    }
+
+    private final int radius; // Радиус гексагона в пикселях
+    private final int rows;
+    private final int cols;
+    private final double[] vertexX = new double[6]; // Смещения вершин от центра для этого радиуса
+    private final double[] vertexY = new double[6];
+    private final double[] colX; // X центра по столбцу
+    private final double[] colY; // Сдвиг Y центра по столбцу
+    private final double[] rowY; // Y центра по строке (с отступом)
+
+    /**
+     * Конструктор.
+     * @param radius Радиус гексагона в пикселях
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     */
+    public HexGeometry(int radius, int rows, int cols) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Радиус должен быть положительным: " + radius);
+        }
+        this.radius = radius;
+        this.rows = rows;
+        this.cols = cols;
+        for (int i = 0; i < 6; i++) {
+            vertexX[i] = radius * UNIT_X[i];
+            vertexY[i] = radius * UNIT_Y[i];
+        }
+        this.colX = new double[cols];
+        this.colY = new double[cols];
+        for (int q = 0; q < cols; q++) {
+            colX[q] = radius * (3.0 / 2 * q) + radius;
+            colY[q] = radius * (SQRT3 * q / 2.0);
+        }
+        this.rowY = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            rowY[r] = radius * (SQRT3 * r) + radius;
+        }
+    }
+
+    /**
+     * Проверяет, подходит ли геометрия для заданного радиуса и размеров.
+     */
+    public boolean matches(int radius, int rows, int cols) {
+        return this.radius == radius && this.rows == rows && this.cols == cols;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return X центра ячейки в столбце q
+     */
+    public double centerX(int q) {
+        return colX[q];
+    }
+
+    /**
+     * @return Y центра ячейки (q, r)
+     */
+    public double centerY(int q, int r) {
+        return rowY[r] + colY[q];
+    }
+
+    /**
+     * Возвращает центр ячейки; допускает координаты вне сетки.
+     * @param q Координата q
+     * @param r Координата r
+     * @return Точка центра гексагона
+     */
+    public Point2D.Double center(int q, int r) {
+        if (q >= 0 && q < cols && r >= 0 && r < rows) {
+            return new Point2D.Double(colX[q], rowY[r] + colY[q]);
+        }
+        double x = radius * (3.0 / 2 * q);
+        double y = radius * (SQRT3 * (r + q / 2.0));
+        return new Point2D.Double(x + radius, y + radius);
+    }
+
+    /**
+     * Возвращает прямоугольник, покрывающий гексагон ячейки вместе с обводкой.
+     * @param q Координата q
+     * @param r Координата r
+     * @return Границы ячейки в пикселях
+     */
+    public Rectangle cellBounds(int q, int r) {
+        double x;
+        double y;
+        if (q >= 0 && q < cols && r >= 0 && r < rows) {
+            x = colX[q];
+            y = rowY[r] + colY[q];
+        } else {
+            Point2D.Double center = center(q, r);
+            x = center.x;
+            y = center.y;
+        }
+        int halfHeight = (int) Math.ceil(radius * SQRT3 / 2);
+        return new Rectangle((int) x - radius - STROKE_MARGIN, (int) y - halfHeight - STROKE_MARGIN,
+                2 * (radius + STROKE_MARGIN) + 1, 2 * (halfHeight + STROKE_MARGIN) + 1);
+    }
+
+    /**
+     * @return Первый столбец, гексагоны которого могут пересекать полосу x >= minX
+     */
+    public int firstCol(double minX) {
+        return clamp((int) Math.floor((minX - 2 * radius - STROKE_MARGIN) / (1.5 * radius)), cols);
+    }
+
+    /**
+     * @return Последний столбец, гексагоны которого могут пересекать полосу x <= maxX
+     */
+    public int lastCol(double maxX) {
+        return clamp((int) Math.ceil((maxX + STROKE_MARGIN) / (1.5 * radius)), cols);
+    }
+
+    /**
+     * @return Первая строка столбца q, гексагоны которой могут пересекать полосу y >= minY
+     */
+    public int firstRow(int q, double minY) {
+        double halfHeight = radius * SQRT3 / 2 + STROKE_MARGIN;
+        return clamp((int) Math.floor((minY - halfHeight - radius - colY[q]) / (radius * SQRT3)), rows);
+    }
+
+    /**
+     * @return Последняя строка столбца q, гексагоны которой могут пересекать полосу y <= maxY
+     */
+    public int lastRow(int q, double maxY) {
+        double halfHeight = radius * SQRT3 / 2 + STROKE_MARGIN;
+        return clamp((int) Math.ceil((maxY + halfHeight - radius - colY[q]) / (radius * SQRT3)), rows);
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    /**
+     * Записывает вершины гексагона ячейки в переиспользуемый полигон.
+     * @param q Координата q
+     * @param r Координата r
+     * @param hex Полигон, созданный newHexagon()
+     * @return Тот же полигон
+     */
+    public Polygon hexagon(int q, int r, Polygon hex) {
+        double x = colX[q];
+        double y = rowY[r] + colY[q];
+        for (int i = 0; i < 6; i++) {
+            hex.xpoints[i] = (int) (x + vertexX[i]);
+            hex.ypoints[i] = (int) (y + vertexY[i]);
+        }
+        hex.invalidate(); // Сбрасываем закэшированные границы
+        return hex;
+    }
+
+    /**
+     * @return Новый полигон из шести вершин для hexagon()
+     */
+    public static Polygon newHexagon() {
+        return new Polygon(new int[6], new int[6], 6);
+    }
+
+    /**
+     * Преобразует пиксельные координаты в координаты гексагона.
+     * @param x X в пикселях
+     * @param y Y в пикселях
+     * @return Координаты HexCoord или null, если точка вне сетки
+     */
+    public HexCoord pixelToHex(double x, double y) {
+        // Убираем отступ сетки: центр ячейки (0, 0) смещен на радиус
+        x -= radius;
+        y -= radius;
+
+        // Преобразование в кубические координаты
+        double q = (2.0 / 3 * x) / radius;
+        double r = (-x / 3 + SQRT3 / 3 * y) / radius;
+
+        // Округление кубических координат
+        double z = -q - r;
+        int rq = (int) Math.round(q);
+        int rr = (int) Math.round(r);
+        int rz = (int) Math.round(z);
+
+        double qDiff = Math.abs(rq - q);
+        double rDiff = Math.abs(rr - r);
+        double zDiff = Math.abs(rz - z);
+
+        if (qDiff > rDiff && qDiff > zDiff) {
+            rq = -rr - rz;
+        } else if (rDiff > zDiff) {
+            rr = -rq - rz;
+        }
+
+        // Проверка, находится ли координата в пределах сетки
+        if (rq >= 0 && rq < cols && rr >= 0 && rr < rows) {
+            return new HexCoord(rq, rr);
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает размер области, занимаемой сеткой. Столбцы сдвинуты вниз
+     * на половину высоты гексагона каждый, поэтому нижний край задает ячейка
+     * (cols - 1, rows - 1): ее центр плюс половина высоты и запас на обводку.
+     * @return Размер области, занимаемой сеткой
+     */
+    public Dimension getPreferredSize() {
+        int width = (int) (cols * radius * 1.5 + radius);
+        double halfHeight = radius * SQRT3 / 2;
+        double lowestCenter = radius + Math.max(0, rows - 1) * radius * SQRT3 + Math.max(0, cols - 1) * halfHeight;
+        int height = (int) Math.ceil(lowestCenter + halfHeight) + STROKE_MARGIN;
+        return new Dimension(width, height);
+    }
+}
\ No newline at end of file
@@ -1,36 +1,8 @@
 import java.util.List;
 
-/**
- * Перечисление для типа подсказки.
- */
-enum HintType {
-    MINE, // Ячейка содержит мину
-    SAFE  // Ячейка безопасна
-}
-
-/**
- * Класс для хранения результата подсказки.
- */
-class HintResult {
-    private final HexCoord coord;
-    private final HintType type;
-
-    public HintResult(HexCoord coord, HintType type) {
-        this.coord = coord;
-        this.type = type;
-    }
-
-    public HexCoord getCoord() {
-        return coord;
-    }
-
-    public HintType getType() {
-        return type;
-    }
-}
-
 /**
  * Класс для анализа состояния Board и предоставления подсказок.
+ * Анализ идет по снимку позиции (BoardSnapshot), поэтому его можно вести в фоновом потоке.
  */
 public class HintBot {
     /**
@@ -42,7 +14,15 @@ public class HintBot {
         if (board == null) {
             return null;
         }
+        return findHint(board.snapshot());
+    }
 
+    /**
+     * Находит подсказку для снимка позиции.
+     * @param board Снимок позиции
+     * @return HintResult с координатами и типом подсказки, или null, если подсказка не найдена
+     */
+    public static HintResult findHint(BoardSnapshot board) {
         // Этап 1: Простая логика "Сапёра"
         HintResult mineSweeperHint = findMineSweeperHint(board);
         if (mineSweeperHint != null) {
@@ -57,11 +37,14 @@ public class HintBot {
     /**
      * Проверяет открытые ячейки для простой логики "Сапёра".
      */
-    private static HintResult findMineSweeperHint(Board board) {
+    private static HintResult findMineSweeperHint(BoardSnapshot board) {
         for (int r = 0; r < board.getRows(); r++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null; // Фоновый поиск отменен: позиция устарела
+            }
             for (int q = 0; q < board.getCols(); q++) {
-                Cell cell = board.getCell(new HexCoord(q, r));
-                if (cell != null && cell.isRevealed() && !cell.isMine() && cell.getRevealedValue() > 0) {
+                int revealedValue = board.getRevealedValue(q, r);
+                if (revealedValue > 0) {
                     List<HexCoord> neighbors = board.getNeighbors(new HexCoord(q, r));
                     int countFlagged = 0;
                     int countHiddenUnflagged = 0;
@@ -69,25 +52,21 @@ public class HintBot {
 
                     // Подсчет флагов и скрытых не-флагованных соседей
                     for (HexCoord neighborCoord : neighbors) {
-                        Cell neighbor = board.getCell(neighborCoord);
-                        if (neighbor != null) {
-                            if (neighbor.isFlagged()) {
-                                countFlagged++;
-                            } else if (!neighbor.isRevealed()) {
-                                countHiddenUnflagged++;
-                                hiddenUnflaggedNeighbors.add(neighborCoord);
-                            }
+                        if (board.isFlagged(neighborCoord.getQ(), neighborCoord.getR())) {
+                            countFlagged++;
+                        } else if (!board.isRevealed(neighborCoord.getQ(), neighborCoord.getR())) {
+                            countHiddenUnflagged++;
+                            hiddenUnflaggedNeighbors.add(neighborCoord);
                         }
                     }
 
-                    int revealedValue = cell.getRevealedValue();
                     // Случай 1: Все оставшиеся соседи безопасны
                     if (revealedValue == countFlagged && !hiddenUnflaggedNeighbors.isEmpty()) {
-                        return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.SAFE);
+                        return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.SAFE, new HexCoord(q, r), -1);
                     }
                     // Случай 2: Все оставшиеся соседи — мины
                     if (revealedValue == countFlagged + countHiddenUnflagged && !hiddenUnflaggedNeighbors.isEmpty()) {
-                        return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.MINE);
+                        return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.MINE, new HexCoord(q, r), -1);
                     }
                 }
             }
@@ -98,79 +77,39 @@ public class HintBot {
     /**
      * Анализирует активные правила для поиска подсказки.
      */
-    private static HintResult findRuleHint(Board board) {
-        for (Rule rule : board.getActiveRules()) {
-            if (rule instanceof SequenceRule) {
-                HintResult sequenceHint = analyzeSequenceRule((SequenceRule) rule, board);
-                if (sequenceHint != null) {
-                    return sequenceHint;
-                }
-            } else if (rule instanceof GroupRule) {
-                HintResult groupHint = analyzeGroupRule((GroupRule) rule, board);
-                if (groupHint != null) {
-                    return groupHint;
-                }
-            } else if (rule instanceof EdgeRule) {
-                HintResult edgeHint = analyzeEdgeRule((EdgeRule) rule, board);
-                if (edgeHint != null) {
-                    return edgeHint;
-                }
+    private static HintResult findRuleHint(BoardSnapshot board) {
+        List<Rule> rules = board.getRules();
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null; // Фоновый поиск отменен: позиция устарела
             }
-        }
-        return null;
-    }
-
-    /**
-     * Анализирует SequenceRule для подсказки.
-     */
-    private static HintResult analyzeSequenceRule(SequenceRule rule, Board board) {
-        List<HexCoord> cells = rule.getCells();
-        int expectedMines = rule.getExpectedMines();
-        int countMinesOrFlagged = 0;
-        int countHiddenUnflagged = 0;
-        List<HexCoord> hiddenUnflaggedCells = new java.util.ArrayList<>();
-
-        // Подсчет мин/флагов и скрытых ячеек
-        for (HexCoord coord : cells) {
-            Cell cell = board.getCell(coord);
-            if (cell != null) {
-                if (cell.isMine() || cell.isFlagged()) {
-                    countMinesOrFlagged++;
-                } else if (!cell.isRevealed()) {
-                    countHiddenUnflagged++;
-                    hiddenUnflaggedCells.add(coord);
-                }
+            Rule rule = rules.get(ruleIndex);
+            // Тип правила сообщает, какие ячейки оно ограничивает
+            List<HexCoord> cells = rule.getType().constraintCells(rule, board);
+            HintResult ruleHint = analyzeConstraint(cells, rule.getExpectedMines(), ruleIndex, board);
+            if (ruleHint != null) {
+                return ruleHint;
             }
         }
-
-        // Случай 1: Все требуемые мины найдены, остальные безопасны
-        if (countMinesOrFlagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
-            return new HintResult(hiddenUnflaggedCells.get(0), HintType.SAFE);
-        }
-        // Случай 2: Все скрытые ячейки — мины
-        if (countMinesOrFlagged + countHiddenUnflagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
-            return new HintResult(hiddenUnflaggedCells.get(0), HintType.MINE);
-        }
         return null;
     }
 
     /**
-     * Анализирует GroupRule для подсказки.
+     * Анализирует ограничение "среди ячеек ровно expectedMines мин" для подсказки.
+     * Известными минами считаются только флаги: мины без флага игрок не видит,
+     * и учет их выдавал бы ответ, а не вывод.
      */
-    private static HintResult analyzeGroupRule(GroupRule rule, Board board) {
-        List<HexCoord> cells = rule.getCells();
-        int expectedMines = rule.getExpectedMines();
-        int countMinesOrFlagged = 0;
+    private static HintResult analyzeConstraint(List<HexCoord> cells, int expectedMines, int ruleIndex, BoardSnapshot board) {
+        int countFlagged = 0;
         int countHiddenUnflagged = 0;
         List<HexCoord> hiddenUnflaggedCells = new java.util.ArrayList<>();
 
-        // Подсчет мин/флагов и скрытых ячеек
+        // Подсчет флагов и скрытых ячеек
         for (HexCoord coord : cells) {
-            Cell cell = board.getCell(coord);
-            if (cell != null) {
-                if (cell.isMine() || cell.isFlagged()) {
-                    countMinesOrFlagged++;
-                } else if (!cell.isRevealed()) {
+            if (board.contains(coord)) {
+                if (board.isFlagged(coord.getQ(), coord.getR())) {
+                    countFlagged++;
+                } else if (!board.isRevealed(coord.getQ(), coord.getR())) {
                     countHiddenUnflagged++;
                     hiddenUnflaggedCells.add(coord);
                 }
@@ -178,47 +117,12 @@ public class HintBot {
         }
 
         // Случай 1: Все требуемые мины найдены, остальные безопасны
-        if (countMinesOrFlagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
-            return new HintResult(hiddenUnflaggedCells.get(0), HintType.SAFE);
+        if (countFlagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
+            return new HintResult(hiddenUnflaggedCells.get(0), HintType.SAFE, null, ruleIndex);
         }
         // Случай 2: Все скрытые ячейки — мины
-        if (countMinesOrFlagged + countHiddenUnflagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
-            return new HintResult(hiddenUnflaggedCells.get(0), HintType.MINE);
-        }
-        return null;
-    }
-
-    /**
-     * Анализирует EdgeRule для подсказки.
-     */
-    private static HintResult analyzeEdgeRule(EdgeRule rule, Board board) {
-        HexCoord cellCoord = rule.getCell();
-        int expectedMines = rule.getExpectedMines();
-        List<HexCoord> neighbors = board.getNeighbors(cellCoord);
-        int countMinesOrFlagged = 0;
-        int countHiddenUnflagged = 0;
-        List<HexCoord> hiddenUnflaggedNeighbors = new java.util.ArrayList<>();
-
-        // Подсчет мин/флагов и скрытых соседей
-        for (HexCoord neighborCoord : neighbors) {
-            Cell neighbor = board.getCell(neighborCoord);
-            if (neighbor != null) {
-                if (neighbor.isMine() || neighbor.isFlagged()) {
-                    countMinesOrFlagged++;
-                } else if (!neighbor.isRevealed()) {
-                    countHiddenUnflagged++;
-                    hiddenUnflaggedNeighbors.add(neighborCoord);
-                }
-            }
-        }
-
-        // Случай 1: Все требуемые мины найдены, остальные безопасны
-        if (countMinesOrFlagged == expectedMines && !hiddenUnflaggedNeighbors.isEmpty()) {
-            return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.SAFE);
-        }
-        // Случай 2: Все скрытые соседи — мины
-        if (countMinesOrFlagged + countHiddenUnflagged == expectedMines && !hiddenUnflaggedNeighbors.isEmpty()) {
-            return new HintResult(hiddenUnflaggedNeighbors.get(0), HintType.MINE);
+        if (countFlagged + countHiddenUnflagged == expectedMines && !hiddenUnflaggedCells.isEmpty()) {
+            return new HintResult(hiddenUnflaggedCells.get(0), HintType.MINE, null, ruleIndex);
         }
         return null;
     }
@@ -0,0 +1,36 @@
+/**
+ * Класс для хранения результата подсказки.
+ */
+class HintResult {
+    private final HexCoord coord;
+    private final HintType type;
+    private final HexCoord sourceCell; // Открытая ячейка, число которой обосновывает вывод, или null
+    private final int ruleIndex; // Индекс правила, обосновывающего вывод, или -1
+
+    public HintResult(HexCoord coord, HintType type) {
+        this(coord, type, null, -1);
+    }
+
+    public HintResult(HexCoord coord, HintType type, HexCoord sourceCell, int ruleIndex) {
+        this.coord = coord;
+        this.type = type;
+        this.sourceCell = sourceCell;
+        this.ruleIndex = ruleIndex;
+    }
+
+    public HexCoord getCoord() {
+        return coord;
+    }
+
+    public HintType getType() {
+        return type;
+    }
+
+    public HexCoord getSourceCell() {
+        return sourceCell;
+    }
+
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+}
\ No newline at end of file
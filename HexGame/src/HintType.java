@@ -0,0 +1,7 @@
+/**
+ * Перечисление для типа подсказки.
+ */
+enum HintType {
+    MINE, // Ячейка содержит мину
+    SAFE  // Ячейка безопасна
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Фоновый поиск подсказок для игрового окна.
+ * После каждого хода начинает искать подсказку для снимка текущей позиции
+ * (BoardSnapshot: копируются только плоскости открытых ячеек и флагов),
+ * чтобы к нажатию кнопки "Подсказка" ответ уже был готов.
+ * Все методы вызываются из потока обработки событий Swing.
+ */
+public class HintWorker {
+    private final ExecutorService executor; // Поток для фоновых вычислений
+    private Future<HintResult> pending; // Текущее вычисление
+    private int pendingMove; // Номер хода, для которого запущено вычисление
+
+    /**
+     * Конструктор, создающий фоновый поток-демон.
+     */
+    public HintWorker() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hint-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = null;
+        this.pendingMove = -1;
+    }
+
+    /**
+     * Сообщает о новой позиции: отменяет устаревшее вычисление и запускает новое.
+     * @param board Игровая доска после хода
+     */
+    public void positionChanged(Board board) {
+        if (pending != null && pendingMove == board.getMoveCount()) {
+            return; // Позиция не изменилась
+        }
+        cancel();
+        if (board.isGameOver()) {
+            return;
+        }
+
+        BoardSnapshot snapshot = board.snapshot(); // Фоновый поток не должен видеть изменения доски
+        pendingMove = board.getMoveCount();
+        pending = executor.submit(() -> HintBot.findHint(snapshot));
+    }
+
+    /**
+     * Возвращает подсказку для текущей позиции.
+     * Если фоновое вычисление относится к этой позиции, используется его результат
+     * (при необходимости с ожиданием), иначе подсказка считается синхронно.
+     * @param board Игровая доска
+     * @return HintResult или null, если подсказка не найдена
+     */
+    public HintResult getHint(Board board) {
+        if (pending != null && pendingMove == board.getMoveCount()) {
+            try {
+                return pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException e) {
+                // Переходим к синхронному вычислению
+            }
+        }
+        return HintBot.findHint(board);
+    }
+
+    /**
+     * Отменяет текущее фоновое вычисление.
+     */
+    public void cancel() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+            pendingMove = -1;
+        }
+    }
+
+    /**
+     * Останавливает фоновый поток.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Анализ решаемости уровня без угадывания.
+ *
+ * Моделируется игрок, который видит правила уровня и числа открытых им ячеек.
+ * Сначала открытых ячеек нет; каждая ячейка, безопасность которой доказана,
+ * открывается и добавляет ограничение "среди соседей столько-то мин".
+ * Выводы делаются в три ступени:
+ * 1. распространение ограничений: все оставшиеся ячейки правила безопасны или
+ *    все — мины (для последовательностей — перебор значений одной ячейки);
+ * 2. доказательство от противного в окрестности ячейки (не более MAX_LOCAL_CELLS
+ *    неизвестных): если противоположное значение противоречит ограничениям,
+ *    ячейка определена;
+ * 3. если ступени 1–2 застряли — ограниченный перебор по всей связной области:
+ *    противоречие определяет ячейку, а найденная другая расстановка доказывает,
+ *    что решение не единственно и игроку придется угадывать.
+ * Перебор ограничен по числу узлов, поэтому результат может быть "не установлено".
+ *
+ * Результаты доказательств ступени 2 запоминаются по описанию окрестности
+ * в относительных координатах и переиспользуются между запусками: после правки
+ * окрестности, которых она не коснулась, не перебираются заново.
+ * Объект используется одним потоком (см. AnalysisWorker).
+ */
+public class LevelAnalyzer {
+    static final int MAX_LOCAL_CELLS = 16; // Неизвестных ячеек в окрестности доказательства
+    static final int LOCAL_NODE_BUDGET = 1 << 14; // Узлов перебора на одно локальное доказательство
+    static final int GLOBAL_NODE_BUDGET = 1 << 16; // Узлов перебора на одну ячейку на ступени 3
+    static final long TOTAL_GLOBAL_BUDGET = 1L << 23; // Узлов перебора на ступени 3 за весь анализ
+    static final int MAX_GLOBAL_TRIES = 64; // Ячеек, проверяемых на ступени 3 за одну остановку
+    private static final int MEMO_CAPACITY = 1 << 15; // Запоминаемых доказательств
+
+    // Доказательства ступени 2: true — противоположное значение невозможно
+    private final Map<NeighborhoodKey, Boolean> memo = new LinkedHashMap<NeighborhoodKey, Boolean>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<NeighborhoodKey, Boolean> eldest) {
+            return size() > MEMO_CAPACITY;
+        }
+    };
+    private long memoHits; // Доказательств, взятых из памяти (для отладки и замеров)
+
+    /**
+     * Анализирует уровень.
+     * @param rows Количество строк
+     * @param cols Количество столбцов
+     * @param mines Расстановка мин (не изменяется)
+     * @param rules Правила уровня
+     * @return Результат анализа или null, если поток прерван
+     */
+    public AnalysisResult analyze(int rows, int cols, BitPlane mines, List<RuleData> rules) {
+        int unsatisfied = 0;
+        for (RuleData rule : rules) {
+            if (!rule.getType().compile(rule, rows, cols).isSatisfied(mines)) {
+                unsatisfied++;
+            }
+        }
+        if (unsatisfied > 0) {
+            // Выводы опираются на то, что правила верны для расстановки мин
+            return new AnalysisResult(LevelVerdict.INCONSISTENT, null, 0, unsatisfied);
+        }
+
+        return prepare(rows, cols, mines, rules).run();
+    }
+
+    /**
+     * Создает анализ с ограничениями правил, но без выводов.
+     * Правила должны выполняться для расстановки мин.
+     */
+    Analysis prepare(int rows, int cols, BitPlane mines, List<RuleData> rules) {
+        Analysis analysis = new Analysis(this, rows, cols, mines);
+        for (RuleData rule : rules) {
+            rule.getType().addConstraint(analysis, rule.getCells(), rule.getExpectedMines());
+        }
+        return analysis;
+    }
+
+    long getMemoHits() {
+        return memoHits;
+    }
+
+    Boolean recall(NeighborhoodKey key) {
+        Boolean forced = memo.get(key);
+        if (forced != null) {
+            memoHits++;
+        }
+        return forced;
+    }
+
+    void remember(NeighborhoodKey key, boolean forced) {
+        memo.put(key, forced);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш разобранных уровней.
+ * Ключ — путь к файлу; запись действительна, пока у файла не изменились
+ * время модификации и размер. Уровни в кэше заморожены (LevelConfig.freeze()),
+ * поэтому один экземпляр разделяется между меню, редактором и повторными запусками.
+ * Объем кэша ограничен суммарным количеством ячеек уровней; при превышении
+ * вытесняются давно не использованные уровни (LRU).
+ */
+public class LevelCache {
+    private static final long DEFAULT_MAX_CELLS = 4_000_000L; // Ограничение по умолчанию (в ячейках)
+    private static final LevelCache SHARED = new LevelCache(DEFAULT_MAX_CELLS);
+
+    private final long maxCells; // Максимальное суммарное количество ячеек
+    private final LinkedHashMap<String, CachedLevel> levels = new LinkedHashMap<>(16, 0.75f, true); // Порядок доступа для LRU
+    private long totalCells; // Текущее суммарное количество ячеек
+
+    /**
+     * Запись кэша: уровень и состояние файла, из которого он прочитан.
+     */
+    private static final class CachedLevel {
+        final LevelConfig config;
+        final FileTime modified;
+        final long size;
+
+        CachedLevel(LevelConfig config, FileTime modified, long size) {
+            this.config = config;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        long cells() {
+            return (long) config.getRows() * config.getCols();
+        }
+    }
+
+    /**
+     * Конструктор.
+     * @param maxCells Максимальное суммарное количество ячеек уровней в кэше
+     * @throws IllegalArgumentException если maxCells < 0
+     */
+    public LevelCache(long maxCells) {
+        if (maxCells < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным: " + maxCells);
+        }
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Возвращает общий кэш приложения.
+     * @return Общий кэш уровней
+     */
+    public static LevelCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Загружает уровень через кэш. Если файл не менялся с прошлой загрузки,
+     * возвращается тот же экземпляр без чтения файла.
+     * @param filePath Путь к файлу уровня (в том числе псевдопуть архива "архив.hexp#номер")
+     * @return Замороженный объект LevelConfig; для изменения используйте copy()
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат файла некорректен
+     */
+    public LevelConfig load(String filePath) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(sourceFile(filePath), BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+        String key = keyOf(filePath);
+
+        synchronized (this) {
+            CachedLevel cached = levels.get(key);
+            if (cached != null && cached.size == attributes.size() && cached.modified.equals(attributes.lastModifiedTime())) {
+                return cached.config;
+            }
+        }
+
+        // Разбор выполняется вне блокировки, чтобы не задерживать другие потоки
+        LevelConfig config = LevelFile.loadLevelFromFile(filePath).freeze();
+        put(key, new CachedLevel(config, attributes.lastModifiedTime(), attributes.size()));
+        return config;
+    }
+
+    /**
+     * Удаляет уровень из кэша (например, после сохранения файла редактором).
+     * @param filePath Путь к файлу уровня
+     */
+    public synchronized void invalidate(String filePath) {
+        CachedLevel removed = levels.remove(keyOf(filePath));
+        if (removed != null) {
+            totalCells -= removed.cells();
+        }
+    }
+
+    /**
+     * Очищает кэш.
+     */
+    public synchronized void clear() {
+        levels.clear();
+        totalCells = 0;
+    }
+
+    /**
+     * @return Суммарное количество ячеек уровней в кэше
+     */
+    public synchronized long getTotalCells() {
+        return totalCells;
+    }
+
+    /**
+     * @return Количество уровней в кэше
+     */
+    public synchronized int size() {
+        return levels.size();
+    }
+
+    /**
+     * Добавляет запись и вытесняет давно не использованные уровни сверх ограничения.
+     */
+    private synchronized void put(String key, CachedLevel level) {
+        if (level.cells() > maxCells) {
+            return; // Уровень больше всего кэша: не кэшируем и не вытесняем остальные
+        }
+        CachedLevel previous = levels.put(key, level);
+        if (previous != null) {
+            totalCells -= previous.cells();
+        }
+        totalCells += level.cells();
+
+        Iterator<Map.Entry<String, CachedLevel>> eldest = levels.entrySet().iterator();
+        while (totalCells > maxCells && eldest.hasNext()) {
+            CachedLevel evicted = eldest.next().getValue();
+            eldest.remove();
+            totalCells -= evicted.cells();
+        }
+    }
+
+    /**
+     * Возвращает файл, по которому проверяется актуальность записи
+     * (для уровня из архива — сам архив).
+     */
+    static Path sourceFile(String filePath) {
+        if (LevelPack.isPackPath(filePath)) {
+            return Paths.get(filePath.substring(0, filePath.lastIndexOf(LevelPack.ID_SEPARATOR)));
+        }
+        return Paths.get(filePath);
+    }
+
+    /**
+     * Нормализует путь, чтобы разные записи одного файла попадали в одну запись кэша.
+     */
+    private static String keyOf(String filePath) {
+        if (LevelPack.isPackPath(filePath)) {
+            int separator = filePath.lastIndexOf(LevelPack.ID_SEPARATOR);
+            return sourceFile(filePath).toAbsolutePath().normalize().toString() + filePath.substring(separator);
+        }
+        return Paths.get(filePath).toAbsolutePath().normalize().toString();
+    }
+}
\ No newline at end of file
@@ -8,8 +8,11 @@ import java.util.ArrayList;
 public class LevelConfig {
     private int rows; // Количество строк сетки
     private int cols; // Количество столбцов сетки
-    private List<HexCoord> mineCoordinates; // Координаты мин
+    private volatile List<HexCoord> mineCoordinates; // Координаты мин (строятся по плоскости по запросу)
+    private volatile BitPlane minePlane; // Мины в упакованном виде (строится по запросу)
     private List<RuleData> ruleDataList; // Данные для создания правил
+    private boolean frozen; // Конфигурация неизменяема (разделяется через LevelCache)
+    private volatile byte[] levelHash; // Хэш замороженной конфигурации для GameCheckpoint
 
     /**
      * Конструктор, инициализирующий конфигурацию уровня.
@@ -20,9 +23,7 @@ public class LevelConfig {
      * @throws IllegalArgumentException если входные данные недопустимы
      */
     public LevelConfig(int rows, int cols, List<HexCoord> mineCoordinates, List<RuleData> ruleDataList) {
-        if (rows <= 0 || cols <= 0) {
-            throw new IllegalArgumentException("Размеры сетки должны быть положительными: rows=" + rows + ", cols=" + cols);
-        }
+        BitPlane.cellCount(rows, cols); // Положительные размеры, и количество ячеек помещается в int
         if (mineCoordinates == null) {
             throw new IllegalArgumentException("Список координат мин не может быть null");
         }
@@ -35,6 +36,53 @@ public class LevelConfig {
         this.ruleDataList = new ArrayList<>(ruleDataList); // Копия для защиты
     }
 
+    /**
+     * Конструктор для декодера, у которого мины уже разложены в битовую плоскость.
+     * Плоскость сохраняется без копирования и остается единственным хранилищем мин:
+     * ее использует доска, а список координат строится, только если его запросят.
+     */
+    LevelConfig(int rows, int cols, BitPlane minePlane, List<RuleData> ruleDataList) {
+        if (minePlane.getRows() != rows || minePlane.getCols() != cols) {
+            throw new IllegalArgumentException("Размеры плоскости мин не совпадают с уровнем " + rows + "x" + cols);
+        }
+        if (ruleDataList == null) {
+            throw new IllegalArgumentException("Список данных правил не может быть null");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.minePlane = minePlane;
+        this.ruleDataList = new ArrayList<>(ruleDataList); // Копия для защиты
+    }
+
+    /**
+     * Делает конфигурацию неизменяемой: после вызова все сеттеры бросают IllegalStateException.
+     * Такие конфигурации можно безопасно разделять между окнами и потоками.
+     * @return Эта же конфигурация
+     */
+    public LevelConfig freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Проверяет, заморожена ли конфигурация.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Создает изменяемую копию конфигурации (данные правил неизменяемы и разделяются).
+     * @return Новая конфигурация
+     */
+    public LevelConfig copy() {
+        List<HexCoord> coords = mineCoordinates;
+        LevelConfig copy = coords != null ? new LevelConfig(rows, cols, coords, ruleDataList)
+                : new LevelConfig(rows, cols, minePlane, ruleDataList);
+        copy.minePlane = minePlane; // Плоскость не изменяется, при изменении копии она сбрасывается
+        return copy;
+    }
+
     // Геттеры
     /**
      * Возвращает количество строк.
@@ -54,7 +102,34 @@ public class LevelConfig {
      * Возвращает список координат мин.
      */
     public List<HexCoord> getMines() {
-        return new ArrayList<>(mineCoordinates); // Копия для защиты
+        return new ArrayList<>(coordinates()); // Копия для защиты
+    }
+
+    /**
+     * Возвращает список координат мин без копирования, строя его по плоскости,
+     * если конфигурация создана декодером. Список не изменяется ни здесь, ни снаружи.
+     */
+    private List<HexCoord> coordinates() {
+        List<HexCoord> coords = mineCoordinates;
+        if (coords == null) {
+            coords = minePlane.toCoords();
+            mineCoordinates = coords;
+        }
+        return coords;
+    }
+
+    /**
+     * Возвращает расположение мин в упакованном виде.
+     * Плоскость не копируется и не должна изменяться вызывающим кодом.
+     * @return BitPlane мин
+     */
+    public BitPlane getMinePlane() {
+        BitPlane plane = minePlane;
+        if (plane == null) {
+            plane = BitPlane.fromCoords(rows, cols, mineCoordinates);
+            minePlane = plane;
+        }
+        return plane;
     }
 
     /**
@@ -68,136 +143,85 @@ public class LevelConfig {
     /**
      * Устанавливает количество строк.
      * @param rows Новое количество строк
-     * @throws IllegalArgumentException если rows <= 0
+     * @throws IllegalArgumentException если rows <= 0 или сетка слишком велика
+     * @throws IllegalStateException если конфигурация заморожена
      */
     public void setRows(int rows) {
+        checkNotFrozen();
         if (rows <= 0) {
             throw new IllegalArgumentException("Количество строк должно быть положительным");
         }
+        BitPlane.cellCount(rows, cols);
+        this.mineCoordinates = coordinates(); // Плоскость перестраивается по координатам
         this.rows = rows;
+        this.minePlane = null;
     }
 
     /**
      * Устанавливает количество столбцов.
      * @param cols Новое количество столбцов
-     * @throws IllegalArgumentException если cols <= 0
+     * @throws IllegalArgumentException если cols <= 0 или сетка слишком велика
+     * @throws IllegalStateException если конфигурация заморожена
      */
     public void setCols(int cols) {
+        checkNotFrozen();
         if (cols <= 0) {
             throw new IllegalArgumentException("Количество столбцов должно быть положительным");
         }
+        BitPlane.cellCount(rows, cols);
+        this.mineCoordinates = coordinates(); // Плоскость перестраивается по координатам
         this.cols = cols;
+        this.minePlane = null;
     }
 
     /**
      * Устанавливает список координат мин.
      * @param mineCoordinates Новый список координат мин
      * @throws IllegalArgumentException если mineCoordinates null
+     * @throws IllegalStateException если конфигурация заморожена
      */
     public void setMineCoordinates(List<HexCoord> mineCoordinates) {
+        checkNotFrozen();
         if (mineCoordinates == null) {
             throw new IllegalArgumentException("Список координат мин не может быть null");
         }
         this.mineCoordinates = new ArrayList<>(mineCoordinates);
+        this.minePlane = null;
     }
 
     /**
      * Устанавливает список данных для правил.
      * @param ruleDataList Новый список данных для правил
      * @throws IllegalArgumentException если ruleDataList null
+     * @throws IllegalStateException если конфигурация заморожена
      */
     public void setRuleDataList(List<RuleData> ruleDataList) {
+        checkNotFrozen();
         if (ruleDataList == null) {
             throw new IllegalArgumentException("Список данных правил не может быть null");
         }
         this.ruleDataList = new ArrayList<>(ruleDataList);
     }
-}
 
-/**
- * Абстрактный базовый класс для данных правил.
- */
-abstract class RuleData {
-    // Пустой базовый класс для полиморфизма
-}
-
-/**
- * Данные для правила SequenceRule (-X-).
- */
-class SequenceRuleData extends RuleData {
-    private final List<HexCoord> cellsInSequence; // Ячейки в последовательности
-    private final int expectedConsecutiveMines; // Ожидаемое количество смежных мин
-
-    public SequenceRuleData(List<HexCoord> cellsInSequence, int expectedConsecutiveMines) {
-        if (cellsInSequence == null || cellsInSequence.isEmpty()) {
-            throw new IllegalArgumentException("Последовательность ячеек не может быть пустой");
-        }
-        if (expectedConsecutiveMines < 0 || expectedConsecutiveMines > cellsInSequence.size()) {
-            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedConsecutiveMines);
-        }
-        this.cellsInSequence = new ArrayList<>(cellsInSequence);
-        this.expectedConsecutiveMines = expectedConsecutiveMines;
-    }
-
-    public List<HexCoord> getCellsInSequence() {
-        return new ArrayList<>(cellsInSequence);
-    }
-
-    public int getExpectedConsecutiveMines() {
-        return expectedConsecutiveMines;
+    /**
+     * Возвращает запомненный хэш уровня (см. GameCheckpoint.levelHash).
+     */
+    byte[] getCachedHash() {
+        return levelHash;
     }
-}
 
-/**
- * Данные для правила GroupRule ({X}).
- */
-class GroupRuleData extends RuleData {
-    private final List<HexCoord> cellsInGroup; // Ячейки в группе
-    private final int expectedGroupedMines; // Ожидаемое количество сгруппированных мин
-
-    public GroupRuleData(List<HexCoord> cellsInGroup, int expectedGroupedMines) {
-        if (cellsInGroup == null || cellsInGroup.isEmpty()) {
-            throw new IllegalArgumentException("Группа ячеек не может быть пустой");
-        }
-        if (expectedGroupedMines < 0 || expectedGroupedMines > cellsInGroup.size()) {
-            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedGroupedMines);
+    /**
+     * Запоминает хэш уровня. Хэш запоминается только для замороженной конфигурации.
+     */
+    void setCachedHash(byte[] hash) {
+        if (frozen) {
+            levelHash = hash;
         }
-        this.cellsInGroup = new ArrayList<>(cellsInGroup);
-        this.expectedGroupedMines = expectedGroupedMines;
-    }
-
-    public List<HexCoord> getCellsInGroup() {
-        return new ArrayList<>(cellsInGroup);
-    }
-
-    public int getExpectedGroupedMines() {
-        return expectedGroupedMines;
     }
-}
 
-/**
- * Данные для правила EdgeRule (число на границе).
- */
-class EdgeRuleData extends RuleData {
-    private final HexCoord cellCoord; // Координаты ячейки
-    private final int expectedNeighborMines; // Ожидаемое количество мин среди соседей
-
-    public EdgeRuleData(HexCoord cellCoord, int expectedNeighborMines) {
-        if (cellCoord == null) {
-            throw new IllegalArgumentException("Координаты ячейки не могут быть null");
-        }
-        if (expectedNeighborMines < 0 || expectedNeighborMines > 6) {
-            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedNeighborMines);
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Конфигурация уровня заморожена, измените ее копию (copy())");
         }
-        this.cellCoord = cellCoord;
-        this.expectedNeighborMines = expectedNeighborMines;
-    }
-
-    public HexCoord getCellCoord() {
-        return cellCoord;
-    }
-
-    public int getExpectedNeighborMines() {
-        return expectedNeighborMines;
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Замер пропускной способности сохранения и загрузки уровней.
+ * Генерирует случайный уровень заданного размера, сохраняет и загружает его
+ * в текстовом и двоичном форматах и проверяет, что данные совпадают.
+ *
+ * Запуск: java LevelFileBenchmark [размер_стороны] [повторы]
+ */
+public class LevelFileBenchmark {
+    /**
+     * Точка входа.
+     * @param args Размер стороны сетки (по умолчанию 500) и количество повторов (по умолчанию 5)
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        LevelConfig config = generateLevel(size, new Random(42));
+        System.out.println("Уровень " + size + "x" + size + ": мин " + config.getMines().size()
+                + ", правил " + config.getRuleDataList().size());
+
+        Path directory = Files.createTempDirectory("hexgame-bench");
+        try {
+            measure(config, directory.resolve("level.txt").toString(), repeats);
+            measure(config, directory.resolve("level" + BinaryLevelFile.EXTENSION).toString(), repeats);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Сравнивает правила целиком: тип, ячейки по порядку и ожидаемое количество.
+     */
+    private static boolean sameRules(List<RuleData> loaded, List<RuleData> expected) {
+        if (loaded.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            RuleData a = loaded.get(i);
+            RuleData b = expected.get(i);
+            if (a.getType() != b.getType() || a.getExpectedMines() != b.getExpectedMines()
+                    || !a.getCells().equals(b.getCells())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Замеряет сохранение и загрузку одного формата (формат выбирается по расширению).
+     */
+    private static void measure(LevelConfig config, String filePath, int repeats) throws IOException {
+        long bestSave = Long.MAX_VALUE;
+        long bestLoad = Long.MAX_VALUE;
+        LevelConfig loaded = null;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            LevelFile.saveLevelToFile(config, filePath);
+            long saved = System.nanoTime();
+            loaded = LevelFile.loadLevelFromFile(filePath);
+            long end = System.nanoTime();
+            bestSave = Math.min(bestSave, saved - start);
+            bestLoad = Math.min(bestLoad, end - saved);
+        }
+
+        boolean same = loaded.getMines().equals(config.getMines())
+                && sameRules(loaded.getRuleDataList(), config.getRuleDataList());
+        double megabytes = Files.size(Path.of(filePath)) / (1024.0 * 1024.0);
+        System.out.printf("%-12s %8.2f МБ  запись %8.1f МБ/с  чтение %8.1f МБ/с  совпадает: %s%n",
+                filePath.substring(filePath.lastIndexOf('.')), megabytes,
+                megabytes / (bestSave / 1e9), megabytes / (bestLoad / 1e9), same);
+    }
+
+    /**
+     * Генерирует случайный уровень: около 20% мин и правила всех типов.
+     */
+    static LevelConfig generateLevel(int size, Random random) {
+        List<HexCoord> mines = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            for (int q = 0; q < size; q++) {
+                if (random.nextInt(5) == 0) {
+                    mines.add(new HexCoord(q, r));
+                }
+            }
+        }
+
+        List<RuleData> rules = new ArrayList<>();
+        for (int i = 0; i < size * size / 10; i++) {
+            int q = random.nextInt(size);
+            int r = random.nextInt(size);
+            switch (i % 3) {
+                case 0:
+                    rules.add(new EdgeRuleData(new HexCoord(q, r), random.nextInt(7)));
+                    break;
+                case 1:
+                case 2:
+                    List<HexCoord> cells = new ArrayList<>();
+                    for (int j = 0; j < 5 && q + j < size; j++) {
+                        cells.add(new HexCoord(q + j, r));
+                    }
+                    int expected = random.nextInt(cells.size() + 1);
+                    rules.add(i % 3 == 1 ? new GroupRuleData(cells, expected) : new SequenceRuleData(cells, expected));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new LevelConfig(size, size, mines, rules);
+    }
+}
\ No newline at end of file
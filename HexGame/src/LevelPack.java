@@ -0,0 +1,349 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Архив уровней (.hexp): один файл с индексом в заголовке и телами уровней
+ * в двоичном формате BinaryLevelFile.
+ *
+ * Формат (big-endian):
+ * int    магическое число "HEXP"
+ * short  версия формата
+ * short  флаги (зарезервировано, 0)
+ * int    количество уровней
+ * записи индекса по ENTRY_SIZE байт:
+ *        long смещение тела, int длина тела, int rows, int cols,
+ *        int количество мин, float сложность (плотность мин), int CRC32 тела
+ * тела уровней подряд
+ *
+ * Список уровней строится только по индексу, без разбора тел.
+ * Уровень загружается по номеру одним позиционным чтением тела.
+ * Уровень из архива адресуется псевдопутем "архив.hexp#номер",
+ * который понимает LevelFile.loadLevelFromFile.
+ */
+public class LevelPack {
+    public static final String EXTENSION = ".hexp"; // Расширение архивов уровней
+    public static final char ID_SEPARATOR = '#'; // Разделитель пути архива и номера уровня
+    private static final int MAGIC = 0x48455850; // "HEXP"
+    private static final short VERSION = 1; // Текущая версия формата
+    private static final int HEADER_SIZE = 12; // Размер заголовка без индекса
+    private static final int ENTRY_SIZE = 32; // Размер одной записи индекса
+
+    private static volatile LevelPack lastOpened; // Последний открытый по псевдопути архив
+
+    private final String filePath; // Путь к файлу архива
+    private final List<Entry> entries; // Индекс уровней
+    private final long fileSize; // Размер файла при чтении индекса
+    private final FileTime modified; // Время изменения файла при чтении индекса
+
+    /**
+     * Запись индекса: положение тела уровня и его метаданные.
+     */
+    public static final class Entry {
+        private final int id;
+        private final long offset;
+        private final int length;
+        private final int rows;
+        private final int cols;
+        private final int mineCount;
+        private final float difficulty;
+        private final int checksum;
+
+        Entry(int id, long offset, int length, int rows, int cols, int mineCount, float difficulty, int checksum) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+            this.rows = rows;
+            this.cols = cols;
+            this.mineCount = mineCount;
+            this.difficulty = difficulty;
+            this.checksum = checksum;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public int getMineCount() {
+            return mineCount;
+        }
+
+        /**
+         * @return Доля ячеек с минами (от 0 до 1)
+         */
+        public float getDifficulty() {
+            return difficulty;
+        }
+
+        public int getChecksum() {
+            return checksum;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Уровень %d (%dx%d, мин %d, плотность %.0f%%)",
+                    id + 1, rows, cols, mineCount, difficulty * 100);
+        }
+    }
+
+    private LevelPack(String filePath, List<Entry> entries, long fileSize, FileTime modified) {
+        this.filePath = filePath;
+        this.entries = Collections.unmodifiableList(entries);
+        this.fileSize = fileSize;
+        this.modified = modified;
+    }
+
+    /**
+     * Открывает архив и читает его индекс. Тела уровней не читаются.
+     * @param filePath Путь к файлу архива
+     * @return Архив уровней
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат файла некорректен
+     */
+    public static LevelPack open(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            FileTime modified = Files.getLastModifiedTime(path);
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Файл не является архивом уровней: " + filePath);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия архива: " + version);
+            }
+            header.getShort(); // Флаги
+            int count = header.getInt();
+            long indexEnd = HEADER_SIZE + (long) count * ENTRY_SIZE;
+            if (count < 0 || indexEnd > channel.size() || indexEnd - HEADER_SIZE > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Некорректное количество уровней в архиве: " + count);
+            }
+
+            ByteBuffer index = readFully(channel, HEADER_SIZE, (int) (indexEnd - HEADER_SIZE));
+            List<Entry> entries = new ArrayList<>(count);
+            for (int id = 0; id < count; id++) {
+                Entry entry = new Entry(id, index.getLong(), index.getInt(), index.getInt(), index.getInt(),
+                        index.getInt(), index.getFloat(), index.getInt());
+                if (entry.offset < indexEnd || entry.length < 0 || entry.offset + entry.length > channel.size()) {
+                    throw new IllegalArgumentException("Запись индекса вне архива: уровень " + id);
+                }
+                entries.add(entry);
+            }
+            return new LevelPack(filePath, entries, channel.size(), modified);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * @return Путь к файлу архива
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * @return Неизменяемый индекс уровней
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return Количество уровней в архиве
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Возвращает псевдопуть уровня для LevelFile.loadLevelFromFile.
+     * @param id Номер уровня
+     * @return Путь вида "архив.hexp#номер"
+     */
+    public String pathOf(int id) {
+        return filePath + ID_SEPARATOR + id;
+    }
+
+    /**
+     * Загружает уровень по номеру одним позиционным чтением и проверяет контрольную сумму.
+     * @param id Номер уровня
+     * @return Объект LevelConfig
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если номер неверен или тело уровня повреждено
+     */
+    public LevelConfig load(int id) throws IOException {
+        if (id < 0 || id >= entries.size()) {
+            throw new IllegalArgumentException("Нет уровня с номером " + id + " в архиве " + filePath);
+        }
+        Entry entry = entries.get(id);
+        ByteBuffer body;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            body = readFully(channel, entry.offset, entry.length);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != entry.checksum) {
+            throw new IllegalArgumentException("Контрольная сумма уровня " + id + " не совпадает");
+        }
+        return BinaryLevelFile.decode(body);
+    }
+
+    /**
+     * Проверяет, является ли путь псевдопутем уровня в архиве.
+     * @param path Путь к уровню
+     * @return true, если путь имеет вид "архив.hexp#номер"
+     */
+    public static boolean isPackPath(String path) {
+        int separator = path.lastIndexOf(ID_SEPARATOR);
+        return separator > 0 && path.startsWith(EXTENSION, separator - EXTENSION.length());
+    }
+
+    /**
+     * Загружает уровень по псевдопути "архив.hexp#номер".
+     * @param path Псевдопуть уровня
+     * @return Объект LevelConfig
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если путь или архив некорректны
+     */
+    public static LevelConfig loadLevel(String path) throws IOException {
+        int separator = path.lastIndexOf(ID_SEPARATOR);
+        int id;
+        try {
+            id = Integer.parseInt(path.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный номер уровня в пути: " + path);
+        }
+        String packPath = path.substring(0, separator);
+
+        // Индекс переиспользуется, пока файл архива не изменился
+        LevelPack pack = lastOpened;
+        if (pack == null || !pack.isCurrent(packPath)) {
+            pack = open(packPath);
+            lastOpened = pack;
+        }
+        return pack.load(id);
+    }
+
+    /**
+     * Проверяет, что индекс прочитан из того же файла и файл с тех пор не менялся.
+     */
+    private boolean isCurrent(String packPath) throws IOException {
+        Path path = Paths.get(packPath);
+        return filePath.equals(packPath) && Files.isRegularFile(path)
+                && Files.size(path) == fileSize && Files.getLastModifiedTime(path).equals(modified);
+    }
+
+    /**
+     * Записывает архив из набора уровней.
+     * @param levels Уровни в порядке номеров
+     * @param filePath Путь к файлу архива
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static void write(List<LevelConfig> levels, String filePath) throws IOException {
+        List<byte[]> bodies = new ArrayList<>(levels.size());
+        for (LevelConfig level : levels) {
+            bodies.add(BinaryLevelFile.encode(level));
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath))))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(levels.size());
+
+            long offset = HEADER_SIZE + (long) levels.size() * ENTRY_SIZE;
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < levels.size(); i++) {
+                LevelConfig level = levels.get(i);
+                byte[] body = bodies.get(i);
+                int mineCount = level.getMinePlane().cardinality();
+                crc.reset();
+                crc.update(body);
+
+                out.writeLong(offset);
+                out.writeInt(body.length);
+                out.writeInt(level.getRows());
+                out.writeInt(level.getCols());
+                out.writeInt(mineCount);
+                out.writeFloat((float) mineCount / ((long) level.getRows() * level.getCols()));
+                out.writeInt((int) crc.getValue());
+                offset += body.length;
+            }
+            for (byte[] body : bodies) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            throw new IOException("Не удалось записать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * Читает ровно length байт начиная с позиции position.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("Архив уровней обрезан");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Сборка и просмотр архивов из командной строки.
+     * @param args create архив.hexp уровень1 [уровень2 ...] | list архив.hexp
+     */
+    public static void main(String[] args) {
+        boolean create = args.length >= 3 && args[0].equals("create");
+        boolean list = args.length == 2 && args[0].equals("list");
+        if (!create && !list) {
+            System.err.println("Использование: java LevelPack create архив.hexp уровень1 [уровень2 ...]");
+            System.err.println("               java LevelPack list архив.hexp");
+            System.exit(1);
+        }
+        try {
+            if (create) {
+                List<LevelConfig> levels = new ArrayList<>();
+                for (int i = 2; i < args.length; i++) {
+                    levels.add(LevelFile.loadLevelFromFile(args[i]));
+                }
+                write(levels, args[1]);
+                System.out.println(args[1] + ": уровней " + levels.size());
+            } else {
+                for (Entry entry : open(args[1]).getEntries()) {
+                    System.out.println(entry);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
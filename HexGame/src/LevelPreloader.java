@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Фоновая подготовка уровней, которые игрок, скорее всего, выберет следующими.
+ * Пока меню простаивает, уровень загружается через LevelCache, по нему строится
+ * доска (правила компилируются и проверяются, счетчики соседей считаются заранее)
+ * и считается хэш уровня для автосохранения. При нажатии кнопки готовая доска
+ * отдается без задержки.
+ * Если доска не готова или подготовка не удалась, уровень строится синхронно.
+ * Все методы вызываются из потока обработки событий Swing.
+ */
+public class LevelPreloader {
+    private static final int THREADS = 2; // Количество фоновых потоков
+    private static final int MAX_PREPARED = 4; // Сколько досок держать наготове
+    private static final LevelPreloader SHARED = new LevelPreloader();
+
+    private final ExecutorService executor; // Потоки для фоновой подготовки
+    private final LinkedHashMap<String, Future<PreparedLevel>> prepared = new LinkedHashMap<>(); // Подготовка по пути уровня
+
+    /**
+     * Подготовленный уровень: доска и состояние файла (размер и время изменения),
+     * снятое до загрузки уровня.
+     */
+    private static final class PreparedLevel {
+        final Board board;
+        final BasicFileAttributes stamp;
+
+        PreparedLevel(Board board, BasicFileAttributes stamp) {
+            this.board = board;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Проверяет, что файл не менялся с подготовки.
+         * Сравнивается состояние файла, а не экземпляр из LevelCache:
+         * уровни больше кэша не кэшируются, и каждая загрузка дает новый экземпляр.
+         */
+        boolean isFresh(String filePath) throws IOException {
+            BasicFileAttributes current = stat(filePath);
+            return current.size() == stamp.size() && current.lastModifiedTime().equals(stamp.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Конструктор, создающий фоновые потоки-демоны.
+     */
+    public LevelPreloader() {
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "level-preloader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // Не мешаем отрисовке интерфейса
+            return thread;
+        });
+    }
+
+    /**
+     * Возвращает общий загрузчик приложения (меню пересоздается при каждом возврате).
+     * @return Общий загрузчик
+     */
+    public static LevelPreloader getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Запускает фоновую подготовку уровня, если она еще не запущена.
+     * Лишние подготовленные доски сверх MAX_PREPARED отбрасываются, начиная с самых старых.
+     * @param filePath Путь к файлу уровня
+     */
+    public void preload(String filePath) {
+        if (prepared.containsKey(filePath)) {
+            return;
+        }
+        prepared.put(filePath, executor.submit(() -> prepare(filePath)));
+
+        Iterator<Map.Entry<String, Future<PreparedLevel>>> eldest = prepared.entrySet().iterator();
+        while (prepared.size() > MAX_PREPARED) {
+            eldest.next().getValue().cancel(true);
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Забирает готовую доску для уровня. Доска отдается один раз.
+     * Если подготовка еще идет, дожидается ее: она уже начата и закончится раньше,
+     * чем новая загрузка. Если уровня нет в подготовке, подготовка не удалась или
+     * файл изменился после нее, доска строится синхронно.
+     * @param filePath Путь к файлу уровня
+     * @return Доска с инициализированным уровнем
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат уровня некорректен
+     */
+    public Board take(String filePath) throws IOException {
+        Future<PreparedLevel> future = prepared.remove(filePath);
+        if (future != null) {
+            try {
+                PreparedLevel level = future.get();
+                if (level.isFresh(filePath)) {
+                    return level.board;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException | ExecutionException e) {
+                // Повторяем синхронно, чтобы ошибка дошла до вызывающего кода
+            }
+        }
+        return prepare(filePath).board;
+    }
+
+    /**
+     * Отменяет всю фоновую подготовку.
+     */
+    public void cancelAll() {
+        for (Future<PreparedLevel> future : prepared.values()) {
+            future.cancel(true);
+        }
+        prepared.clear();
+    }
+
+    /**
+     * Загружает уровень и строит по нему доску.
+     */
+    private static PreparedLevel prepare(String filePath) throws IOException {
+        BasicFileAttributes stamp = stat(filePath); // До загрузки: изменение во время загрузки не пройдет проверку
+        LevelConfig config = LevelCache.getShared().load(filePath);
+        Board board = new Board(config.getRows(), config.getCols());
+        board.initializeLevel(config);
+        GameCheckpoint.levelHash(config); // Нужен автосохранению; для замороженной конфигурации запоминается
+        return new PreparedLevel(board, stamp);
+    }
+
+    /**
+     * Читает состояние файла уровня (для уровня из архива — самого архива).
+     */
+    private static BasicFileAttributes stat(String filePath) throws IOException {
+        try {
+            return Files.readAttributes(LevelCache.sourceFile(filePath), BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+    }
+}
\ No newline at end of file
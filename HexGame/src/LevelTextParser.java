@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый разборщик текстового формата уровня (ROWS/COLS/MINES/RULES).
+ * Читает данные через буфер фиксированного размера и разбирает числа прямо
+ * в буфере, не создавая строк для строк файла и отдельных токенов.
+ * Запятая считается разделителем наравне с пробелом, поэтому координаты
+ * можно записывать как "q r", так и "q,r".
+ * Ошибки сообщаются с точным номером строки и столбца.
+ */
+public class LevelTextParser {
+    private static final int BUFFER_SIZE = 8192; // Размер буфера чтения
+    private static final int MAX_KEYWORD = 16; // Максимальная длина ключевого слова
+    private static final RuleType[] RULE_TYPES = RuleType.values(); // Реестр типов правил без копирования массива
+
+    private final Reader reader; // Источник данных
+    private final char[] buffer = new char[BUFFER_SIZE]; // Буфер чтения
+    private final char[] keyword = new char[MAX_KEYWORD]; // Последнее прочитанное ключевое слово
+    private int position; // Текущая позиция в буфере
+    private int limit; // Количество символов в буфере
+    private int line = 1; // Текущая строка (с 1)
+    private int column = 1; // Текущий столбец (с 1)
+    private int tokenLine; // Начало последнего токена
+    private int tokenColumn;
+
+    /**
+     * Ошибка формата с уже указанной позицией.
+     */
+    private static class FormatException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        FormatException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Конструктор.
+     * @param reader Источник текста уровня (буферизация не требуется)
+     */
+    public LevelTextParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Разбирает уровень целиком.
+     * @return Объект LevelConfig
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат некорректен (с номером строки и столбца)
+     */
+    public LevelConfig parse() throws IOException {
+        int rows = readHeader("ROWS");
+        int cols = readHeader("COLS");
+        if (rows <= 0 || cols <= 0) {
+            throw error("Размеры сетки должны быть положительными: rows=" + rows + ", cols=" + cols);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw error("Сетка слишком велика: rows=" + rows + ", cols=" + cols);
+        }
+
+        // Мины: по одной паре координат на строку
+        int mineCount = readHeader("MINES");
+        if (mineCount < 0) {
+            throw error("Количество мин не может быть отрицательным: " + mineCount);
+        }
+        List<HexCoord> mineCoordinates = new ArrayList<>(Math.min(mineCount, rows * cols));
+        for (int i = 0; i < mineCount; i++) {
+            skipBlankLines();
+            if (peek() < 0) {
+                throw error("Недостаточно строк для мин");
+            }
+            mineCoordinates.add(readCoord("мины", rows, cols));
+            endLine();
+        }
+
+        // Правила: разбор каждой строки делегируется типу правила из реестра
+        int ruleCount = readHeader("RULES");
+        if (ruleCount < 0) {
+            throw error("Количество правил не может быть отрицательным: " + ruleCount);
+        }
+        List<RuleData> ruleDataList = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            skipBlankLines();
+            if (peek() < 0) {
+                throw error("Недостаточно строк для правил");
+            }
+            int ruleLine = line;
+            int ruleColumn = column;
+            RuleType type = readRuleType();
+            try {
+                ruleDataList.add(type.parse(this, rows, cols));
+            } catch (FormatException e) {
+                throw e;
+            } catch (IllegalArgumentException e) {
+                throw error(ruleLine, ruleColumn, e.getMessage());
+            }
+            endLine();
+        }
+
+        skipBlankLines();
+        if (peek() >= 0) {
+            markToken();
+            throw error("Лишние данные после правил");
+        }
+        return new LevelConfig(rows, cols, mineCoordinates, ruleDataList);
+    }
+
+    /**
+     * Читает целое число. Разделители (пробелы, табуляция, запятые) перед ним пропускаются.
+     * @return Прочитанное число
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если в текущей позиции нет числа
+     */
+    public int readInt() throws IOException {
+        skipSeparators();
+        markToken();
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            next();
+        }
+        long value = 0;
+        int digits = 0;
+        int c;
+        while ((c = peek()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("Слишком большое число");
+            }
+            next();
+            digits++;
+        }
+        if (digits == 0) {
+            throw error(c < 0 ? "Неожиданный конец файла, ожидается число" : "Ожидается число, найден символ '" + (char) c + "'");
+        }
+        if (c >= 0 && !isSeparator(c) && c != '\n') {
+            throw error("Ожидается число, найден символ '" + (char) c + "'");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw error("Слишком большое число");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Читает пару координат q и r и проверяет, что они лежат в пределах сетки.
+     * @param what Что описывают координаты (для сообщения об ошибке)
+     * @param rows Количество строк сетки
+     * @param cols Количество столбцов сетки
+     * @return Координаты
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public HexCoord readCoord(String what, int rows, int cols) throws IOException {
+        int q = readInt();
+        int qLine = tokenLine;
+        int qColumn = tokenColumn;
+        int r = readInt();
+        if (q < 0 || q >= cols || r < 0 || r >= rows) {
+            throw error(qLine, qColumn, "Координаты " + what + " вне сетки: q=" + q + ", r=" + r);
+        }
+        return new HexCoord(q, r);
+    }
+
+    /**
+     * Читает строку заголовка вида "КЛЮЧ число".
+     */
+    private int readHeader(String expected) throws IOException {
+        skipBlankLines();
+        int length = readKeyword();
+        if (!keywordEquals(length, expected)) {
+            throw error("Ожидается " + expected);
+        }
+        int value = readInt();
+        endLine();
+        return value;
+    }
+
+    /**
+     * Читает ключевое слово типа правила и находит тип в реестре без создания строк.
+     */
+    private RuleType readRuleType() throws IOException {
+        int length = readKeyword();
+        for (RuleType type : RULE_TYPES) {
+            if (keywordEquals(length, type.name())) {
+                return type;
+            }
+        }
+        throw error("Неизвестный тип правила: " + new String(keyword, 0, Math.min(length, MAX_KEYWORD)));
+    }
+
+    /**
+     * Читает слово из латинских букв в буфер keyword.
+     * @return Длина слова (может превышать MAX_KEYWORD, тогда хранится только начало)
+     */
+    private int readKeyword() throws IOException {
+        skipSeparators();
+        markToken();
+        int length = 0;
+        int c;
+        while (((c = peek()) >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+            if (length < MAX_KEYWORD) {
+                keyword[length] = (char) c;
+            }
+            length++;
+            next();
+        }
+        return length;
+    }
+
+    private boolean keywordEquals(int length, String expected) {
+        if (length != expected.length() || length > MAX_KEYWORD) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keyword[i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, что до конца строки остались только разделители, и переходит на следующую строку.
+     */
+    private void endLine() throws IOException {
+        skipSeparators();
+        int c = peek();
+        if (c == '\n') {
+            next();
+        } else if (c >= 0) {
+            markToken();
+            throw error("Лишние данные в конце строки");
+        }
+    }
+
+    private void skipSeparators() throws IOException {
+        while (isSeparator(peek())) {
+            next();
+        }
+    }
+
+    private void skipBlankLines() throws IOException {
+        skipSeparators();
+        while (peek() == '\n') {
+            next();
+            skipSeparators();
+        }
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == '\t' || c == ',' || c == '\r';
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private void next() throws IOException {
+        int c = peek();
+        if (c < 0) {
+            return;
+        }
+        position++;
+        if (c == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+    }
+
+    private void markToken() {
+        tokenLine = line;
+        tokenColumn = column;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return error(tokenLine, tokenColumn, message);
+    }
+
+    private IllegalArgumentException error(int errorLine, int errorColumn, String message) {
+        return new FormatException("Ошибка формата в строке " + errorLine + ", столбец " + errorColumn + ": " + message);
+    }
+}
\ No newline at end of file
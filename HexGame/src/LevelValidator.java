@@ -0,0 +1,264 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Пакетная проверка файлов уровней из командной строки.
+ * Уровни загружаются и проверяются параллельно на всех ядрах; для каждого
+ * уровня печатается строка JSON (JSON Lines), итог выводится в stderr.
+ *
+ * Проверяется, что координаты мин и правил лежат в пределах сетки и не повторяются,
+ * что количество мин в каждом правиле допустимо для его ячеек и что каждое правило
+ * выполняется для записанного расположения мин.
+ * Проверка работает только с данными уровня и скомпилированными правилами
+ * и не загружает классы Swing.
+ *
+ * Запуск: java LevelValidator файл_или_каталог [...]
+ */
+public class LevelValidator {
+    /**
+     * Результат проверки одного уровня.
+     */
+    static final class Report {
+        final String path;
+        final LevelConfig config; // null, если уровень не загрузился
+        final List<String> errors;
+
+        Report(String path, LevelConfig config, List<String> errors) {
+            this.path = path;
+            this.config = config;
+            this.errors = errors;
+        }
+
+        boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        /**
+         * Формирует строку отчета в формате JSON.
+         */
+        String toJson() {
+            StringBuilder json = new StringBuilder(128);
+            json.append("{\"path\":").append(jsonString(path));
+            json.append(",\"valid\":").append(isValid());
+            if (config != null) {
+                json.append(",\"rows\":").append(config.getRows());
+                json.append(",\"cols\":").append(config.getCols());
+                json.append(",\"mines\":").append(config.getMines().size());
+                json.append(",\"rules\":").append(config.getRuleDataList().size());
+            }
+            json.append(",\"errors\":[");
+            for (int i = 0; i < errors.size(); i++) {
+                json.append(i > 0 ? "," : "").append(jsonString(errors.get(i)));
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /**
+     * Загружает и проверяет один уровень.
+     * @param path Путь к уровню (в том числе псевдопуть архива "архив.hexp#номер")
+     * @return Результат проверки
+     */
+    public static Report validate(String path) {
+        LevelConfig config;
+        try {
+            config = LevelFile.loadLevelFromFile(path);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Report(path, null, List.of(describe(e)));
+        }
+        return new Report(path, config, check(config));
+    }
+
+    /**
+     * Проверяет загруженный уровень.
+     * @param config Конфигурация уровня
+     * @return Список ошибок (пустой, если уровень корректен)
+     */
+    public static List<String> check(LevelConfig config) {
+        int rows = config.getRows();
+        int cols = config.getCols();
+        List<String> errors = new ArrayList<>();
+
+        // Мины: в пределах сетки и без повторов
+        List<HexCoord> mines = config.getMines();
+        BitPlane minePlane = new BitPlane(rows, cols);
+        for (HexCoord mine : mines) {
+            if (!minePlane.contains(mine.getQ(), mine.getR())) {
+                errors.add("Мина вне сетки: " + mine);
+            } else if (minePlane.get(mine.getQ(), mine.getR())) {
+                errors.add("Мина указана дважды: " + mine);
+            } else {
+                minePlane.set(mine.getQ(), mine.getR(), true);
+            }
+        }
+
+        List<RuleData> rules = config.getRuleDataList();
+        for (int i = 0; i < rules.size(); i++) {
+            RuleData rule = rules.get(i);
+            String prefix = "Правило " + i + " (" + rule.getType() + "): ";
+            List<HexCoord> cells = rule.getCells();
+            if (cells.isEmpty()) {
+                errors.add(prefix + "нет ячеек");
+                continue;
+            }
+
+            boolean valid = true;
+            Set<HexCoord> distinct = new HashSet<>();
+            for (HexCoord cell : cells) {
+                if (!minePlane.contains(cell.getQ(), cell.getR())) {
+                    errors.add(prefix + "ячейка вне сетки " + cell);
+                    valid = false;
+                } else if (!distinct.add(cell)) {
+                    errors.add(prefix + "ячейка указана дважды " + cell);
+                    valid = false; // Такое правило не компилируется
+                }
+            }
+            if (!valid) {
+                continue;
+            }
+            if (rule.getType() == RuleType.EDGE && minePlane.get(cells.get(0).getQ(), cells.get(0).getR())) {
+                errors.add(prefix + "число стоит на ячейке с миной " + cells.get(0));
+            }
+
+            CompiledRule compiled = rule.getType().compile(rule, rows, cols);
+            int expected = rule.getExpectedMines();
+            if (expected < 0 || expected > compiled.getCellCount()) {
+                errors.add(prefix + "недопустимое количество мин " + expected + " для " + compiled.getCellCount() + " ячеек");
+            } else if (!compiled.isSatisfied(minePlane)) {
+                errors.add(prefix + "не выполняется для расположения мин (ожидается " + expected + ")");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Собирает уровни из файлов и каталогов (рекурсивно).
+     * Архивы уровней разворачиваются в псевдопути отдельных уровней.
+     * @param arguments Пути к файлам и каталогам
+     * @return Пути уровней в порядке обхода
+     * @throws IOException если каталог не удалось прочитать
+     */
+    static List<String> collectLevels(String[] arguments) throws IOException {
+        List<String> levels = new ArrayList<>();
+        for (String argument : arguments) {
+            Path root = Paths.get(argument);
+            List<Path> files = new ArrayList<>();
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    walk.filter(Files::isRegularFile).filter(LevelValidator::isLevelFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(root);
+            }
+
+            for (Path file : files) {
+                String path = file.toString();
+                if (!path.endsWith(LevelPack.EXTENSION)) {
+                    levels.add(path);
+                    continue;
+                }
+                try {
+                    LevelPack pack = LevelPack.open(path);
+                    for (int id = 0; id < pack.size(); id++) {
+                        levels.add(pack.pathOf(id));
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    levels.add(path); // Ошибка попадет в отчет при загрузке
+                }
+            }
+        }
+        return levels;
+    }
+
+    private static boolean isLevelFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".txt") || name.endsWith(BinaryLevelFile.EXTENSION) || name.endsWith(LevelPack.EXTENSION);
+    }
+
+    /**
+     * Формирует сообщение об ошибке загрузки вместе с причиной.
+     */
+    private static String describe(Exception e) {
+        Throwable cause = e.getCause();
+        return cause != null && cause.getMessage() != null ? e.getMessage() + ": " + cause.getMessage() : e.getMessage();
+    }
+
+    /**
+     * Экранирует строку для JSON.
+     */
+    static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Точка входа: проверяет уровни и печатает отчет JSON Lines в stdout.
+     * Код завершения 1, если хотя бы один уровень некорректен.
+     * @param args Пути к файлам уровней, архивам и каталогам
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Использование: java LevelValidator файл_или_каталог [...]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        List<String> levels;
+        try {
+            levels = collectLevels(args);
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать каталог: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        int[] invalid = new int[1];
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+        levels.parallelStream()
+                .map(LevelValidator::validate)
+                .forEachOrdered(report -> {
+                    if (!report.isValid()) {
+                        invalid[0]++;
+                    }
+                    out.println(report.toJson());
+                });
+        out.flush();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Проверено уровней: %d за %.2f с (%.0f в секунду), с ошибками: %d%n",
+                levels.size(), seconds, levels.size() / seconds, invalid[0]);
+        System.exit(invalid[0] > 0 ? 1 : 0);
+    }
+}
\ No newline at end of file
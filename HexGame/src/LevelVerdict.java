@@ -0,0 +1,9 @@
+/**
+ * Итог анализа уровня.
+ */
+enum LevelVerdict {
+    SOLVABLE, // Все ячейки выводятся без угадывания (решение единственно)
+    AMBIGUOUS, // Вывод застревает, и есть другая расстановка мин: нужна догадка
+    UNDECIDED, // Вывод застревает, а единственность не установлена за отведенный перебор
+    INCONSISTENT // Правила не выполняются для расстановки мин
+}
\ No newline at end of file
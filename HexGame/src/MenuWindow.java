@@ -2,16 +2,24 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Стартовое окно приложения Hexcells, отображающее главное меню.
  */
 public class MenuWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final String LEVEL_PACK = "levels" + LevelPack.EXTENSION; // Архив уровней, если он поставляется
+    private static final int PRELOAD_AHEAD = 3; // Сколько уровней архива готовить заранее
+    private static final String[] LEVEL_FILES = {"level1.txt", "level2.txt", "level3.txt", "level4.txt"}; // Отдельные файлы уровней без архива
+
     private JButton playLevel1Button;
     private JButton playLevel2Button;
     private JButton playLevel3Button;
     private JButton playLevel4Button;
     private JButton editorButton;
+    private JButton replayButton;
     private JButton exitButton;
 
     /**
@@ -25,57 +33,193 @@ public class MenuWindow extends JFrame {
 
         // Создание панели для кнопок
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(6, 1, 10, 10));
+        panel.setLayout(new GridLayout(7, 1, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20)); // Отступы
 
         // Создание кнопок
-        playLevel1Button = new JButton("Уровень 1");
-        playLevel2Button = new JButton("Уровень 2");
-        playLevel3Button = new JButton("Уровень 3");
-        playLevel4Button = new JButton("Уровень 4");
         editorButton = new JButton("Редактор");
+        replayButton = new JButton("Просмотр последней партии");
+        replayButton.setEnabled(Files.isRegularFile(Paths.get(ReplayRecorder.LAST_GAME_PATH)));
         exitButton = new JButton("Выход");
 
-        // Добавление кнопок на панель
-        panel.add(playLevel1Button);
-        panel.add(playLevel2Button);
-        panel.add(playLevel3Button);
-        panel.add(playLevel4Button);
-        panel.add(editorButton);
-        panel.add(exitButton);
-
-        // Добавление ActionListener для кнопок
-        playLevel1Button.addActionListener(e -> startLevel("level1.txt"));
-        playLevel2Button.addActionListener(e -> startLevel("level2.txt"));
-        playLevel3Button.addActionListener(e -> startLevel("level3.txt"));
-        playLevel4Button.addActionListener(e -> startLevel("level4.txt"));
+        // Если есть архив уровней, список строится по его индексу без разбора уровней
+        LevelPack pack = openLevelPack();
+        if (pack != null) {
+            setLayout(new BorderLayout());
+            panel.setLayout(new GridLayout(3, 1, 10, 10));
+            panel.add(editorButton);
+            panel.add(replayButton);
+            panel.add(exitButton);
+            add(createPackPanel(pack), BorderLayout.CENTER);
+        } else {
+            playLevel1Button = new JButton("Уровень 1");
+            playLevel2Button = new JButton("Уровень 2");
+            playLevel3Button = new JButton("Уровень 3");
+            playLevel4Button = new JButton("Уровень 4");
+
+            // Добавление кнопок на панель
+            panel.add(playLevel1Button);
+            panel.add(playLevel2Button);
+            panel.add(playLevel3Button);
+            panel.add(playLevel4Button);
+            panel.add(editorButton);
+            panel.add(replayButton);
+            panel.add(exitButton);
+
+            // Добавление ActionListener для кнопок
+            playLevel1Button.addActionListener(e -> startLevel(LEVEL_FILES[0]));
+            playLevel2Button.addActionListener(e -> startLevel(LEVEL_FILES[1]));
+            playLevel3Button.addActionListener(e -> startLevel(LEVEL_FILES[2]));
+            playLevel4Button.addActionListener(e -> startLevel(LEVEL_FILES[3]));
+
+            // Пока меню простаивает, уровни готовятся в фоне
+            for (String levelFile : LEVEL_FILES) {
+                if (Files.isRegularFile(Paths.get(levelFile))) {
+                    LevelPreloader.getShared().preload(levelFile);
+                }
+            }
+        }
         editorButton.addActionListener(e -> openEditor());
+        replayButton.addActionListener(e -> openReplay());
         exitButton.addActionListener(e -> System.exit(0));
 
-        // Добавление панели в окно
-        add(panel);
+        // Добавление панели в окно: под списком архива или в сетку окна
+        if (pack != null) {
+            add(panel, BorderLayout.SOUTH);
+        } else {
+            add(panel);
+        }
 
         // Упаковка и отображение
         pack();
         setLocationRelativeTo(null); // Центрирование окна
         setVisible(true);
+
+        // Предлагаем продолжить прерванную партию, когда меню уже на экране
+        SwingUtilities.invokeLater(this::offerResume);
     }
 
     /**
-     * Запускает уровень, загружая конфигурацию из указанного файла.
+     * Если есть автосохранение незавершенной партии, предлагает ее продолжить.
+     */
+    private void offerResume() {
+        if (!Files.isRegularFile(Paths.get(GameCheckpoint.AUTOSAVE_PATH))) {
+            return;
+        }
+        try {
+            GameCheckpoint checkpoint = GameCheckpoint.load(GameCheckpoint.AUTOSAVE_PATH);
+            if (checkpoint.isGameOver()) {
+                return;
+            }
+            LevelPreloader.getShared().preload(checkpoint.getLevelPath()); // Готовим уровень, пока игрок отвечает
+            int answer = JOptionPane.showConfirmDialog(this,
+                    "Продолжить сохраненную игру (" + checkpoint.getLevelPath() + ", ходов: " + checkpoint.getMoveCount() + ")?",
+                    "Сохраненная игра", JOptionPane.YES_NO_OPTION);
+            if (answer != JOptionPane.YES_OPTION) {
+                return;
+            }
+
+            String filePath = checkpoint.getLevelPath();
+            Board board = LevelPreloader.getShared().take(filePath);
+            if (!checkpoint.matches(board.getLevelConfig())) {
+                JOptionPane.showMessageDialog(this, "Уровень изменился после сохранения, продолжить игру нельзя.",
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            checkpoint.restore(board);
+            new GameWindow(board, filePath).setVisible(true);
+            setVisible(false);
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка загрузки сохранения: " + e.getMessage(),
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Открывает архив уровней, если он есть рядом с приложением.
+     * @return Архив или null, если архива нет или он поврежден
+     */
+    private LevelPack openLevelPack() {
+        if (!Files.isRegularFile(Paths.get(LEVEL_PACK))) {
+            return null;
+        }
+        try {
+            return LevelPack.open(LEVEL_PACK);
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка чтения архива уровней: " + e.getMessage(),
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+
+    /**
+     * Создает список уровней архива с кнопкой запуска.
+     * @param pack Архив уровней
+     * @return Панель со списком
+     */
+    private JPanel createPackPanel(LevelPack pack) {
+        JList<LevelPack.Entry> levelList = new JList<>(pack.getEntries().toArray(new LevelPack.Entry[0]));
+        levelList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        levelList.setSelectedIndex(0);
+        levelList.setVisibleRowCount(10);
+
+        // Готовим в фоне выбранный уровень и следующие за ним
+        levelList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                preloadFrom(pack, levelList.getSelectedIndex());
+            }
+        });
+        preloadFrom(pack, 0);
+
+        JButton playButton = new JButton("Играть");
+        playButton.addActionListener(e -> {
+            LevelPack.Entry entry = levelList.getSelectedValue();
+            if (entry != null) {
+                startLevel(pack.pathOf(entry.getId()));
+                preloadFrom(pack, entry.getId() + 1); // Следующий уровень, пока идет игра
+            }
+        });
+        levelList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    playButton.doClick();
+                }
+            }
+        });
+
+        JPanel packPanel = new JPanel(new BorderLayout(10, 10));
+        packPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 0, 20));
+        packPanel.add(new JScrollPane(levelList), BorderLayout.CENTER);
+        packPanel.add(playButton, BorderLayout.SOUTH);
+        return packPanel;
+    }
+
+    /**
+     * Запускает фоновую подготовку уровней архива начиная с указанного номера.
+     * @param pack Архив уровней
+     * @param firstId Номер первого уровня
+     */
+    private void preloadFrom(LevelPack pack, int firstId) {
+        if (firstId < 0) {
+            return;
+        }
+        for (int id = firstId; id < Math.min(pack.size(), firstId + PRELOAD_AHEAD); id++) {
+            LevelPreloader.getShared().preload(pack.pathOf(id));
+        }
+    }
+
+    /**
+     * Запускает уровень, забирая доску, подготовленную LevelPreloader.
      * @param filePath Путь к файлу уровня
      */
     private void startLevel(String filePath) {
         try {
-            // Загрузка конфигурации уровня
-            LevelConfig config = LevelFile.loadLevelFromFile(filePath);
-
-            // Создание доски
-            Board board = new Board(config.getRows(), config.getCols());
-            board.initializeLevel(config);
+            // Доска обычно уже построена в фоне; при промахе уровень загружается синхронно
+            Board board = LevelPreloader.getShared().take(filePath);
 
             // Создание игрового окна
-            GameWindow gameWindow = new GameWindow(board);
+            GameWindow gameWindow = new GameWindow(board, filePath);
             gameWindow.setVisible(true);
 
             // Скрытие меню
@@ -86,6 +230,18 @@ public class MenuWindow extends JFrame {
         }
     }
 
+    /**
+     * Открывает просмотр последней записанной партии. Меню остается на экране.
+     */
+    private void openReplay() {
+        try {
+            ReplayWindow.open(ReplayRecorder.LAST_GAME_PATH).setVisible(true);
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка открытия партии: " + e.getMessage(),
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     /**
      * Открывает окно редактора уровней.
      */
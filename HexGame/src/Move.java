@@ -0,0 +1,91 @@
+
+/**
+ * Ход игрока: действие над ячейкой доски.
+ * Используется для записи и воспроизведения партий.
+ */
+public class Move {
+    private final HexCoord coord; // Ячейка хода
+    private final MoveType type; // Действие
+
+    /**
+     * Конструктор.
+     * @param coord Координаты ячейки
+     * @param type Действие
+     */
+    public Move(HexCoord coord, MoveType type) {
+        if (coord == null || type == null) {
+            throw new IllegalArgumentException("Координаты и тип хода не могут быть null");
+        }
+        this.coord = coord;
+        this.type = type;
+    }
+
+    /**
+     * Создает ход "открыть ячейку".
+     */
+    public static Move reveal(HexCoord coord) {
+        return new Move(coord, MoveType.REVEAL);
+    }
+
+    /**
+     * Создает ход "поставить или снять флаг".
+     */
+    public static Move flag(HexCoord coord) {
+        return new Move(coord, MoveType.FLAG);
+    }
+
+    /**
+     * Создает ход "открыть соседей удовлетворенного числа".
+     */
+    public static Move chord(HexCoord coord) {
+        return new Move(coord, MoveType.CHORD);
+    }
+
+    public HexCoord getCoord() {
+        return coord;
+    }
+
+    public MoveType getType() {
+        return type;
+    }
+
+    /**
+     * Применяет ход к доске.
+     * @param board Игровая доска
+     * @return true, если ход изменил доску
+     */
+    public boolean applyTo(Board board) {
+        switch (type) {
+            case REVEAL:
+                return board.revealCell(coord);
+            case FLAG:
+                return board.toggleFlag(coord);
+            case CHORD:
+                return board.chord(coord);
+            default:
+                throw new IllegalStateException("Неизвестный тип хода: " + type);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Move other = (Move) obj;
+        return type == other.type && coord.equals(other.coord);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * coord.hashCode() + type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + coord.getQ() + "," + coord.getR();
+    }
+}
\ No newline at end of file
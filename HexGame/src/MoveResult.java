@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Изменения, внесенные пакетом ходов (Board.applyMoves): измененные ячейки
+ * и итоговое состояние игры. Ячейка, измененная несколькими ходами, входит один раз.
+ */
+class MoveResult {
+    private final int cols; // Количество столбцов (для линейного индекса)
+    private int[] cells = new int[16]; // Индексы измененных ячеек r * cols + q
+    private int cellCount;
+    private int appliedMoves; // Ходов, изменивших доску
+    private boolean gameOver;
+    private boolean gameWon;
+
+    MoveResult(int cols) {
+        this.cols = cols;
+    }
+
+    void cellChanged(int q, int r) {
+        if (cellCount == cells.length) {
+            cells = Arrays.copyOf(cells, cellCount * 2);
+        }
+        cells[cellCount++] = r * cols + q;
+    }
+
+    void moveApplied() {
+        appliedMoves++;
+    }
+
+    void finish(boolean gameOver, boolean gameWon) {
+        this.gameOver = gameOver;
+        this.gameWon = gameWon;
+        // Убираем повторы: флаг мог быть поставлен и снят в одном пакете
+        Arrays.sort(cells, 0, cellCount);
+        int unique = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (unique == 0 || cells[unique - 1] != cells[i]) {
+                cells[unique++] = cells[i];
+            }
+        }
+        cellCount = unique;
+    }
+
+    /**
+     * @return Координаты измененных ячеек
+     */
+    public List<HexCoord> getChangedCells() {
+        List<HexCoord> coords = new ArrayList<>(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            coords.add(new HexCoord(cells[i] % cols, cells[i] / cols));
+        }
+        return coords;
+    }
+
+    public int getChangedCount() {
+        return cellCount;
+    }
+
+    public int getAppliedMoves() {
+        return appliedMoves;
+    }
+
+    public boolean isEmpty() {
+        return appliedMoves == 0;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isGameWon() {
+        return gameWon;
+    }
+}
\ No newline at end of file
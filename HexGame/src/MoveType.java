@@ -0,0 +1,9 @@
+/**
+ * Действие хода. Порядковый номер записывается в журнал партии, поэтому новые
+ * значения добавляются только в конец.
+ */
+enum MoveType {
+    REVEAL, // Открыть ячейку
+    FLAG, // Поставить или снять флаг
+    CHORD // Открыть соседей числа, вокруг которого стоят все флаги
+}
\ No newline at end of file
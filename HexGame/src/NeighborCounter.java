@@ -0,0 +1,123 @@
+import java.util.stream.IntStream;
+
+/**
+ * Подсчет мин среди шести соседей сразу для всех ячеек доски.
+ * Работает над плоскостью мин BitPlane: для каждой строки шесть соседних
+ * битовых строк (сдвинутых на одну ячейку) складываются побитовыми сумматорами,
+ * так что одно 64-битное слово дает счетчики для 64 ячеек.
+ * Большие доски обрабатываются параллельно полосами строк.
+ */
+public class NeighborCounter {
+    private static final int SCALAR_THRESHOLD = 64; // До этого числа ячеек считаем поячеечно
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // С этого числа ячеек считаем параллельно
+    private static final int ROWS_PER_BAND = 64; // Высота полосы строк для параллельной обработки
+
+    /**
+     * Считает количество мин среди соседей для каждой ячейки.
+     * @param mines Плоскость мин
+     * @return Массив счетчиков с индексом r * cols + q
+     */
+    public static byte[] count(BitPlane mines) {
+        int rows = mines.getRows();
+        int cols = mines.getCols();
+        byte[] counts = new byte[rows * cols];
+        long cells = (long) rows * cols;
+
+        if (cells < SCALAR_THRESHOLD) {
+            countScalar(mines, counts);
+        } else if (cells < PARALLEL_THRESHOLD) {
+            countRows(mines, counts, 0, rows);
+        } else {
+            int bands = (rows + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+            IntStream.range(0, bands).parallel().forEach(band -> {
+                int from = band * ROWS_PER_BAND;
+                countRows(mines, counts, from, Math.min(rows, from + ROWS_PER_BAND));
+            });
+        }
+        return counts;
+    }
+
+    /**
+     * Поячеечный подсчет, используемый для маленьких досок.
+     */
+    static void countScalar(BitPlane mines, byte[] counts) {
+        int rows = mines.getRows();
+        int cols = mines.getCols();
+        for (int r = 0; r < rows; r++) {
+            for (int q = 0; q < cols; q++) {
+                int mineCount = 0;
+                for (int[] offset : CompiledRule.NEIGHBOR_OFFSETS) {
+                    int nq = q + offset[0];
+                    int nr = r + offset[1];
+                    if (mines.contains(nq, nr) && mines.get(nq, nr)) {
+                        mineCount++;
+                    }
+                }
+                counts[r * cols + q] = (byte) mineCount;
+            }
+        }
+    }
+
+    /**
+     * Побитовый подсчет для строк [fromRow, toRow).
+     * Соседи ячейки (q, r): (q±1, r), (q, r±1), (q+1, r-1), (q-1, r+1).
+     */
+    private static void countRows(BitPlane mines, byte[] counts, int fromRow, int toRow) {
+        long[] words = mines.words();
+        int wordsPerRow = mines.getWordsPerRow();
+        int rows = mines.getRows();
+        int cols = mines.getCols();
+
+        for (int r = fromRow; r < toRow; r++) {
+            int row = r * wordsPerRow;
+            int above = r > 0 ? row - wordsPerRow : -1;
+            int below = r + 1 < rows ? row + wordsPerRow : -1;
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                long current = words[row + w];
+                long upper = above >= 0 ? words[above + w] : 0L;
+                long lower = below >= 0 ? words[below + w] : 0L;
+
+                // Шесть входов: бит q каждого равен мине в соответствующем соседе
+                long right = shiftDown(words, row, w, wordsPerRow, current); // (q+1, r)
+                long left = shiftUp(words, row, w, current); // (q-1, r)
+                long upperRight = above >= 0 ? shiftDown(words, above, w, wordsPerRow, upper) : 0L; // (q+1, r-1)
+                long lowerLeft = below >= 0 ? shiftUp(words, below, w, lower) : 0L; // (q-1, r+1)
+
+                // Два полных сумматора по три входа
+                long s1 = right ^ left ^ upper;
+                long c1 = (right & left) | (upper & (right ^ left));
+                long s2 = lower ^ upperRight ^ lowerLeft;
+                long c2 = (lower & upperRight) | (lowerLeft & (lower ^ upperRight));
+
+                // Сложение частичных сумм: bit0 + 2 * bit1 + 4 * bit2
+                long bit0 = s1 ^ s2;
+                long carry = s1 & s2;
+                long bit1 = c1 ^ c2 ^ carry;
+                long bit2 = (c1 & c2) | (carry & (c1 ^ c2));
+
+                int base = r * cols + (w << 6);
+                int limit = Math.min(64, cols - (w << 6));
+                for (int b = 0; b < limit; b++) {
+                    counts[base + b] = (byte) (((bit0 >>> b) & 1) | (((bit1 >>> b) & 1) << 1) | (((bit2 >>> b) & 1) << 2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Сдвиг строки на одну ячейку к меньшим q: бит q получает значение ячейки q+1.
+     */
+    private static long shiftDown(long[] words, int row, int w, int wordsPerRow, long word) {
+        long next = w + 1 < wordsPerRow ? words[row + w + 1] : 0L;
+        return (word >>> 1) | (next << 63);
+    }
+
+    /**
+     * Сдвиг строки на одну ячейку к большим q: бит q получает значение ячейки q-1.
+     */
+    private static long shiftUp(long[] words, int row, int w, long word) {
+        long previous = w > 0 ? words[row + w - 1] : 0L;
+        return (word << 1) | (previous >>> 63);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+import java.util.Arrays;
+
+/**
+ * Описание окрестности доказательства: ограничения в относительных координатах
+ * и проверяемое значение. Одинаковые окрестности дают одинаковый результат.
+ */
+final class NeighborhoodKey {
+    private final long[] data;
+    private final int hash;
+
+    NeighborhoodKey(long[] data) {
+        this.data = data;
+        this.hash = Arrays.hashCode(data);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof NeighborhoodKey && Arrays.equals(data, ((NeighborhoodKey) obj).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
\ No newline at end of file
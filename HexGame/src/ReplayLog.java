@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Журнал записанной партии (.hexr) и переход к любому ходу.
+ *
+ * Формат (big-endian):
+ * int    магическое число "HEXR"
+ * short  версия формата
+ * short  флаги (зарезервировано, 0)
+ * int    rows, int cols, int интервал снимков, long время начала (мс)
+ * byte[32] хэш уровня (GameCheckpoint.levelHash)
+ * short  длина пути к уровню, затем путь в UTF-8
+ * записи до конца файла:
+ *   RECORD_MOVE:     varint индекс ячейки r * cols + q, byte действие (MoveType), varint мс с предыдущего хода
+ *   RECORD_KEYFRAME: varint номер хода в журнале, varint moveCount доски, byte флаги игры,
+ *                    long[] плоскость открытых ячеек, long[] плоскость флагов
+ *
+ * При открытии журнал читается в память целиком (а не отображается: файл последней
+ * партии перезаписывается новой партией, пока журнал может быть открыт в окне
+ * просмотра). Ходы раскладываются в компактные массивы, а для снимков
+ * запоминаются только позиции в файле. Переход к ходу восстанавливает ближайший
+ * предшествующий снимок и применяет не более интервала снимков ходов.
+ * Недописанная последняя запись (обрыв записи) отбрасывается.
+ */
+public class ReplayLog {
+    public static final String EXTENSION = ".hexr"; // Расширение журналов партий
+    static final int MAGIC = 0x48455852; // "HEXR"
+    static final short VERSION = 1; // Текущая версия формата
+    static final int RECORD_MOVE = 0;
+    static final int RECORD_KEYFRAME = 1;
+    static final int FLAG_GAME_OVER = 1;
+    static final int FLAG_GAME_WON = 2;
+    private static final int HASH_SIZE = 32;
+
+    private final ByteBuffer buffer; // Содержимое журнала
+    private final int rows;
+    private final int cols;
+    private final long startTime; // Время начала партии (мс)
+    private final byte[] levelHash; // Хэш уровня
+    private final String levelPath; // Путь к уровню
+    private final int[] cells; // Индекс ячейки каждого хода
+    private final byte[] actions; // Действие каждого хода
+    private final long[] times; // Время каждого хода от начала партии (мс)
+    private final int moveCount; // Количество ходов
+    private final int[] keyframeMoves; // Номер хода каждого снимка
+    private final int[] keyframeOffsets; // Позиция данных каждого снимка в файле
+    private final int keyframeCount;
+
+    private ReplayLog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Файл не является журналом партии");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия журнала: " + version);
+            }
+            buffer.getShort(); // Флаги
+            rows = buffer.getInt();
+            cols = buffer.getInt();
+            int keyframeInterval = buffer.getInt();
+            startTime = buffer.getLong();
+            if (rows <= 0 || cols <= 0 || keyframeInterval <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Некорректный заголовок журнала");
+            }
+            levelHash = new byte[HASH_SIZE];
+            buffer.get(levelHash);
+            byte[] path = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(path);
+            levelPath = new String(path, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Журнал партии обрезан", e);
+        }
+
+        // Один проход по записям: ходы в массивы, снимки — только позиции
+        long keyframeBytes = 2L * rows * BitPlane.wordsPerRow(cols) * Long.BYTES;
+        int[] cells = new int[256];
+        byte[] actions = new byte[256];
+        long[] times = new long[256];
+        int[] keyframeMoves = new int[16];
+        int[] keyframeOffsets = new int[16];
+        int moves = 0;
+        int keyframes = 0;
+        long time = startTime;
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            try {
+                int tag = buffer.get();
+                if (tag == RECORD_MOVE) {
+                    int cell = BinaryLevelFile.readVarint(buffer);
+                    byte action = buffer.get();
+                    long delta = BinaryLevelFile.readVarint(buffer);
+                    if (cell >= rows * cols || action < 0 || action >= MoveType.values().length) {
+                        throw new IllegalArgumentException("Некорректный ход в журнале: позиция " + start);
+                    }
+                    if (moves == cells.length) {
+                        cells = Arrays.copyOf(cells, moves * 2);
+                        actions = Arrays.copyOf(actions, moves * 2);
+                        times = Arrays.copyOf(times, moves * 2);
+                    }
+                    time += delta;
+                    cells[moves] = cell;
+                    actions[moves] = action;
+                    times[moves] = time;
+                    moves++;
+                } else if (tag == RECORD_KEYFRAME) {
+                    int move = BinaryLevelFile.readVarint(buffer);
+                    int offset = buffer.position();
+                    BinaryLevelFile.readVarint(buffer); // moveCount доски
+                    buffer.get(); // Флаги игры
+                    if (move != moves || buffer.remaining() < keyframeBytes) {
+                        break; // Снимок не совпадает с ходами или недописан
+                    }
+                    buffer.position(buffer.position() + (int) keyframeBytes); // Не больше оставшегося
+                    if (keyframes == keyframeMoves.length) {
+                        keyframeMoves = Arrays.copyOf(keyframeMoves, keyframes * 2);
+                        keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+                    }
+                    keyframeMoves[keyframes] = move;
+                    keyframeOffsets[keyframes] = offset;
+                    keyframes++;
+                } else {
+                    throw new IllegalArgumentException("Неизвестная запись журнала: " + tag + ", позиция " + start);
+                }
+            } catch (BufferUnderflowException e) {
+                break; // Последняя запись недописана
+            }
+        }
+        if (keyframes == 0 || keyframeMoves[0] != 0) {
+            throw new IllegalArgumentException("В журнале нет начального снимка");
+        }
+        this.cells = cells;
+        this.actions = actions;
+        this.times = times;
+        this.moveCount = moves;
+        this.keyframeMoves = keyframeMoves;
+        this.keyframeOffsets = keyframeOffsets;
+        this.keyframeCount = keyframes;
+    }
+
+    /**
+     * Открывает журнал партии.
+     * @param filePath Путь к файлу журнала
+     * @return Журнал
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат файла некорректен
+     */
+    public static ReplayLog open(String filePath) throws IOException {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(Paths.get(filePath));
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать файл: " + filePath, e);
+        }
+        return new ReplayLog(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * @return Количество записанных ходов
+     */
+    public int size() {
+        return moveCount;
+    }
+
+    /**
+     * Возвращает ход по номеру.
+     * @param index Номер хода (с 0)
+     * @return Ход
+     */
+    public Move getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Нет хода с номером " + index);
+        }
+        return new Move(new HexCoord(cells[index] % cols, cells[index] / cols), MoveType.values()[actions[index]]);
+    }
+
+    /**
+     * Возвращает время хода от начала партии.
+     * @param index Номер хода (с 0)
+     * @return Миллисекунды с начала записи
+     */
+    public long getMoveTime(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Нет хода с номером " + index);
+        }
+        return times[index] - startTime;
+    }
+
+    /**
+     * @return Путь к уровню партии
+     */
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    /**
+     * Проверяет, что журнал записан для этого уровня.
+     * @param config Конфигурация уровня
+     * @return true, если размеры и хэш уровня совпадают
+     */
+    public boolean matches(LevelConfig config) {
+        return config.getRows() == rows && config.getCols() == cols
+                && Arrays.equals(levelHash, GameCheckpoint.levelHash(config));
+    }
+
+    /**
+     * Приводит доску к позиции после указанного количества ходов:
+     * восстанавливает ближайший снимок и применяет оставшиеся ходы.
+     * @param board Доска, инициализированная уровнем журнала
+     * @param moves Количество ходов от начала записи (от 0 до size())
+     * @throws IllegalArgumentException если размеры доски не совпадают с журналом
+     */
+    public void seek(Board board, int moves) {
+        if (moves < 0 || moves > moveCount) {
+            throw new IndexOutOfBoundsException("Нет позиции после " + moves + " ходов, всего ходов " + moveCount);
+        }
+        if (board.getRows() != rows || board.getCols() != cols) {
+            throw new IllegalArgumentException("Размеры доски не совпадают с журналом: " + rows + "x" + cols);
+        }
+
+        // Ближайший снимок не позже нужного хода
+        int keyframe = Arrays.binarySearch(keyframeMoves, 0, keyframeCount, moves);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        ByteBuffer data = buffer.duplicate();
+        data.position(keyframeOffsets[keyframe]);
+        int boardMoves = BinaryLevelFile.readVarint(data);
+        int flags = data.get();
+        BitPlane revealed = new BitPlane(rows, cols);
+        BitPlane flagged = new BitPlane(rows, cols);
+        data.asLongBuffer().get(revealed.words()).get(flagged.words());
+        board.restoreState(revealed, flagged, boardMoves, (flags & FLAG_GAME_OVER) != 0, (flags & FLAG_GAME_WON) != 0);
+
+        for (int i = keyframeMoves[keyframe]; i < moves; i++) {
+            getMove(i).applyTo(board);
+        }
+    }
+
+    /**
+     * Краткие сведения о журнале из командной строки.
+     * @param args Путь к журналу
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Использование: java ReplayLog журнал" + EXTENSION);
+            System.exit(1);
+        }
+        try {
+            ReplayLog log = open(args[0]);
+            System.out.println("Уровень: " + log.levelPath + " (" + log.rows + "x" + log.cols + ")");
+            System.out.println("Ходов: " + log.moveCount + ", снимков: " + log.keyframeCount
+                    + ", длительность: " + (log.moveCount > 0 ? log.getMoveTime(log.moveCount - 1) / 1000 : 0) + " с");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Запись партии в журнал (.hexr) только дописыванием.
+ * Каждый ход кодируется несколькими байтами (индекс ячейки, действие,
+ * время с предыдущего хода) и попадает в буфер, который сбрасывается на диск
+ * пачками. Каждые keyframeInterval ходов записывается полный снимок доски,
+ * чтобы ReplayLog мог перейти к любому ходу без воспроизведения с начала.
+ * Формат описан в ReplayLog.
+ * Все методы вызываются из потока обработки событий Swing.
+ */
+public class ReplayRecorder implements Closeable {
+    public static final String LAST_GAME_PATH = "last_game" + ReplayLog.EXTENSION; // Журнал последней партии
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256; // Ходов между снимками по умолчанию
+    private static final int BUFFER_SIZE = 1 << 16; // Размер буфера записи
+    private static final int FLUSH_INTERVAL = 64; // Ходов между сбросами буфера на диск
+
+    private final DataOutputStream out; // Буферизованный поток журнала
+    private final int cols; // Количество столбцов (для линейного индекса)
+    private final int keyframeInterval; // Ходов между снимками
+    private final byte[] varint = new byte[5]; // Буфер кодирования varint
+    private long lastTime; // Время предыдущей записи
+    private int recordedMoves; // Записано ходов
+    private int unflushedMoves; // Ходов с последнего сброса
+
+    /**
+     * Создает журнал и записывает заголовок и начальный снимок доски.
+     * @param filePath Путь к файлу журнала
+     * @param levelPath Путь к уровню (для воспроизведения)
+     * @param config Конфигурация уровня
+     * @param board Доска в начальной позиции (может быть продолженной партией)
+     * @param keyframeInterval Ходов между снимками
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public ReplayRecorder(String filePath, String levelPath, LevelConfig config, Board board, int keyframeInterval)
+            throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Интервал снимков должен быть положительным: " + keyframeInterval);
+        }
+        this.cols = config.getCols();
+        this.keyframeInterval = keyframeInterval;
+        this.lastTime = System.currentTimeMillis();
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath)), BUFFER_SIZE));
+            byte[] path = levelPath.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(ReplayLog.MAGIC);
+            out.writeShort(ReplayLog.VERSION);
+            out.writeShort(0);
+            out.writeInt(config.getRows());
+            out.writeInt(config.getCols());
+            out.writeInt(keyframeInterval);
+            out.writeLong(lastTime);
+            out.write(GameCheckpoint.levelHash(config));
+            out.writeShort(path.length);
+            out.write(path);
+            writeKeyframe(board);
+            out.flush();
+        } catch (IOException e) {
+            throw new IOException("Не удалось записать файл: " + filePath, e);
+        }
+    }
+
+    /**
+     * Дописывает ход, уже примененный к доске.
+     * @param move Ход
+     * @param board Доска после хода (для снимков)
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public void record(Move move, Board board) throws IOException {
+        long now = System.currentTimeMillis();
+        HexCoord coord = move.getCoord();
+        out.writeByte(ReplayLog.RECORD_MOVE);
+        writeVarint(coord.getR() * cols + coord.getQ());
+        out.writeByte(move.getType().ordinal());
+        writeVarint((int) Math.min(Integer.MAX_VALUE, Math.max(0, now - lastTime)));
+        lastTime = now;
+        recordedMoves++;
+
+        if (recordedMoves % keyframeInterval == 0) {
+            writeKeyframe(board);
+        }
+        if (++unflushedMoves >= FLUSH_INTERVAL) {
+            out.flush();
+            unflushedMoves = 0;
+        }
+    }
+
+    /**
+     * @return Количество записанных ходов
+     */
+    public int getRecordedMoves() {
+        return recordedMoves;
+    }
+
+    /**
+     * Сбрасывает буфер и закрывает журнал.
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Записывает снимок: номер хода, флаги игры, плоскости открытых ячеек и флагов.
+     */
+    private void writeKeyframe(Board board) throws IOException {
+        out.writeByte(ReplayLog.RECORD_KEYFRAME);
+        writeVarint(recordedMoves);
+        writeVarint(board.getMoveCount());
+        out.writeByte((board.isGameOver() ? ReplayLog.FLAG_GAME_OVER : 0) | (board.isGameWon() ? ReplayLog.FLAG_GAME_WON : 0));
+        for (long word : board.exportRevealed().words()) {
+            out.writeLong(word);
+        }
+        for (long word : board.exportFlagged().words()) {
+            out.writeLong(word);
+        }
+    }
+
+    private void writeVarint(int value) throws IOException {
+        out.write(varint, 0, BinaryLevelFile.writeVarint(varint, 0, value));
+    }
+}
\ No newline at end of file
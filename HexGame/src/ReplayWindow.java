@@ -0,0 +1,149 @@
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import java.io.IOException;
+
+/**
+ * Окно просмотра записанной партии (ReplayLog).
+ * Доска уровня приводится к позиции после выбранного хода через ReplayLog.seek:
+ * ползунок и кнопки переходят к любому ходу, воспроизведение идет по таймеру.
+ */
+public class ReplayWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final int PLAY_DELAY_MS = 300; // Пауза между ходами при воспроизведении
+    private static final int MAX_VIEW_WIDTH = 1200; // Наибольший начальный размер окна просмотра
+    private static final int MAX_VIEW_HEIGHT = 800;
+
+    private final ReplayLog log; // Журнал партии
+    private final Board board; // Доска в показываемой позиции
+    private final GridPanel gridPanel; // Панель с гексагональной сеткой
+    private final JSlider slider; // Номер показываемого хода
+    private final JLabel statusLabel; // Номер хода и время
+    private final JButton playButton; // Запуск и остановка воспроизведения
+    private final Timer playTimer; // Воспроизведение по ходу за такт
+
+    /**
+     * Конструктор, показывающий партию с начальной позиции.
+     * @param log Журнал партии
+     * @param board Доска, инициализированная уровнем журнала
+     * @throws IllegalArgumentException если журнал записан для другого уровня
+     */
+    public ReplayWindow(ReplayLog log, Board board) {
+        if (board.getLevelConfig() == null || !log.matches(board.getLevelConfig())) {
+            throw new IllegalArgumentException("Журнал записан для другой версии уровня " + log.getLevelPath());
+        }
+        this.log = log;
+        this.board = board;
+
+        setTitle("Hexcells - Просмотр партии (" + log.getLevelPath() + ")");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        // Панель сетки в прокручиваемом окне просмотра, как в окне игры
+        this.gridPanel = new GridPanel(board);
+        JScrollPane scrollPane = new JScrollPane(gridPanel);
+        scrollPane.getViewport().setBackground(gridPanel.getBackground());
+        scrollPane.getVerticalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(GridPanel.DEFAULT_RADIUS);
+        Dimension preferred = gridPanel.getPreferredSize();
+        scrollPane.setPreferredSize(new Dimension(Math.min(preferred.width + 4, MAX_VIEW_WIDTH),
+                Math.min(preferred.height + 4, MAX_VIEW_HEIGHT)));
+        add(scrollPane, BorderLayout.CENTER);
+
+        // Кнопки перехода
+        JButton firstButton = new JButton("|◀");
+        firstButton.setToolTipText("В начало");
+        JButton previousButton = new JButton("◀");
+        previousButton.setToolTipText("Предыдущий ход");
+        this.playButton = new JButton("Воспроизвести");
+        JButton nextButton = new JButton("▶");
+        nextButton.setToolTipText("Следующий ход");
+        JButton lastButton = new JButton("▶|");
+        lastButton.setToolTipText("В конец");
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(firstButton);
+        buttonPanel.add(previousButton);
+        buttonPanel.add(playButton);
+        buttonPanel.add(nextButton);
+        buttonPanel.add(lastButton);
+        add(buttonPanel, BorderLayout.NORTH);
+
+        // Ползунок и номер хода
+        this.slider = new JSlider(0, log.size(), 0);
+        this.statusLabel = new JLabel("", SwingConstants.CENTER);
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(slider, BorderLayout.CENTER);
+        bottomPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        this.playTimer = new Timer(PLAY_DELAY_MS, e -> {
+            if (slider.getValue() < log.size()) {
+                slider.setValue(slider.getValue() + 1);
+            } else {
+                stopPlaying();
+            }
+        });
+
+        slider.addChangeListener(e -> showMove(slider.getValue()));
+        firstButton.addActionListener(e -> slider.setValue(0));
+        previousButton.addActionListener(e -> slider.setValue(slider.getValue() - 1));
+        nextButton.addActionListener(e -> slider.setValue(slider.getValue() + 1));
+        lastButton.addActionListener(e -> slider.setValue(log.size()));
+        playButton.addActionListener(e -> {
+            if (playTimer.isRunning()) {
+                stopPlaying();
+            } else {
+                if (slider.getValue() == log.size()) {
+                    slider.setValue(0); // Воспроизведение сначала
+                }
+                playButton.setText("Пауза");
+                playTimer.start();
+            }
+        });
+
+        // Таймер не должен переживать окно
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                playTimer.stop();
+            }
+        });
+
+        showMove(0);
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    /**
+     * Открывает журнал и уровень, для которого он записан.
+     * Доска берется из LevelPreloader, как при запуске уровня из меню.
+     * @param filePath Путь к журналу партии
+     * @return Окно просмотра (еще не показанное)
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если журнал или уровень некорректны или не совпадают
+     */
+    public static ReplayWindow open(String filePath) throws IOException {
+        ReplayLog log = ReplayLog.open(filePath);
+        return new ReplayWindow(log, LevelPreloader.getShared().take(log.getLevelPath()));
+    }
+
+    /**
+     * Показывает позицию после указанного количества ходов.
+     * @param moves Количество ходов от начала записи
+     */
+    private void showMove(int moves) {
+        log.seek(board, moves);
+        gridPanel.invalidateLayers(); // Позиция заменена целиком
+        long seconds = moves > 0 ? log.getMoveTime(moves - 1) / 1000 : 0;
+        String result = board.isGameWon() ? " — победа" : board.isGameOver() ? " — поражение" : "";
+        statusLabel.setText("Ход " + moves + " из " + log.size() + ", " + seconds + " с" + result);
+    }
+
+    /**
+     * Останавливает воспроизведение.
+     */
+    private void stopPlaying() {
+        playTimer.stop();
+        playButton.setText("Воспроизвести");
+    }
+}
\ No newline at end of file
@@ -1,6 +1,4 @@
-import java.awt.Graphics2D;
 import java.util.List;
-import javax.swing.JPanel;
 
 /**
  * Интерфейс для правил в игре Hexcells.
@@ -18,6 +16,12 @@ public interface Rule {
      */
     int getExpectedMines();
 
+    /**
+     * Возвращает тип правила из реестра RuleType.
+     * @return Тип правила
+     */
+    RuleType getType();
+
     /**
      * Проверяет, выполнено ли правило.
      * @param board Игровая доска
@@ -26,10 +30,10 @@ public interface Rule {
     boolean isSatisfied(Board board);
 
     /**
-     * Отрисовывает правило на панели.
-     * @param g2d Графический контекст
-     * @param panel Панель (GridPanel или EditorGridPanel)
-     * @param board Игровая доска (может быть null в редакторе)
+     * Компилирует правило в битовую маску для доски заданного размера.
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
      */
-    void draw(Graphics2D g2d, JPanel panel, Board board);
+    CompiledRule compile(int rows, int cols);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+import java.util.List;
+
+/**
+ * Абстрактный базовый класс для данных правил.
+ */
+abstract class RuleData {
+    /**
+     * Возвращает тип правила из реестра RuleType.
+     */
+    public abstract RuleType getType();
+
+    /**
+     * Возвращает ячейки правила.
+     */
+    public abstract List<HexCoord> getCells();
+
+    /**
+     * Возвращает ожидаемое количество мин.
+     */
+    public abstract int getExpectedMines();
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Отрисовка правил поверх сетки для игровой панели и редактора.
+ *
+ * Фигуры правил (линии последовательностей, круги групп) и подписи с количеством мин
+ * строятся один раз для геометрии сетки через RuleType.addOverlay. Фигуры одного цвета
+ * собираются в общий Path2D по плиткам экрана, поэтому отрисовка области — это один
+ * вызов draw на плитку и цвет, а подписи выбираются по тем же плиткам и копируются
+ * из листа чисел (GlyphAtlas) каждого цвета. Шрифт и толщина линий общие для всех
+ * правил и масштабируются вместе с радиусом гексагона.
+ * При смене геометрии (масштаба, размеров) или правил создается новый объект.
+ */
+public class RuleOverlayRenderer {
+    /**
+     * Цвет фигур и подписей правила.
+     */
+    enum Style {
+        GREEN(new Color(0, 128, 0)), // Темно-зеленый (группы)
+        BLUE(Color.BLUE); // Последовательности и числа у ячеек
+
+        final Color color;
+
+        Style(Color color) {
+            this.color = color;
+        }
+    }
+
+    private static final int TILE = 256; // Сторона плитки, пиксели
+    private static final int BASE_RADIUS = 30; // Радиус, для которого заданы размеры ниже
+    private static final Font BASE_FONT = new Font("Arial", Font.BOLD, 14); // Шрифт подписей
+    private static final float BASE_STROKE = 2; // Толщина линий
+    private static final int BASE_CIRCLE = 10; // Радиус круга вокруг ячейки группы
+    private static final int BASE_LABEL_OFFSET = 5; // Сдвиг подписи от центра ячейки
+
+    private final HexGeometry geometry;
+    private final double scale; // Масштаб относительно BASE_RADIUS
+    private final Font font;
+    private final Stroke stroke;
+    private final int tilesX;
+    private final int tilesY;
+    private final Path2D.Float[][] tilePaths; // Фигуры по плиткам и цветам (null, если пусто)
+
+    private final GlyphAtlas[] atlases = new GlyphAtlas[Style.values().length]; // Листы чисел по цветам
+    private int[] labelValues = new int[16]; // Числа подписей правил
+    private int[] labelX = new int[16]; // Точка начала подписи
+    private int[] labelY = new int[16];
+    private Style[] labelStyles = new Style[16];
+    private int labelCount;
+    private int[][] tileLabels; // Номера подписей, пересекающих каждую плитку
+    private int[] labelStamp; // Номер отрисовки, в которой подпись уже выбрана
+    private int paintStamp;
+
+    private RuleOverlayRenderer(HexGeometry geometry) {
+        this.geometry = geometry;
+        this.scale = (double) geometry.getRadius() / BASE_RADIUS;
+        this.font = BASE_FONT.deriveFont((float) Math.max(1, BASE_FONT.getSize() * scale));
+        this.stroke = new BasicStroke((float) Math.max(1, BASE_STROKE * scale));
+        Dimension size = geometry.getPreferredSize();
+        this.tilesX = size.width / TILE + 1;
+        this.tilesY = size.height / TILE + 1;
+        this.tilePaths = new Path2D.Float[tilesX * tilesY][];
+    }
+
+    /**
+     * Строит отрисовку для правил игровой доски.
+     * @param geometry Геометрия сетки
+     * @param rules Правила
+     * @return Готовый к отрисовке объект
+     */
+    public static RuleOverlayRenderer forRules(HexGeometry geometry, List<Rule> rules) {
+        RuleOverlayRenderer overlay = new RuleOverlayRenderer(geometry);
+        for (Rule rule : rules) {
+            rule.getType().addOverlay(overlay, rule.getCells(), rule.getExpectedMines());
+        }
+        overlay.indexLabels();
+        return overlay;
+    }
+
+    /**
+     * Строит отрисовку для данных правил (редактор).
+     * @param geometry Геометрия сетки
+     * @param rules Данные правил
+     * @return Готовый к отрисовке объект
+     */
+    public static RuleOverlayRenderer forRuleData(HexGeometry geometry, List<RuleData> rules) {
+        RuleOverlayRenderer overlay = new RuleOverlayRenderer(geometry);
+        for (RuleData rule : rules) {
+            rule.getType().addOverlay(overlay, rule.getCells(), rule.getExpectedMines());
+        }
+        overlay.indexLabels();
+        return overlay;
+    }
+
+    /**
+     * Проверяет, построена ли отрисовка для этой геометрии.
+     */
+    public boolean matches(HexGeometry geometry) {
+        return this.geometry == geometry;
+    }
+
+    /**
+     * Добавляет круг вокруг центра ячейки.
+     */
+    void circle(Style style, HexCoord cell) {
+        Point2D.Double center = geometry.center(cell.getQ(), cell.getR());
+        int radius = (int) Math.max(1, Math.round(BASE_CIRCLE * scale));
+        addShape(style, new Ellipse2D.Float((int) (center.x - radius), (int) (center.y - radius), 2 * radius, 2 * radius));
+    }
+
+    /**
+     * Добавляет отрезки между центрами соседних по списку ячеек.
+     */
+    void polyline(Style style, List<HexCoord> cells) {
+        for (int i = 0; i < cells.size() - 1; i++) {
+            Point2D.Double from = geometry.center(cells.get(i).getQ(), cells.get(i).getR());
+            Point2D.Double to = geometry.center(cells.get(i + 1).getQ(), cells.get(i + 1).getR());
+            Path2D.Float segment = new Path2D.Float();
+            segment.moveTo((int) from.x, (int) from.y);
+            segment.lineTo((int) to.x, (int) to.y);
+            addShape(style, segment);
+        }
+    }
+
+    /**
+     * Добавляет подпись с числом в центре ячейки.
+     */
+    void label(Style style, HexCoord cell, int value) {
+        Point2D.Double center = geometry.center(cell.getQ(), cell.getR());
+        if (labelCount == labelValues.length) {
+            labelValues = Arrays.copyOf(labelValues, labelCount * 2);
+            labelX = Arrays.copyOf(labelX, labelCount * 2);
+            labelY = Arrays.copyOf(labelY, labelCount * 2);
+            labelStyles = Arrays.copyOf(labelStyles, labelCount * 2);
+        }
+        int offset = (int) Math.round(BASE_LABEL_OFFSET * scale);
+        labelValues[labelCount] = value;
+        labelX[labelCount] = (int) center.x - offset;
+        labelY[labelCount] = (int) center.y + offset;
+        labelStyles[labelCount] = style;
+        labelCount++;
+    }
+
+    /**
+     * Рисует правила в пределах области: сначала фигуры, затем подписи поверх.
+     * Состояние графического контекста (цвет, шрифт, линия, отсечение) восстанавливается.
+     * @param g2d Графический контекст в координатах панели
+     * @param area Область отрисовки
+     */
+    public void paint(Graphics2D g2d, Rectangle area) {
+        Color oldColor = g2d.getColor();
+        Font oldFont = g2d.getFont();
+        Stroke oldStroke = g2d.getStroke();
+        Shape oldClip = g2d.getClip();
+
+        int minTileX = Math.max(0, area.x / TILE);
+        int maxTileX = Math.min(tilesX - 1, (area.x + area.width) / TILE);
+        int minTileY = Math.max(0, area.y / TILE);
+        int maxTileY = Math.min(tilesY - 1, (area.y + area.height) / TILE);
+
+        // Фигуры: каждая плитка рисуется в своих границах, поэтому фигура,
+        // попавшая в несколько плиток, не накладывается сама на себя
+        g2d.setStroke(stroke);
+        Rectangle tile = new Rectangle(0, 0, TILE, TILE);
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                Path2D.Float[] paths = tilePaths[ty * tilesX + tx];
+                if (paths == null) {
+                    continue;
+                }
+                tile.setLocation(tx * TILE, ty * TILE);
+                g2d.setClip(oldClip);
+                g2d.clip(tile);
+                for (Style style : Style.values()) {
+                    Path2D.Float path = paths[style.ordinal()];
+                    if (path != null) {
+                        g2d.setColor(style.color);
+                        g2d.draw(path);
+                    }
+                }
+            }
+        }
+        g2d.setClip(oldClip);
+
+        // Подписи: каждая рисуется один раз, даже если пересекает несколько плиток
+        if (labelCount > 0) {
+            double deviceScale = g2d.getTransform().getScaleX();
+            int stamp = ++paintStamp;
+            for (int ty = minTileY; ty <= maxTileY; ty++) {
+                for (int tx = minTileX; tx <= maxTileX; tx++) {
+                    for (int index : tileLabels[ty * tilesX + tx]) {
+                        if (labelStamp[index] != stamp) {
+                            labelStamp[index] = stamp;
+                            atlas(labelStyles[index], deviceScale).draw(g2d, labelValues[index], labelX[index], labelY[index]);
+                        }
+                    }
+                }
+            }
+        }
+
+        g2d.setColor(oldColor);
+        g2d.setFont(oldFont);
+        g2d.setStroke(oldStroke);
+    }
+
+    /**
+     * Возвращает лист чисел цвета, создавая его заново при смене масштаба экрана.
+     */
+    private GlyphAtlas atlas(Style style, double deviceScale) {
+        GlyphAtlas atlas = atlases[style.ordinal()];
+        if (atlas == null || !atlas.matches(font, style.color, deviceScale)) {
+            atlas = new GlyphAtlas(font, style.color, deviceScale);
+            atlases[style.ordinal()] = atlas;
+        }
+        return atlas;
+    }
+
+    /**
+     * Добавляет фигуру в пути всех плиток, которые пересекает ее обводка.
+     */
+    private void addShape(Style style, Shape shape) {
+        Rectangle bounds = shape.getBounds();
+        int margin = (int) Math.ceil(((BasicStroke) stroke).getLineWidth()) + 1;
+        bounds.grow(margin, margin);
+        int maxTileX = Math.min(tilesX - 1, Math.max(0, (bounds.x + bounds.width) / TILE));
+        int maxTileY = Math.min(tilesY - 1, Math.max(0, (bounds.y + bounds.height) / TILE));
+        for (int ty = Math.min(tilesY - 1, Math.max(0, bounds.y / TILE)); ty <= maxTileY; ty++) {
+            for (int tx = Math.min(tilesX - 1, Math.max(0, bounds.x / TILE)); tx <= maxTileX; tx++) {
+                int index = ty * tilesX + tx;
+                if (tilePaths[index] == null) {
+                    tilePaths[index] = new Path2D.Float[Style.values().length];
+                }
+                Path2D.Float path = tilePaths[index][style.ordinal()];
+                if (path == null) {
+                    path = new Path2D.Float();
+                    tilePaths[index][style.ordinal()] = path;
+                }
+                path.append(shape, false);
+            }
+        }
+    }
+
+    /**
+     * Раскладывает подписи по плиткам по их примерным границам.
+     */
+    private void indexLabels() {
+        int[] counts = new int[tilesX * tilesY];
+        Rectangle[] bounds = new Rectangle[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            // Оценка границ текста без FontMetrics: ширина символа не больше размера шрифта
+            int size = font.getSize();
+            bounds[i] = new Rectangle(labelX[i] - 1, labelY[i] - size - 1, String.valueOf(labelValues[i]).length() * size + 2, (int) (size * 1.5) + 2);
+        }
+        tileLabels = new int[counts.length][];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < labelCount; i++) {
+                Rectangle label = bounds[i];
+                int maxTileX = Math.min(tilesX - 1, Math.max(0, (label.x + label.width) / TILE));
+                int maxTileY = Math.min(tilesY - 1, Math.max(0, (label.y + label.height) / TILE));
+                for (int ty = Math.min(tilesY - 1, Math.max(0, label.y / TILE)); ty <= maxTileY; ty++) {
+                    for (int tx = Math.min(tilesX - 1, Math.max(0, label.x / TILE)); tx <= maxTileX; tx++) {
+                        int tile = ty * tilesX + tx;
+                        if (pass == 1) {
+                            tileLabels[tile][counts[tile]] = i;
+                        }
+                        counts[tile]++;
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int t = 0; t < counts.length; t++) {
+                    tileLabels[t] = new int[counts[t]];
+                    counts[t] = 0;
+                }
+            }
+        }
+        labelStamp = new int[labelCount];
+    }
+}
\ No newline at end of file
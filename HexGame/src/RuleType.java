@@ -0,0 +1,282 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реестр типов правил.
+ * Каждый тип знает, как разобрать и записать свое правило в файле уровня,
+ * как создать объект Rule, как скомпилировать правило в битовую маску,
+ * как нарисовать его поверх сетки, какие ячейки ограничивает правило для HintBot
+ * и какое ограничение оно дает анализу решаемости (LevelAnalyzer).
+ * Чтобы добавить новый вид правил, достаточно добавить сюда константу.
+ */
+public enum RuleType {
+    /**
+     * Последовательность (-X-): самая длинная серия мин в упорядоченных ячейках.
+     * Формат: SEQUENCE мины количество q,r q,r ...
+     */
+    SEQUENCE {
+        @Override
+        public RuleData createData(List<HexCoord> cells, int expectedMines) {
+            return new SequenceRuleData(cells, expectedMines);
+        }
+
+        @Override
+        public Rule createRule(RuleData data) {
+            return new SequenceRule(data.getCells(), data.getExpectedMines());
+        }
+
+        @Override
+        public CompiledRule compile(List<HexCoord> cells, int expectedMines, int rows, int cols) {
+            return CompiledRule.forSequence(cells, expectedMines, rows, cols);
+        }
+
+        @Override
+        public void addOverlay(RuleOverlayRenderer overlay, List<HexCoord> cells, int expectedMines) {
+            overlay.polyline(RuleOverlayRenderer.Style.BLUE, cells);
+            if (!cells.isEmpty()) {
+                overlay.label(RuleOverlayRenderer.Style.BLUE, cells.get(0), expectedMines);
+            }
+        }
+
+        @Override
+        void addConstraint(Analysis analysis, List<HexCoord> cells, int expectedMines) {
+            analysis.sequence(cells, expectedMines);
+        }
+
+        @Override
+        public RuleData parse(LevelTextParser in, int rows, int cols) throws IOException {
+            int expectedMines = in.readInt();
+            return createData(readCellList(name(), in, rows, cols), expectedMines);
+        }
+
+        @Override
+        public void write(RuleData data, BufferedWriter writer) throws IOException {
+            writeCellList(data, writer);
+        }
+    },
+
+    /**
+     * Группа ({X}): общее количество мин среди ячеек.
+     * Формат: GROUP мины количество q,r q,r ...
+     */
+    GROUP {
+        @Override
+        public RuleData createData(List<HexCoord> cells, int expectedMines) {
+            return new GroupRuleData(cells, expectedMines);
+        }
+
+        @Override
+        public Rule createRule(RuleData data) {
+            return new GroupRule(data.getCells(), data.getExpectedMines());
+        }
+
+        @Override
+        public void addOverlay(RuleOverlayRenderer overlay, List<HexCoord> cells, int expectedMines) {
+            for (HexCoord cell : cells) {
+                overlay.circle(RuleOverlayRenderer.Style.GREEN, cell);
+            }
+            if (!cells.isEmpty()) {
+                overlay.label(RuleOverlayRenderer.Style.GREEN, cells.get(0), expectedMines);
+            }
+        }
+
+        @Override
+        void addConstraint(Analysis analysis, List<HexCoord> cells, int expectedMines) {
+            analysis.count(cells, expectedMines);
+        }
+
+        @Override
+        public CompiledRule compile(List<HexCoord> cells, int expectedMines, int rows, int cols) {
+            return CompiledRule.forCount(cells, expectedMines, rows, cols);
+        }
+
+        @Override
+        public RuleData parse(LevelTextParser in, int rows, int cols) throws IOException {
+            int expectedMines = in.readInt();
+            return createData(readCellList(name(), in, rows, cols), expectedMines);
+        }
+
+        @Override
+        public void write(RuleData data, BufferedWriter writer) throws IOException {
+            writeCellList(data, writer);
+        }
+    },
+
+    /**
+     * Число на ячейке: количество мин среди ее соседей.
+     * Формат: EDGE мины q,r
+     */
+    EDGE {
+        @Override
+        public RuleData createData(List<HexCoord> cells, int expectedMines) {
+            if (cells.size() != 1) {
+                throw new IllegalArgumentException("Правило EDGE относится ровно к одной ячейке");
+            }
+            return new EdgeRuleData(cells.get(0), expectedMines);
+        }
+
+        @Override
+        public Rule createRule(RuleData data) {
+            return new EdgeRule(data.getCells().get(0), data.getExpectedMines());
+        }
+
+        @Override
+        public CompiledRule compile(List<HexCoord> cells, int expectedMines, int rows, int cols) {
+            return CompiledRule.forNeighbors(cells.get(0), expectedMines, rows, cols);
+        }
+
+        @Override
+        public void addOverlay(RuleOverlayRenderer overlay, List<HexCoord> cells, int expectedMines) {
+            overlay.label(RuleOverlayRenderer.Style.BLUE, cells.get(0), expectedMines);
+        }
+
+        @Override
+        void addConstraint(Analysis analysis, List<HexCoord> cells, int expectedMines) {
+            analysis.neighborCount(cells.get(0), expectedMines);
+        }
+
+        @Override
+        public List<HexCoord> constraintCells(Rule rule, BoardSnapshot board) {
+            return board.getNeighbors(rule.getCells().get(0));
+        }
+
+        @Override
+        public RuleData parse(LevelTextParser in, int rows, int cols) throws IOException {
+            int expectedMines = in.readInt();
+            return createData(List.of(in.readCoord(name(), rows, cols)), expectedMines);
+        }
+
+        @Override
+        public void write(RuleData data, BufferedWriter writer) throws IOException {
+            HexCoord coord = data.getCells().get(0);
+            writer.write(name() + " " + data.getExpectedMines() + " " + coord.getQ() + "," + coord.getR());
+        }
+    };
+
+    /**
+     * Создает данные правила.
+     * @param cells Ячейки правила
+     * @param expectedMines Ожидаемое количество мин
+     * @return Данные правила
+     * @throws IllegalArgumentException если данные недопустимы
+     */
+    public abstract RuleData createData(List<HexCoord> cells, int expectedMines);
+
+    /**
+     * Создает игровое правило по его данным.
+     * @param data Данные правила этого типа
+     * @return Объект Rule
+     */
+    public abstract Rule createRule(RuleData data);
+
+    /**
+     * Компилирует правило в битовую маску для доски заданного размера.
+     * @param cells Ячейки правила
+     * @param expectedMines Ожидаемое количество мин
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
+     * @throws IllegalArgumentException если ячейка указана дважды
+     */
+    public abstract CompiledRule compile(List<HexCoord> cells, int expectedMines, int rows, int cols);
+
+    /**
+     * Компилирует правило по его данным.
+     * @param data Данные правила этого типа
+     * @param rows Количество строк доски
+     * @param cols Количество столбцов доски
+     * @return Скомпилированное правило
+     */
+    public CompiledRule compile(RuleData data, int rows, int cols) {
+        return compile(data.getCells(), data.getExpectedMines(), rows, cols);
+    }
+
+    /**
+     * Добавляет фигуры и подпись правила в отрисовку поверх сетки.
+     * @param overlay Строящаяся отрисовка правил
+     * @param cells Ячейки правила
+     * @param expectedMines Ожидаемое количество мин
+     */
+    public abstract void addOverlay(RuleOverlayRenderer overlay, List<HexCoord> cells, int expectedMines);
+
+    /**
+     * Добавляет ограничение правила в анализ решаемости уровня.
+     * @param analysis Строящийся анализ
+     * @param cells Ячейки правила
+     * @param expectedMines Ожидаемое количество мин
+     */
+    abstract void addConstraint(Analysis analysis, List<HexCoord> cells, int expectedMines);
+
+    /**
+     * Возвращает ячейки, количество мин среди которых задает правило (для HintBot).
+     * @param rule Правило этого типа
+     * @param board Снимок позиции
+     * @return Список ограничиваемых ячеек
+     */
+    public List<HexCoord> constraintCells(Rule rule, BoardSnapshot board) {
+        return rule.getCells();
+    }
+
+    /**
+     * Разбирает правило из файла уровня; ключевое слово типа уже прочитано.
+     * @param in Разборщик, установленный сразу после ключевого слова
+     * @param rows Количество строк сетки
+     * @param cols Количество столбцов сетки
+     * @return Данные правила
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IllegalArgumentException если формат некорректен
+     */
+    public abstract RuleData parse(LevelTextParser in, int rows, int cols) throws IOException;
+
+    /**
+     * Записывает правило в файл уровня одной строкой (без перевода строки).
+     * @param data Данные правила этого типа
+     * @param writer Поток записи
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public abstract void write(RuleData data, BufferedWriter writer) throws IOException;
+
+    /**
+     * Находит тип правила по ключевому слову файла уровня.
+     * @param keyword Ключевое слово (SEQUENCE, GROUP, EDGE)
+     * @return Тип правила
+     * @throws IllegalArgumentException если тип неизвестен
+     */
+    public static RuleType fromKeyword(String keyword) {
+        for (RuleType type : values()) {
+            if (type.name().equals(keyword)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип правила: " + keyword);
+    }
+
+    /**
+     * Разбирает формат "количество q,r q,r ..." после числа мин.
+     */
+    private static List<HexCoord> readCellList(String keyword, LevelTextParser in, int rows, int cols) throws IOException {
+        int cellCount = in.readInt();
+        if (cellCount <= 0 || cellCount > rows * cols) {
+            throw new IllegalArgumentException("Недопустимое количество ячеек в " + keyword + ": " + cellCount);
+        }
+        List<HexCoord> cells = new ArrayList<>(cellCount);
+        for (int j = 0; j < cellCount; j++) {
+            cells.add(in.readCoord(keyword, rows, cols));
+        }
+        return cells;
+    }
+
+    /**
+     * Записывает формат "ТИП мины количество q,r q,r ...".
+     */
+    private static void writeCellList(RuleData data, BufferedWriter writer) throws IOException {
+        List<HexCoord> cells = data.getCells();
+        writer.write(data.getType().name() + " ");
+        writer.write(data.getExpectedMines() + " " + cells.size());
+        for (HexCoord cell : cells) {
+            writer.write(" " + cell.getQ() + "," + cell.getR());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * Данные для правила SequenceRule (-X-).
+ */
+class SequenceRuleData extends RuleData {
+    private final List<HexCoord> cellsInSequence; // Ячейки в последовательности
+    private final int expectedConsecutiveMines; // Ожидаемое количество смежных мин
+
+    public SequenceRuleData(List<HexCoord> cellsInSequence, int expectedConsecutiveMines) {
+        if (cellsInSequence == null || cellsInSequence.isEmpty()) {
+            throw new IllegalArgumentException("Последовательность ячеек не может быть пустой");
+        }
+        if (expectedConsecutiveMines < 0 || expectedConsecutiveMines > cellsInSequence.size()) {
+            throw new IllegalArgumentException("Недопустимое количество мин: " + expectedConsecutiveMines);
+        }
+        this.cellsInSequence = new ArrayList<>(cellsInSequence);
+        this.expectedConsecutiveMines = expectedConsecutiveMines;
+    }
+
+    public List<HexCoord> getCellsInSequence() {
+        return new ArrayList<>(cellsInSequence);
+    }
+
+    public int getExpectedConsecutiveMines() {
+        return expectedConsecutiveMines;
+    }
+
+    @Override
+    public RuleType getType() {
+        return RuleType.SEQUENCE;
+    }
+
+    @Override
+    public List<HexCoord> getCells() {
+        return getCellsInSequence();
+    }
+
+    @Override
+    public int getExpectedMines() {
+        return expectedConsecutiveMines;
+    }
+}
\ No newline at end of file
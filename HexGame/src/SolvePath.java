@@ -0,0 +1,261 @@
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Заранее вычисленный путь решения уровня.
+ * Хранится в файле-спутнике рядом с файлом уровня (level1.txt -> level1.txt.solve)
+ * и содержит упорядоченную последовательность вынужденных выводов HintBot
+ * вместе с обоснованием каждого (открытая ячейка или индекс правила).
+ * Выводы делаются только по тому, что видит игрок (открытые числа, флаги и правила),
+ * без чтения расстановки мин.
+ * Файл-спутник привязан к хэшу файла уровня и игнорируется, если уровень изменился
+ * или файл записан в прежней версии формата.
+ * Для поиска следующей подсказки шаги проиндексированы по ячейкам, а множество
+ * нерешенных шагов обновляется по ячейкам, измененным ходом (cellsChanged), поэтому
+ * ход и подсказка не перебирают путь. Целиком путь сверяется с доской только
+ * после замены ее состояния (новая доска, initializeLevel, restoreState).
+ *
+ * Формат файла:
+ * SOLVE <версия формата>
+ * HASH <sha-256 файла уровня>
+ * STEPS <количество>
+ * SAFE|MINE q r CELL q r   — вывод из числа открытой ячейки
+ * SAFE|MINE q r RULE i     — вывод из правила с индексом i
+ */
+public class SolvePath {
+    public static final String SUFFIX = ".solve"; // Расширение файла-спутника
+    private static final int VERSION = 2; // Версия 1 содержала выводы, читавшие расстановку мин
+
+    private final List<HintResult> steps; // Шаги решения по порядку
+    private final Map<HexCoord, List<Integer>> stepsByCell; // Номера шагов по ячейке
+    private final BitSet unresolved = new BitSet(); // Шаги, ячейка которых еще не решена на доске
+    private int firstUnresolved; // Нерешенных шагов до этого номера нет
+    private Board syncedBoard; // Доска, с которой сверено множество нерешенных шагов
+    private int syncedVersion; // Номер версии состояния этой доски при сверке
+
+    /**
+     * Конструктор.
+     * @param steps Шаги решения по порядку
+     */
+    public SolvePath(List<HintResult> steps) {
+        this.steps = List.copyOf(steps);
+        this.stepsByCell = new HashMap<>();
+        for (int i = 0; i < this.steps.size(); i++) {
+            stepsByCell.computeIfAbsent(this.steps.get(i).getCoord(), key -> new ArrayList<>(1)).add(i);
+        }
+    }
+
+    /**
+     * Возвращает шаги решения.
+     * @return Неизменяемый список шагов
+     */
+    public List<HintResult> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Возвращает следующую подсказку для текущего состояния доски:
+     * первый шаг пути, ячейка которого еще не решена на доске — безопасная
+     * не открыта, мина не помечена флагом. Снятый флаг и флаг на безопасной
+     * ячейке снова делают шаг актуальным.
+     * Если после ходов вызывался cellsChanged, стоимость амортизированно O(1).
+     * @param board Игровая доска
+     * @return HintResult или null, если все шаги пути выполнены
+     */
+    public HintResult nextHint(Board board) {
+        sync(board);
+        int index = unresolved.nextSetBit(firstUnresolved);
+        firstUnresolved = index >= 0 ? index : steps.size();
+        return index >= 0 ? steps.get(index) : null;
+    }
+
+    /**
+     * Сообщает об ячейках, измененных ходом (MoveResult.getChangedCells), и
+     * перепроверяет только шаги этих ячеек. Вызывается после каждого хода на доске.
+     * @param board Игровая доска после хода
+     * @param cells Измененные ячейки
+     */
+    public void cellsChanged(Board board, List<HexCoord> cells) {
+        if (board != syncedBoard || board.getStateVersion() != syncedVersion) {
+            return; // Путь еще не сверен с этой доской: сверка при следующей подсказке
+        }
+        for (HexCoord coord : cells) {
+            for (int index : stepsByCell.getOrDefault(coord, List.of())) {
+                update(board, index);
+            }
+        }
+    }
+
+    /**
+     * Сверяет множество нерешенных шагов с доской целиком, если доска
+     * или ее состояние сменились.
+     */
+    private void sync(Board board) {
+        if (board == syncedBoard && board.getStateVersion() == syncedVersion) {
+            return;
+        }
+        syncedBoard = board;
+        syncedVersion = board.getStateVersion();
+        unresolved.clear();
+        firstUnresolved = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            update(board, i);
+        }
+    }
+
+    private void update(Board board, int index) {
+        HintResult step = steps.get(index);
+        Cell cell = board.getCell(step.getCoord());
+        if (cell != null && !cell.isRevealed() && (step.getType() == HintType.SAFE || !cell.isFlagged())) {
+            unresolved.set(index);
+            firstUnresolved = Math.min(firstUnresolved, index);
+        } else {
+            unresolved.clear(index);
+        }
+    }
+
+    /**
+     * Вычисляет путь решения, последовательно применяя подсказки HintBot к новой доске.
+     * @param config Конфигурация уровня
+     * @return Путь решения (может не доводить уровень до победы, если HintBot застревает)
+     */
+    public static SolvePath compute(LevelConfig config) {
+        Board board = new Board(config.getRows(), config.getCols());
+        board.initializeLevel(config);
+
+        List<HintResult> steps = new ArrayList<>();
+        HintResult hint;
+        while (!board.isGameOver() && (hint = HintBot.findHint(board)) != null) {
+            steps.add(hint);
+            if (hint.getType() == HintType.SAFE) {
+                board.revealCell(hint.getCoord());
+            } else {
+                board.toggleFlag(hint.getCoord());
+            }
+        }
+        return new SolvePath(steps);
+    }
+
+    /**
+     * Вычисляет путь решения для файла уровня и записывает файл-спутник.
+     * @param levelPath Путь к файлу уровня
+     * @return Вычисленный путь
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static SolvePath precompute(String levelPath) throws IOException {
+        String hash = hashFile(levelPath);
+        SolvePath path = compute(LevelFile.loadLevelFromFile(levelPath));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(levelPath + SUFFIX))) {
+            writer.write("SOLVE " + VERSION);
+            writer.newLine();
+            writer.write("HASH " + hash);
+            writer.newLine();
+            writer.write("STEPS " + path.steps.size());
+            writer.newLine();
+            for (HintResult step : path.steps) {
+                HexCoord coord = step.getCoord();
+                writer.write(step.getType() + " " + coord.getQ() + " " + coord.getR());
+                if (step.getSourceCell() != null) {
+                    writer.write(" CELL " + step.getSourceCell().getQ() + " " + step.getSourceCell().getR());
+                } else {
+                    writer.write(" RULE " + step.getRuleIndex());
+                }
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new IOException("Не удалось записать файл: " + levelPath + SUFFIX, e);
+        }
+        return path;
+    }
+
+    /**
+     * Загружает файл-спутник для уровня.
+     * @param levelPath Путь к файлу уровня
+     * @return Путь решения или null, если файла нет, он поврежден, записан в прежней
+     *         версии формата или уровень изменился
+     */
+    public static SolvePath loadFor(String levelPath) {
+        Path sidecar = Paths.get(levelPath + SUFFIX);
+        if (!Files.isRegularFile(sidecar)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(sidecar);
+            if (lines.size() < 3 || !lines.get(0).equals("SOLVE " + VERSION)
+                    || !lines.get(1).startsWith("HASH ") || !lines.get(2).startsWith("STEPS ")) {
+                return null; // Поврежден или прежней версии: выводы могли читать расстановку мин
+            }
+            if (!lines.get(1).substring(5).trim().equals(hashFile(levelPath))) {
+                return null; // Уровень изменился после расчета
+            }
+            int stepCount = Integer.parseInt(lines.get(2).substring(6).trim());
+            if (lines.size() < 3 + stepCount) {
+                return null;
+            }
+
+            List<HintResult> steps = new ArrayList<>(stepCount);
+            for (int i = 0; i < stepCount; i++) {
+                String[] parts = lines.get(3 + i).trim().split("\\s+");
+                HintType type = HintType.valueOf(parts[0]);
+                HexCoord coord = new HexCoord(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                if (parts.length == 6 && parts[3].equals("CELL")) {
+                    HexCoord source = new HexCoord(Integer.parseInt(parts[4]), Integer.parseInt(parts[5]));
+                    steps.add(new HintResult(coord, type, source, -1));
+                } else if (parts.length == 5 && parts[3].equals("RULE")) {
+                    steps.add(new HintResult(coord, type, null, Integer.parseInt(parts[4])));
+                } else {
+                    return null;
+                }
+            }
+            return new SolvePath(steps);
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null; // Поврежденный файл-спутник: подсказки будут считаться заново
+        }
+    }
+
+    /**
+     * Вычисляет SHA-256 содержимого файла.
+     * @param filePath Путь к файлу
+     * @return Хэш в шестнадцатеричном виде
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    static String hashFile(String filePath) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(Paths.get(filePath))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Предварительный расчет путей решения для переданных файлов уровней.
+     * @param args Пути к файлам уровней
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Использование: java SolvePath level1.txt [level2.txt ...]");
+            System.exit(1);
+        }
+        int failures = 0;
+        for (String levelPath : args) {
+            try {
+                SolvePath path = precompute(levelPath);
+                System.out.println(levelPath + ": " + path.getSteps().size() + " шагов");
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println(levelPath + ": " + e.getMessage());
+                failures++;
+            }
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
\ No newline at end of file
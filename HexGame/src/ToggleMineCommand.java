@@ -0,0 +1,22 @@
+/**
+ * Переключение мины в ячейке; обратная команда — то же переключение.
+ */
+class ToggleMineCommand implements EditCommand {
+    private final int q;
+    private final int r;
+
+    ToggleMineCommand(int q, int r) {
+        this.q = q;
+        this.r = r;
+    }
+
+    @Override
+    public void apply(EditorModel model) {
+        model.setMine(q, r, !model.isMine(q, r));
+    }
+
+    @Override
+    public void revert(EditorModel model) {
+        apply(model);
+    }
+}
\ No newline at end of file